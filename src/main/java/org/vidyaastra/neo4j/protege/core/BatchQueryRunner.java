@@ -0,0 +1,275 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import org.neo4j.driver.Record;
+
+/**
+ * Translates and executes a set of natural language questions in bulk, e.g. a regression
+ * set that is re-run after every schema change. At most {@code concurrency} questions are
+ * in flight at once; each one is translated through {@link NlpQueryService} and executed
+ * through {@link Neo4jService} with a server-side timeout.
+ */
+public class BatchQueryRunner {
+
+    private static final int COUNT_CHUNK_SIZE = 1000;
+    // Only the count is reported: records are dropped as they stream past, without maps
+    private static final Neo4jService.RecordChunkHandler COUNT_ONLY = new Neo4jService.RecordChunkHandler() {
+        @Override
+        public boolean onRecords(List<Record> records) {
+            return true;
+        }
+
+        @Override
+        public boolean onChunk(List<Map<String, Object>> chunk) {
+            return true;
+        }
+    };
+
+    private final NlpQueryService nlpQueryService;
+    private final Neo4jService neo4jService;
+    private final int concurrency;
+    private final Duration executionTimeout;
+
+    public BatchQueryRunner(NlpQueryService nlpQueryService, Neo4jService neo4jService,
+                            int concurrency, Duration executionTimeout) {
+        this.nlpQueryService = nlpQueryService;
+        this.neo4jService = neo4jService;
+        this.concurrency = Math.max(1, concurrency);
+        this.executionTimeout = executionTimeout;
+    }
+
+    /**
+     * Reads questions from a file, one per line. Blank lines and lines starting with '#'
+     * are ignored.
+     *
+     * @param questionsFile The file to read
+     * @return The questions in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static List<String> readQuestions(Path questionsFile) throws IOException {
+        List<String> questions = new ArrayList<>();
+        for (String line : Files.readAllLines(questionsFile, StandardCharsets.UTF_8)) {
+            String question = line.trim();
+            if (!question.isEmpty() && !question.startsWith("#")) {
+                questions.add(question);
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * Runs all questions against the same schema snapshot.
+     *
+     * @param questions The natural language questions
+     * @param progress Called with the number of completed questions, may be null
+     * @return One result per question, in input order
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public List<BatchResult> run(List<String> questions, IntConsumer progress) throws InterruptedException {
+        System.out.println("\n=== Batch NL Query Run Started (" + questions.size() + " questions, concurrency "
+            + concurrency + ") ===");
+
+        // A batch usually follows a schema change, so it does not reuse a cached summary
+        NlpQueryService.clearGraphSchema(neo4jService);
+        String schema = NlpQueryService.getGraphSchema(neo4jService);
+        AtomicInteger completed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "neo4j-batch-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<BatchResult>> futures = new ArrayList<>();
+            for (String question : questions) {
+                futures.add(executor.submit(() -> {
+                    BatchResult result = runQuestion(question, schema);
+                    if (progress != null) {
+                        progress.accept(completed.incrementAndGet());
+                    }
+                    return result;
+                }));
+            }
+
+            List<BatchResult> results = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    BatchResult failed = new BatchResult(questions.get(i));
+                    failed.error = String.valueOf(e.getCause());
+                    results.add(failed);
+                }
+            }
+
+            System.out.println("=== Batch NL Query Run Completed ===\n");
+            System.out.println(summarize(results));
+            return results;
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Translates and executes a single question, recording latencies and errors.
+     */
+    private BatchResult runQuestion(String question, String schema) {
+        BatchResult result = new BatchResult(question);
+
+        long start = System.nanoTime();
+        try {
+            result.cypher = nlpQueryService.translateToCypher(question, schema);
+        } catch (Exception e) {
+            result.error = "Translation failed: " + e.getMessage();
+            return result;
+        } finally {
+            result.translationMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+
+        start = System.nanoTime();
+        try {
+            result.rowCount = neo4jService.streamQuery(result.cypher, Map.of(), COUNT_CHUNK_SIZE, executionTimeout,
+                COUNT_ONLY);
+        } catch (Exception e) {
+            result.error = "Execution failed: " + e.getMessage();
+        } finally {
+            result.executionMillis = (System.nanoTime() - start) / 1_000_000;
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes the results as CSV with one line per question.
+     *
+     * @param reportFile Destination file, overwritten if it exists
+     * @param results The batch results
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeReport(Path reportFile, List<BatchResult> results) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+            writer.write("question,cypher,row_count,translation_ms,execution_ms,error");
+            writer.newLine();
+            for (BatchResult result : results) {
+                writer.write(csv(result.question));
+                writer.write(',');
+                writer.write(csv(result.cypher));
+                writer.write(',');
+                writer.write(result.error == null ? String.valueOf(result.rowCount) : "");
+                writer.write(',');
+                writer.write(String.valueOf(result.translationMillis));
+                writer.write(',');
+                writer.write(String.valueOf(result.executionMillis));
+                writer.write(',');
+                writer.write(csv(result.error));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Builds a short human readable summary of a batch run.
+     */
+    public static String summarize(List<BatchResult> results) {
+        int failed = 0;
+        long translationTotal = 0;
+        long executionTotal = 0;
+        long rows = 0;
+        for (BatchResult result : results) {
+            if (result.error != null) {
+                failed++;
+            }
+            translationTotal += result.translationMillis;
+            executionTotal += result.executionMillis;
+            rows += result.rowCount;
+        }
+        int count = Math.max(1, results.size());
+        return String.format(
+            "Batch Summary:\n" +
+            "  Questions: %d\n" +
+            "  Succeeded: %d\n" +
+            "  Failed: %d\n" +
+            "  Total rows: %d\n" +
+            "  Avg translation latency: %d ms\n" +
+            "  Avg execution latency: %d ms",
+            results.size(), results.size() - failed, failed, rows,
+            translationTotal / count, executionTotal / count
+        );
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Outcome of one question in a batch run.
+     */
+    public static class BatchResult {
+        public final String question;
+        public String cypher;
+        public long rowCount = 0;
+        public long translationMillis = 0;
+        public long executionMillis = 0;
+        public String error;
+
+        public BatchResult(String question) {
+            this.question = question;
+        }
+    }
+
+    /**
+     * Command line entry point so the regression set can be run outside Protégé, e.g. against
+     * a local stub LLM. Connection settings are read from system properties named like the
+     * plugin preferences: neo4j.uri, neo4j.username, neo4j.password, neo4j.database,
+     * llm.baseUrl, llm.apiKey, llm.model, batch.concurrency, batch.timeoutSeconds.
+     *
+     * Usage: BatchQueryRunner &lt;questions file&gt; &lt;report.csv&gt;
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: BatchQueryRunner <questions file> <report.csv>");
+            System.exit(1);
+        }
+
+        try (Neo4jService neo4jService = new Neo4jService(
+                System.getProperty("neo4j.uri", "bolt://localhost:7687"),
+                System.getProperty("neo4j.username", "neo4j"),
+                System.getProperty("neo4j.password", ""),
+                System.getProperty("neo4j.database", "neo4j"))) {
+            neo4jService.connect();
+
+            NlpQueryService nlpQueryService = new NlpQueryService(
+                System.getProperty("llm.apiKey", ""),
+                System.getProperty("llm.model", "gpt-4o-mini"),
+                System.getProperty("llm.baseUrl", "http://localhost:8080/v1"));
+
+            BatchQueryRunner runner = new BatchQueryRunner(nlpQueryService, neo4jService,
+                Integer.getInteger("batch.concurrency", 4),
+                Duration.ofSeconds(Integer.getInteger("batch.timeoutSeconds", 60)));
+
+            List<BatchResult> results = runner.run(readQuestions(Paths.get(args[0])), null);
+            writeReport(Paths.get(args[1]), results);
+        }
+    }
+}
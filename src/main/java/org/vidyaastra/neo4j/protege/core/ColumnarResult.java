@@ -0,0 +1,333 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.types.TypeSystem;
+
+/**
+ * Compact in-memory result: one shared column header and one typed column per key instead of
+ * a map per row. Integer, float and boolean columns are kept in primitive arrays, string
+ * columns are dictionary-encoded while they repeat, and any other values are kept as objects.
+ * A row map is only built when {@link #get(int)} is called; {@link #getValue(int, String)}
+ * reads a single cell without one.
+ *
+ * A column switches to object storage when it receives values of different types, e.g. a
+ * property that holds integers on some nodes and strings on others. All methods are
+ * synchronized, so rows can be read while they are added.
+ */
+public class ColumnarResult implements ResultRows {
+
+    private static final TypeSystem TYPES = TypeSystem.getDefault();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final List<String> columnNames = new ArrayList<>();
+    private final Map<String, Column> columns = new HashMap<>();
+    private int rowCount = 0;
+    private int capacity = INITIAL_CAPACITY;
+
+    /**
+     * Adds a row given as a map, e.g. from {@link Record#asMap()}.
+     */
+    public synchronized void add(Map<String, Object> row) {
+        ensureCapacity();
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            column(entry.getKey()).set(rowCount, entry.getValue());
+        }
+        if (row.size() < columnNames.size()) {
+            markMissing(row.keySet());
+        }
+        rowCount++;
+    }
+
+    /**
+     * Adds a driver record, reading integers, floats and booleans without boxing them.
+     */
+    public synchronized void addRecord(Record record) {
+        ensureCapacity();
+        List<String> keys = record.keys();
+        for (int i = 0; i < keys.size(); i++) {
+            Column column = column(keys.get(i));
+            Value value = record.get(i);
+            if (value.isNull()) {
+                column.set(rowCount, null);
+            } else if (value.hasType(TYPES.INTEGER())) {
+                column.setLong(rowCount, value.asLong());
+            } else if (value.hasType(TYPES.FLOAT())) {
+                column.setDouble(rowCount, value.asDouble());
+            } else if (value.hasType(TYPES.BOOLEAN())) {
+                column.setBoolean(rowCount, value.asBoolean());
+            } else {
+                column.set(rowCount, value.asObject());
+            }
+        }
+        if (keys.size() < columnNames.size()) {
+            markMissing(keys);
+        }
+        rowCount++;
+    }
+
+    @Override
+    public synchronized int size() {
+        return rowCount;
+    }
+
+    @Override
+    public synchronized List<String> getColumns() {
+        return new ArrayList<>(columnNames);
+    }
+
+    @Override
+    public synchronized Map<String, Object> get(int index) {
+        checkIndex(index);
+        Map<String, Object> row = new LinkedHashMap<>(columnNames.size() * 2);
+        for (String name : columnNames) {
+            Column column = columns.get(name);
+            if (index >= column.firstRow) {
+                row.put(name, column.get(index));
+            }
+        }
+        return row;
+    }
+
+    @Override
+    public synchronized Object getValue(int index, String columnName) {
+        checkIndex(index);
+        Column column = columns.get(columnName);
+        return column != null && index >= column.firstRow ? column.get(index) : null;
+    }
+
+    /**
+     * Removes all rows and columns.
+     */
+    public synchronized void clear() {
+        columnNames.clear();
+        columns.clear();
+        rowCount = 0;
+        capacity = INITIAL_CAPACITY;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + index + " of " + rowCount);
+        }
+    }
+
+    private void ensureCapacity() {
+        if (rowCount < capacity) {
+            return;
+        }
+        capacity *= 2;
+        for (Column column : columns.values()) {
+            column.grow(capacity);
+        }
+    }
+
+    /**
+     * Stores null in the columns a row does not have.
+     */
+    private void markMissing(Collection<String> keys) {
+        for (String name : columnNames) {
+            if (!keys.contains(name)) {
+                columns.get(name).set(rowCount, null);
+            }
+        }
+    }
+
+    private Column column(String name) {
+        Column column = columns.get(name);
+        if (column == null) {
+            column = new Column(rowCount, capacity);
+            columns.put(name, column);
+            columnNames.add(name);
+        }
+        return column;
+    }
+
+    private enum Kind {
+        EMPTY, LONG, DOUBLE, BOOLEAN, STRING, OBJECT
+    }
+
+    /**
+     * Values of one key. The kind is decided by the first non-null value; {@code nulls} marks
+     * rows without a value in the primitive kinds.
+     */
+    private static final class Column {
+
+        // Dictionary encoding stops paying off when most strings are distinct
+        private static final int MIN_DICTIONARY_CHECK = 1024;
+
+        // Rows before the column appeared do not have the key at all
+        final int firstRow;
+        Kind kind = Kind.EMPTY;
+        final BitSet nulls = new BitSet();
+        int size;
+
+        long[] longs;
+        double[] doubles;
+        BitSet booleans;
+        int[] codes;
+        List<String> dictionary;
+        Map<String, Integer> dictionaryCodes;
+        Object[] objects;
+
+        Column(int firstRow, int capacity) {
+            this.firstRow = firstRow;
+            this.size = capacity;
+        }
+
+        void setLong(int row, long value) {
+            if (kind == Kind.EMPTY) {
+                kind = Kind.LONG;
+                longs = new long[size];
+            }
+            if (kind == Kind.LONG) {
+                longs[row] = value;
+            } else {
+                set(row, value);
+            }
+        }
+
+        void setDouble(int row, double value) {
+            if (kind == Kind.EMPTY) {
+                kind = Kind.DOUBLE;
+                doubles = new double[size];
+            }
+            if (kind == Kind.DOUBLE) {
+                doubles[row] = value;
+            } else {
+                set(row, value);
+            }
+        }
+
+        void setBoolean(int row, boolean value) {
+            if (kind == Kind.EMPTY) {
+                kind = Kind.BOOLEAN;
+                booleans = new BitSet();
+            }
+            if (kind == Kind.BOOLEAN) {
+                booleans.set(row, value);
+            } else {
+                set(row, value);
+            }
+        }
+
+        void set(int row, Object value) {
+            if (value == null) {
+                nulls.set(row);
+                if (kind == Kind.OBJECT) {
+                    objects[row] = null;
+                }
+                return;
+            }
+            if (value instanceof Long || value instanceof Integer) {
+                if (kind == Kind.EMPTY || kind == Kind.LONG) {
+                    setLong(row, ((Number) value).longValue());
+                    return;
+                }
+            } else if (value instanceof Double || value instanceof Float) {
+                if (kind == Kind.EMPTY || kind == Kind.DOUBLE) {
+                    setDouble(row, ((Number) value).doubleValue());
+                    return;
+                }
+            } else if (value instanceof Boolean) {
+                if (kind == Kind.EMPTY || kind == Kind.BOOLEAN) {
+                    setBoolean(row, (Boolean) value);
+                    return;
+                }
+            } else if (value instanceof String) {
+                if (kind == Kind.EMPTY) {
+                    kind = Kind.STRING;
+                    codes = new int[size];
+                    dictionary = new ArrayList<>();
+                    dictionaryCodes = new HashMap<>();
+                }
+                if (kind == Kind.STRING) {
+                    setString(row, (String) value);
+                    return;
+                }
+            }
+            if (kind != Kind.OBJECT) {
+                toObjects(row);
+            }
+            objects[row] = value;
+        }
+
+        private void setString(int row, String value) {
+            Integer code = dictionaryCodes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                dictionaryCodes.put(value, code);
+                if (dictionary.size() >= MIN_DICTIONARY_CHECK && dictionary.size() * 2 > row - firstRow) {
+                    toObjects(row);
+                    objects[row] = value;
+                    return;
+                }
+            }
+            codes[row] = code;
+        }
+
+        /**
+         * Switches to object storage, boxing the values of the rows before {@code endRow}.
+         */
+        private void toObjects(int endRow) {
+            Object[] boxed = new Object[size];
+            for (int row = firstRow; row < endRow; row++) {
+                boxed[row] = get(row);
+            }
+            kind = Kind.OBJECT;
+            objects = boxed;
+            longs = null;
+            doubles = null;
+            booleans = null;
+            codes = null;
+            dictionary = null;
+            dictionaryCodes = null;
+        }
+
+        Object get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            switch (kind) {
+                case LONG:
+                    return longs[row];
+                case DOUBLE:
+                    return doubles[row];
+                case BOOLEAN:
+                    return booleans.get(row);
+                case STRING:
+                    return dictionary.get(codes[row]);
+                case OBJECT:
+                    return objects[row];
+                default:
+                    return null;
+            }
+        }
+
+        void grow(int capacity) {
+            size = capacity;
+            if (longs != null) {
+                longs = Arrays.copyOf(longs, capacity);
+            }
+            if (doubles != null) {
+                doubles = Arrays.copyOf(doubles, capacity);
+            }
+            if (codes != null) {
+                codes = Arrays.copyOf(codes, capacity);
+            }
+            if (objects != null) {
+                objects = Arrays.copyOf(objects, capacity);
+            }
+        }
+    }
+}
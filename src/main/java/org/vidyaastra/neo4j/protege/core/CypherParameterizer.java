@@ -0,0 +1,433 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replaces the string and number literals of a Cypher query with parameters, so queries that
+ * differ only in their literals ({@code WHERE t.amount > 10000} and {@code > 20000}) share one
+ * query string and with it one cached plan on the server.
+ *
+ * The query is tokenized rather than matched with regular expressions, so literals inside
+ * comments, backticked names and existing parameters are left alone. Labels, relationship
+ * types, property keys and procedure names are identifiers and never touched. Literals are
+ * also kept where Cypher requires them or where they name a column:
+ * <ul>
+ * <li>after LIMIT and SKIP, which older servers do not accept as parameters;</li>
+ * <li>in variable-length bounds such as {@code [:KNOWS*1..3]};</li>
+ * <li>after PERIODIC COMMIT, IN TRANSACTIONS OF and FIELDTERMINATOR;</li>
+ * <li>in CYPHER options before the first clause;</li>
+ * <li>in RETURN items, whose text becomes the column name when they have no alias;</li>
+ * <li>in schema and administration commands (indexes, constraints, SHOW, GRANT, ...),
+ * which are returned unchanged.</li>
+ * </ul>
+ */
+public class CypherParameterizer {
+
+    private static final String PREFIX = "p";
+    private static final Pattern PARAMETER = Pattern.compile("\\$`?(\\w+)");
+
+    private static final Set<String> ADMIN_COMMANDS = Set.of(
+        "SHOW", "GRANT", "DENY", "REVOKE", "ALTER", "RENAME", "START", "STOP", "ENABLE", "TERMINATE");
+    private static final Set<String> SCHEMA_OBJECTS = Set.of(
+        "INDEX", "CONSTRAINT", "DATABASE", "ALIAS", "USER", "ROLE", "COMPOSITE", "OR", "BTREE", "RANGE",
+        "TEXT", "POINT", "LOOKUP", "FULLTEXT");
+    private static final Set<String> LITERAL_REQUIRED_AFTER = Set.of(
+        "LIMIT", "SKIP", "COMMIT", "OF", "FIELDTERMINATOR");
+    private static final Set<String> RETURN_END = Set.of("ORDER", "SKIP", "LIMIT", "UNION");
+    private static final Set<String> QUERY_PREFIXES = Set.of("EXPLAIN", "PROFILE", "CYPHER");
+
+    private CypherParameterizer() {
+    }
+
+    /**
+     * Result of {@link #parameterize(String, Map)}.
+     */
+    public static class Parameterized {
+        public String query;
+        public Map<String, Object> parameters;
+        public int liftedLiterals;
+
+        @Override
+        public String toString() {
+            return liftedLiterals == 0 ? query : query + "  " + parameters;
+        }
+    }
+
+    /**
+     * Lifts the literals of a query into parameters named {@code $p0, $p1, ...}, skipping names
+     * the query or the given parameters already use.
+     *
+     * @param cypherQuery The query to parameterize
+     * @param parameters Parameters the query already has, kept in the result
+     * @return The rewritten query with the combined parameters; the query is unchanged and
+     *         {@code liftedLiterals} is 0 if there was nothing to lift
+     */
+    public static Parameterized parameterize(String cypherQuery, Map<String, Object> parameters) {
+        Parameterized result = new Parameterized();
+        result.query = cypherQuery;
+        result.parameters = new LinkedHashMap<>(parameters);
+
+        Set<String> usedNames = new HashSet<>(parameters.keySet());
+        Matcher matcher = PARAMETER.matcher(cypherQuery);
+        while (matcher.find()) {
+            usedNames.add(matcher.group(1));
+        }
+
+        Rewriter rewriter = new Rewriter(cypherQuery, result.parameters, usedNames);
+        if (!rewriter.rewrite()) {
+            return result;
+        }
+        result.query = rewriter.out.toString();
+        result.liftedLiterals = rewriter.lifted;
+        return result;
+    }
+
+    /**
+     * Single pass over the query that copies it token by token, replacing literals outside
+     * the skipped positions.
+     */
+    private static final class Rewriter {
+
+        private final String in;
+        private final Map<String, Object> parameters;
+        private final Set<String> usedNames;
+        private final StringBuilder out;
+        private int pos = 0;
+        private int nextName = 0;
+        private int lifted = 0;
+
+        // Last token that was not whitespace or a comment, upper-cased for words
+        private String previous = "";
+        // First clause of the current statement, after EXPLAIN, PROFILE and CYPHER options
+        private String firstClause = null;
+        private int tokensAfterFirstClause = 0;
+        private boolean inOptions = false;
+        private boolean inReturn = false;
+        // One entry per open bracket: true for the brackets of a relationship pattern
+        private final Deque<Boolean> brackets = new ArrayDeque<>();
+        private boolean inVariableLength = false;
+
+        Rewriter(String in, Map<String, Object> parameters, Set<String> usedNames) {
+            this.in = in;
+            this.parameters = parameters;
+            this.usedNames = usedNames;
+            this.out = new StringBuilder(in.length() + 16);
+        }
+
+        /**
+         * @return false if the query must not be rewritten at all
+         */
+        boolean rewrite() {
+            while (pos < in.length()) {
+                char c = in.charAt(pos);
+                if (Character.isWhitespace(c)) {
+                    out.append(c);
+                    pos++;
+                } else if (in.startsWith("//", pos)) {
+                    int end = in.indexOf('\n', pos);
+                    copyTo(end < 0 ? in.length() : end);
+                } else if (in.startsWith("/*", pos)) {
+                    int end = in.indexOf("*/", pos + 2);
+                    copyTo(end < 0 ? in.length() : end + 2);
+                } else if (c == '\'' || c == '"') {
+                    int start = pos;
+                    String value = readString(c);
+                    literal(start, value);
+                } else if (c == '`') {
+                    int end = in.indexOf('`', pos + 1);
+                    copyTo(end < 0 ? in.length() : end + 1);
+                    token("`");
+                } else if (c == '$') {
+                    // Existing parameter: $name, $0 or $`name`
+                    int start = pos++;
+                    if (pos < in.length() && in.charAt(pos) == '`') {
+                        int end = in.indexOf('`', pos + 1);
+                        pos = end < 0 ? in.length() : end + 1;
+                    } else {
+                        while (pos < in.length() && isWordChar(in.charAt(pos))) {
+                            pos++;
+                        }
+                    }
+                    out.append(in, start, pos);
+                    token("$");
+                } else if (Character.isDigit(c) || (c == '.' && isNumberStartingWithDot())) {
+                    int start = pos;
+                    Object value = readNumber();
+                    literal(start, value);
+                } else if (Character.isLetter(c) || c == '_') {
+                    int start = pos;
+                    while (pos < in.length() && isWordChar(in.charAt(pos))) {
+                        pos++;
+                    }
+                    out.append(in, start, pos);
+                    if (!word(in.substring(start, pos).toUpperCase())) {
+                        return false;
+                    }
+                } else {
+                    symbol(c);
+                }
+            }
+            return lifted > 0;
+        }
+
+        /**
+         * Tracks clauses and detects commands that must not be rewritten. Words after a dot
+         * are property keys, e.g. {@code n.set}, and never clause keywords.
+         */
+        private boolean word(String word) {
+            if (previous.equals(".")) {
+                token(word);
+                return true;
+            }
+            if (firstClause == null) {
+                if (QUERY_PREFIXES.contains(word)) {
+                    inOptions = word.equals("CYPHER");
+                } else if (!inOptions || isClause(word)) {
+                    if (ADMIN_COMMANDS.contains(word)) {
+                        return false;
+                    }
+                    firstClause = word;
+                    tokensAfterFirstClause = -1;
+                    inOptions = false;
+                }
+            } else if (tokensAfterFirstClause == 0 && SCHEMA_OBJECTS.contains(word)
+                    && (firstClause.equals("CREATE") || firstClause.equals("DROP"))) {
+                return false;
+            }
+            if (word.equals("RETURN")) {
+                inReturn = true;
+            } else if (RETURN_END.contains(word) || isClause(word)) {
+                inReturn = false;
+            }
+            token(word);
+            return true;
+        }
+
+        private void symbol(char c) {
+            if (c == '.' && pos + 1 < in.length() && in.charAt(pos + 1) == '.') {
+                out.append("..");
+                pos += 2;
+                token("..");
+                return;
+            }
+            if (c == '[') {
+                brackets.push(previous.equals("-"));
+            } else if (c == ']') {
+                brackets.poll();
+                inVariableLength = false;
+            } else if (c == '{') {
+                inVariableLength = false;
+            } else if (c == '*' && Boolean.TRUE.equals(brackets.peek())) {
+                inVariableLength = true;
+            } else if (c == ';') {
+                inReturn = false;
+                firstClause = null;
+            }
+            out.append(c);
+            pos++;
+            token(String.valueOf(c));
+        }
+
+        /**
+         * Writes a literal read from {@code start} up to the current position, either as it
+         * is or as a new parameter.
+         */
+        private void literal(int start, Object value) {
+            // A number right after a dot, as in WITH .5, was split from its dot by the
+            // property access check; lifting it would leave a stray dot behind
+            boolean keep = value == null
+                || previous.equals(".")
+                || inOptions
+                || inReturn
+                || inVariableLength
+                || LITERAL_REQUIRED_AFTER.contains(previous);
+            if (keep) {
+                out.append(in, start, pos);
+            } else {
+                String name = nextParameterName();
+                parameters.put(name, value);
+                out.append('$').append(name);
+                lifted++;
+            }
+            token("literal");
+        }
+
+        private String nextParameterName() {
+            String name;
+            do {
+                name = PREFIX + nextName++;
+            } while (usedNames.contains(name));
+            usedNames.add(name);
+            return name;
+        }
+
+        private void token(String token) {
+            previous = token;
+            tokensAfterFirstClause++;
+        }
+
+        private void copyTo(int end) {
+            out.append(in, pos, end);
+            pos = end;
+        }
+
+        /**
+         * Reads a quoted string and returns its value, or null if it has an escape sequence
+         * this class does not decode (the literal is then kept as written).
+         */
+        private String readString(char quote) {
+            StringBuilder value = new StringBuilder();
+            boolean decodable = true;
+            pos++;
+            while (pos < in.length()) {
+                char c = in.charAt(pos++);
+                if (c == quote) {
+                    return decodable ? value.toString() : null;
+                }
+                if (c != '\\' || pos >= in.length()) {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = in.charAt(pos++);
+                switch (escaped) {
+                    case '\\': case '\'': case '"':
+                        value.append(escaped);
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 <= in.length()) {
+                            try {
+                                value.append((char) Integer.parseInt(in.substring(pos, pos + 4), 16));
+                                pos += 4;
+                                break;
+                            } catch (NumberFormatException e) {
+                                // Not a valid escape, keep the literal
+                            }
+                        }
+                        decodable = false;
+                        break;
+                    default:
+                        decodable = false;
+                }
+            }
+            // Unterminated string: leave it for the server to report
+            return null;
+        }
+
+        /**
+         * Reads a decimal integer or float and returns it as Long or Double, or null for
+         * hexadecimal and octal numbers and anything that does not parse. Numbers with a
+         * leading zero such as {@code 010} are legacy octal on older servers, so they are
+         * also kept as written.
+         */
+        private Object readNumber() {
+            int start = pos;
+            boolean isFloat = false;
+            if (in.startsWith("0x", pos) || in.startsWith("0X", pos) || in.startsWith("0o", pos)
+                    || in.startsWith("0O", pos)) {
+                pos += 2;
+                while (pos < in.length() && isWordChar(in.charAt(pos))) {
+                    pos++;
+                }
+                return null;
+            }
+            pos = digits(pos);
+            // A dot followed by another dot is a range, as in [1..3]
+            if (pos + 1 < in.length() && in.charAt(pos) == '.' && Character.isDigit(in.charAt(pos + 1))) {
+                isFloat = true;
+                pos = digits(pos + 1);
+            }
+            if (pos < in.length() && (in.charAt(pos) == 'e' || in.charAt(pos) == 'E')) {
+                int exponent = pos + 1;
+                if (exponent < in.length() && (in.charAt(exponent) == '+' || in.charAt(exponent) == '-')) {
+                    exponent++;
+                }
+                if (exponent < in.length() && Character.isDigit(in.charAt(exponent))) {
+                    isFloat = true;
+                    pos = digits(exponent);
+                }
+            }
+            if (pos < in.length() && isWordChar(in.charAt(pos))) {
+                // e.g. 1abc: not a number, copy the whole word
+                while (pos < in.length() && isWordChar(in.charAt(pos))) {
+                    pos++;
+                }
+                return null;
+            }
+            String text = in.substring(start, pos);
+            if (text.length() > 1 && text.charAt(0) == '0' && Character.isDigit(text.charAt(1))) {
+                return null;
+            }
+            try {
+                return isFloat ? (Object) Double.valueOf(text) : (Object) Long.valueOf(text);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private int digits(int from) {
+            int end = from;
+            while (end < in.length() && Character.isDigit(in.charAt(end))) {
+                end++;
+            }
+            return end;
+        }
+
+        /**
+         * A dot starts a number like .5 unless it follows something it could be a property
+         * access on, such as n.name or list[0].name.
+         */
+        private boolean isNumberStartingWithDot() {
+            if (pos + 1 >= in.length() || !Character.isDigit(in.charAt(pos + 1))) {
+                return false;
+            }
+            int before = pos - 1;
+            while (before >= 0 && Character.isWhitespace(in.charAt(before))) {
+                before--;
+            }
+            if (before < 0) {
+                return true;
+            }
+            char c = in.charAt(before);
+            return !(isWordChar(c) || c == ')' || c == ']' || c == '`' || c == '.');
+        }
+
+        private static boolean isClause(String word) {
+            switch (word) {
+                case "MATCH": case "OPTIONAL": case "CREATE": case "MERGE": case "UNWIND": case "WITH":
+                case "RETURN": case "CALL": case "LOAD": case "USING": case "USE": case "FOREACH":
+                case "DELETE": case "DETACH": case "SET": case "REMOVE": case "DROP":
+                case "SHOW": case "GRANT": case "DENY": case "REVOKE": case "ALTER": case "RENAME":
+                case "START": case "STOP": case "ENABLE": case "TERMINATE":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private static boolean isWordChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_';
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import org.neo4j.driver.summary.Plan;
+
+/**
+ * Reads a whole graph, or the part selected by label and relationship type filters, in pages
+ * of matching nodes. The ids of the matching nodes are streamed once per phase and cut into
+ * pages of exactly {@code pageSize} ids, so a filter that matches few nodes spread over a
+ * large id space costs no empty pages. Each page looks its nodes up by id
+ * ({@code id(n) IN $ids}, planned as a NodeByIdSeek), so no page scans all nodes; labels and
+ * relationship types are written into the pattern rather than compared as strings, so the
+ * planner can use them. Several pages are fetched in parallel, each over its own session, and
+ * handed to a single consumer through a bounded queue, so at most a few pages of ids and
+ * records are held in memory no matter how large the graph is.
+ *
+ * All node pages are delivered before any relationship page, so an importer has created the
+ * individual for every node before it sees relationships pointing to it. Node records have a
+ * single column "n", relationship records a single column "r".
+ */
+public class GraphImportReader {
+
+    private final Neo4jService neo4jService;
+    private final Filter filter;
+    private final int pageSize;
+    private final int parallelism;
+    private boolean stopped;
+
+    public GraphImportReader(Neo4jService neo4jService, Filter filter, int pageSize, int parallelism) {
+        this.neo4jService = neo4jService;
+        this.filter = filter;
+        this.pageSize = Math.max(1, pageSize);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Reads all matching nodes and then all matching relationships.
+     *
+     * @param handler Receives each page on the calling thread; returning false stops the read
+     * @param progress Receives progress after each page, may be null
+     * @return The number of records delivered
+     * @throws Exception if a page query or the handler fails
+     */
+    public long read(Neo4jService.RecordChunkHandler handler, ProgressListener progress) throws Exception {
+        stopped = false;
+        long nodes = countMatchingNodes();
+        if (nodes == 0) {
+            return 0;
+        }
+
+        int pageCount = (int) Math.min(Integer.MAX_VALUE, (nodes + pageSize - 1) / pageSize);
+        System.out.println("Importing about " + nodes + " nodes in " + pageCount + " pages of " + pageSize
+            + " (" + parallelism + " parallel sessions)");
+        if (!filter.labels.isEmpty()) {
+            warnOnAllNodesScan(neo4jService, "graph import", buildNodeIdQuery(), Map.of());
+        }
+        warnOnAllNodesScan(neo4jService, "graph import", buildNodeQuery(), pageParameters(List.of()));
+        warnOnAllNodesScan(neo4jService, "graph import", buildRelationshipQuery(), pageParameters(List.of()));
+
+        long records = readPages("Nodes", buildNodeQuery(), pageCount, handler, progress);
+        if (!stopped) {
+            records += readPages("Relationships", buildRelationshipQuery(), pageCount, handler, progress);
+        }
+        return records;
+    }
+
+    /**
+     * Returns the number of matching nodes from the count store, for progress. A node with
+     * several of the filtered labels is counted once per label, so this may be an estimate.
+     */
+    private long countMatchingNodes() throws Exception {
+        List<String> patterns = new ArrayList<>();
+        if (filter.labels.isEmpty()) {
+            patterns.add("(n)");
+        } else {
+            for (String label : filter.labels) {
+                patterns.add("(n:" + quote(label) + ")");
+            }
+        }
+
+        long count = 0;
+        for (String pattern : patterns) {
+            List<Map<String, Object>> rows = neo4jService.executeQuery(
+                "MATCH " + pattern + " RETURN count(n) AS count", Map.of());
+            if (!rows.isEmpty() && rows.get(0).get("count") != null) {
+                count += ((Number) rows.get(0).get("count")).longValue();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Logs a warning if the plan of a query contains an AllNodesScan, which would make it, or
+     * every page, read the whole graph.
+     *
+     * @param purpose What the query is for, e.g. "graph import"
+     */
+    static void warnOnAllNodesScan(Neo4jService neo4jService, String purpose, String query,
+                                   Map<String, Object> parameters) {
+        try {
+            Plan plan = neo4jService.explain(query, parameters);
+            if (plan != null && containsAllNodesScan(plan)) {
+                System.err.println("Warning: " + purpose + " query scans all nodes: " + query);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not check the plan of the " + purpose + " query: " + e.getMessage());
+        }
+    }
+
+    private static boolean containsAllNodesScan(Plan plan) {
+        if (QueryPlanAnalysis.operatorName(plan).equals("AllNodesScan")) {
+            return true;
+        }
+        for (Plan child : plan.children()) {
+            if (containsAllNodesScan(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, Object> pageParameters(List<Long> ids) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("ids", ids);
+        return params;
+    }
+
+    /**
+     * Streams the ids of the matching nodes on one thread, cuts them into pages, fetches the
+     * pages on {@code parallelism} further threads and passes them to the handler in
+     * completion order. At most two pages per worker are in flight, so neither the ids nor
+     * the records of the whole graph are ever held at once.
+     *
+     * @param pageCount Estimated number of pages, for progress
+     * @return The number of records delivered
+     */
+    private long readPages(String phase, String query, int pageCount,
+                           Neo4jService.RecordChunkHandler handler, ProgressListener progress) throws Exception {
+        int inFlight = 2 * parallelism;
+        Semaphore permits = new Semaphore(inFlight);
+        // Room for every page in flight and the end marker, so workers never block on it
+        BlockingQueue<Page> queue = new ArrayBlockingQueue<>(inFlight + 1);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism + 1, runnable -> {
+            Thread thread = new Thread(runnable, "neo4j-graph-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long records = 0;
+        try {
+            executor.submit(() -> {
+                Page end = new Page();
+                try {
+                    List<Long> ids = new ArrayList<>(pageSize);
+                    neo4jService.streamQuery(buildNodeIdQuery(), Map.of(), pageSize, chunk -> {
+                        for (Map<String, Object> row : chunk) {
+                            ids.add(((Number) row.get("id")).longValue());
+                            if (ids.size() == pageSize) {
+                                end.pages++;
+                                fetchPage(executor, queue, permits, query, new ArrayList<>(ids));
+                                ids.clear();
+                            }
+                        }
+                        return true;
+                    });
+                    if (!ids.isEmpty()) {
+                        end.pages++;
+                        fetchPage(executor, queue, permits, query, ids);
+                    }
+                } catch (Exception e) {
+                    end.error = e;
+                }
+                queue.put(end);
+                return null;
+            });
+
+            int done = 0;
+            int expected = -1;
+            while (expected < 0 || done < expected) {
+                Page page = queue.take();
+                if (page.error != null) {
+                    throw page.error;
+                }
+                if (page.rows == null) {
+                    expected = page.pages;
+                    continue;
+                }
+                permits.release();
+                done++;
+                records += page.rows.size();
+                boolean proceed = page.rows.isEmpty() || handler.onChunk(page.rows);
+                if (progress != null) {
+                    progress.onProgress(phase, done, Math.max(done, expected >= 0 ? expected : pageCount), records);
+                }
+                if (!proceed) {
+                    stopped = true;
+                    break;
+                }
+            }
+            return records;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Submits the fetch of one page once fewer pages than allowed are in flight.
+     */
+    private void fetchPage(ExecutorService executor, BlockingQueue<Page> queue, Semaphore permits,
+                           String query, List<Long> ids) throws InterruptedException {
+        permits.acquire();
+        executor.submit(() -> {
+            Page result = new Page();
+            try {
+                result.rows = neo4jService.executeQuery(query, pageParameters(ids));
+            } catch (Exception e) {
+                result.error = e;
+            }
+            queue.put(result);
+            return null;
+        });
+    }
+
+    /**
+     * Query returning the id of every matching node once. With a label filter each label is
+     * read with its own label scan, skipping nodes already returned for an earlier label.
+     */
+    private String buildNodeIdQuery() {
+        if (filter.labels.isEmpty()) {
+            return "MATCH (n) RETURN id(n) AS id";
+        }
+        List<String> parts = new ArrayList<>();
+        List<String> earlier = new ArrayList<>();
+        for (String label : filter.labels) {
+            String exclude = earlier.isEmpty() ? "" : " WHERE NOT (" + String.join(" OR ", earlier) + ")";
+            parts.add("MATCH (n:" + quote(label) + ")" + exclude + " RETURN id(n) AS id");
+            earlier.add("n:" + quote(label));
+        }
+        return String.join(" UNION ALL ", parts);
+    }
+
+    private String buildNodeQuery() {
+        return "MATCH (n) WHERE id(n) IN $ids RETURN n";
+    }
+
+    private String buildRelationshipQuery() {
+        return "MATCH (n)-[r" + filter.relationshipTypes() + "]->(m) WHERE id(n) IN $ids AND "
+            + filter.nodeCondition("m") + " RETURN r";
+    }
+
+    /**
+     * Quotes a label or relationship type for use in a pattern.
+     */
+    static String quote(String name) {
+        return "`" + name.replace("`", "``") + "`";
+    }
+
+    /**
+     * A fetched page, or the error that prevented fetching it. The end marker has no rows
+     * and tells how many pages were submitted.
+     */
+    private static class Page {
+        List<Map<String, Object>> rows;
+        Exception error;
+        int pages;
+    }
+
+    /**
+     * Receives progress of a read.
+     */
+    public interface ProgressListener {
+        void onProgress(String phase, int pagesDone, int pagesTotal, long records);
+    }
+
+    /**
+     * Labels and relationship types to import. Empty lists import everything.
+     */
+    public static class Filter {
+        public final List<String> labels = new ArrayList<>();
+        public final List<String> relationshipTypes = new ArrayList<>();
+
+        /**
+         * Parses a filter from lines such as {@code labels: Person, Movie} and
+         * {@code relationships: ACTED_IN}. Blank lines and lines starting with "//" or "#"
+         * are ignored.
+         *
+         * @throws IllegalArgumentException for lines that are not a known filter
+         */
+        public static Filter parse(String text) {
+            Filter filter = new Filter();
+            for (String line : text.split("\\R")) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("//") || trimmed.startsWith("#")) {
+                    continue;
+                }
+                int colon = trimmed.indexOf(':');
+                String key = colon > 0 ? trimmed.substring(0, colon).trim().toLowerCase() : "";
+                List<String> target;
+                if (key.equals("labels")) {
+                    target = filter.labels;
+                } else if (key.equals("relationships")) {
+                    target = filter.relationshipTypes;
+                } else {
+                    throw new IllegalArgumentException("Unknown filter line: " + trimmed
+                        + "\nUse 'labels: A, B' and 'relationships: R1, R2'");
+                }
+                for (String name : trimmed.substring(colon + 1).split(",")) {
+                    if (!name.trim().isEmpty()) {
+                        target.add(name.trim());
+                    }
+                }
+            }
+            return filter;
+        }
+
+        /**
+         * Cypher condition selecting nodes with one of the labels, as label predicates such as
+         * {@code (n:Person OR n:Movie)}.
+         */
+        String nodeCondition(String variable) {
+            if (labels.isEmpty()) {
+                return "true";
+            }
+            List<String> predicates = new ArrayList<>();
+            for (String label : labels) {
+                predicates.add(variable + ":" + quote(label));
+            }
+            return "(" + String.join(" OR ", predicates) + ")";
+        }
+
+        /**
+         * Relationship type part of a pattern, e.g. {@code :ACTED_IN|DIRECTED}, or "" for all types.
+         */
+        String relationshipTypes() {
+            if (relationshipTypes.isEmpty()) {
+                return "";
+            }
+            List<String> types = new ArrayList<>();
+            for (String type : relationshipTypes) {
+                types.add(quote(type));
+            }
+            return ":" + String.join("|", types);
+        }
+
+        @Override
+        public String toString() {
+            return "labels " + (labels.isEmpty() ? "(all)" : labels)
+                + ", relationships " + (relationshipTypes.isEmpty() ? "(all)" : relationshipTypes);
+        }
+    }
+}
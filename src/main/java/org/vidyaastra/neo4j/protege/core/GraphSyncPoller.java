@@ -0,0 +1,203 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the nodes and relationships that changed in Neo4j since the last poll, using a
+ * watermark property that the application maintains on every write, e.g. an {@code updatedAt}
+ * timestamp or a counter holding the id of the writing transaction. Any property with
+ * comparable values (numbers, strings, temporal values) works.
+ *
+ * Changed elements are compared with {@code >=} against the watermark, so elements written in
+ * the same instant as the last poll's newest element are not missed; they are delivered again
+ * and are expected to be skipped by an idempotent importer.
+ *
+ * Each poll matches the filtered labels and relationship types in the pattern, one part per
+ * label or type, so a range index on the watermark property answers it without scanning the
+ * graph. Without a filter every node has to be checked.
+ */
+public class GraphSyncPoller {
+
+    private final Neo4jService neo4jService;
+    private final GraphImportReader.Filter filter;
+    private final String watermarkProperty;
+    private final int chunkSize;
+    private Object watermark;
+    // Queries whose plan was already checked for an AllNodesScan
+    private final Set<String> checkedQueries = new HashSet<>();
+
+    public GraphSyncPoller(Neo4jService neo4jService, GraphImportReader.Filter filter,
+                           String watermarkProperty, int chunkSize) {
+        this.neo4jService = neo4jService;
+        this.filter = filter;
+        this.watermarkProperty = watermarkProperty;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the watermark to the newest value currently in the graph, so the first poll only
+     * returns changes made after this call.
+     *
+     * @throws Exception if the query fails
+     */
+    public void initializeWatermark() throws Exception {
+        String property = quotedProperty();
+        List<Map<String, Object>> rows = new ArrayList<>(neo4jService.executeQuery(
+            nodeQuery(null, "RETURN max(n." + property + ") AS watermark"), Map.of()));
+        rows.addAll(neo4jService.executeQuery(
+            relationshipQuery(null, "RETURN max(r." + property + ") AS watermark"), Map.of()));
+
+        watermark = null;
+        for (Map<String, Object> row : rows) {
+            advance(row.get("watermark"));
+        }
+        System.out.println("Sync watermark on " + watermarkProperty + " initialized to " + watermark);
+    }
+
+    /**
+     * Delivers all nodes, then all relationships, whose watermark property is at or after the
+     * current watermark, and advances the watermark to the newest value seen. Records have a
+     * column "n" or "r" and a column "watermark".
+     *
+     * @param handler Receives the changed elements in chunks; returning false stops the poll
+     *                and leaves the watermark unchanged
+     * @return The number of records delivered
+     * @throws Exception if a query or the handler fails; the watermark is then left unchanged
+     */
+    public long poll(Neo4jService.RecordChunkHandler handler) throws Exception {
+        String property = quotedProperty();
+        Map<String, Object> params = new HashMap<>();
+        params.put("since", watermark);
+        String since = watermark == null ? " IS NOT NULL" : " >= $since";
+        String nodeQuery = nodeQuery("n." + property + since, "RETURN n, n." + property + " AS watermark");
+        String relationshipQuery = relationshipQuery("r." + property + since,
+            "RETURN r, r." + property + " AS watermark");
+
+        Object[] newest = {watermark};
+        boolean[] stopped = {false};
+        Neo4jService.RecordChunkHandler tracking = chunk -> {
+            for (Map<String, Object> record : chunk) {
+                newest[0] = max(newest[0], record.get("watermark"));
+            }
+            stopped[0] = !handler.onChunk(chunk);
+            return !stopped[0];
+        };
+
+        checkPlan(nodeQuery, params);
+        long records = neo4jService.streamQuery(nodeQuery, params, chunkSize, tracking);
+        if (stopped[0]) {
+            return records;
+        }
+        checkPlan(relationshipQuery, params);
+        records += neo4jService.streamQuery(relationshipQuery, params, chunkSize, tracking);
+
+        if (!stopped[0]) {
+            watermark = newest[0];
+        }
+        return records;
+    }
+
+    public Object getWatermark() {
+        return watermark;
+    }
+
+    public String getWatermarkProperty() {
+        return watermarkProperty;
+    }
+
+    private void advance(Object value) {
+        watermark = max(watermark, value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object max(Object current, Object candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        if (current == null || !current.getClass().equals(candidate.getClass())
+                || !(candidate instanceof Comparable)) {
+            return current == null ? candidate : current;
+        }
+        return ((Comparable) candidate).compareTo(current) > 0 ? candidate : current;
+    }
+
+    /**
+     * Logs a warning the first time a query of this poller is planned with an AllNodesScan.
+     */
+    private void checkPlan(String query, Map<String, Object> parameters) {
+        if (checkedQueries.add(query)) {
+            GraphImportReader.warnOnAllNodesScan(neo4jService, "sync", query, parameters);
+        }
+    }
+
+    /**
+     * Matches the nodes selected by the filter with one MATCH per label, joined with UNION, so
+     * each part can seek a label or range index on the watermark property.
+     *
+     * @param condition Condition on n, or null
+     * @param returnClause RETURN clause of every part
+     */
+    private String nodeQuery(String condition, String returnClause) {
+        if (filter.labels.isEmpty()) {
+            return match("(n)", conditions(condition), returnClause);
+        }
+        List<String> parts = new ArrayList<>();
+        for (String label : filter.labels) {
+            parts.add(match("(n:" + GraphImportReader.quote(label) + ")", conditions(condition), returnClause));
+        }
+        return String.join(" UNION ", parts);
+    }
+
+    /**
+     * Matches the relationships selected by the filter with one MATCH per relationship type,
+     * or else per label of the start node, joined with UNION, so no part has to expand from
+     * every node.
+     *
+     * @param condition Condition on r, or null
+     * @param returnClause RETURN clause of every part
+     */
+    private String relationshipQuery(String condition, String returnClause) {
+        List<String> parts = new ArrayList<>();
+        if (!filter.relationshipTypes.isEmpty()) {
+            for (String type : filter.relationshipTypes) {
+                parts.add(match("(n)-[r:" + GraphImportReader.quote(type) + "]->(m)",
+                    conditions(condition, filter.nodeCondition("n"), filter.nodeCondition("m")), returnClause));
+            }
+        } else if (!filter.labels.isEmpty()) {
+            for (String label : filter.labels) {
+                parts.add(match("(n:" + GraphImportReader.quote(label) + ")-[r]->(m)",
+                    conditions(condition, filter.nodeCondition("m")), returnClause));
+            }
+        } else {
+            parts.add(match("(n)-[r]->(m)", conditions(condition), returnClause));
+        }
+        return String.join(" UNION ", parts);
+    }
+
+    private static String match(String pattern, List<String> conditions, String returnClause) {
+        return "MATCH " + pattern + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+            + " " + returnClause;
+    }
+
+    /**
+     * Returns the given conditions without nulls and filter conditions that match everything.
+     */
+    private static List<String> conditions(String... conditions) {
+        List<String> kept = new ArrayList<>();
+        for (String condition : conditions) {
+            if (condition != null && !condition.equals("true")) {
+                kept.add(condition);
+            }
+        }
+        return kept;
+    }
+
+    private String quotedProperty() {
+        return "`" + watermarkProperty.replace("`", "``") + "`";
+    }
+}
@@ -0,0 +1,215 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import org.neo4j.driver.types.Node;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Remembers which Neo4j nodes have been imported into an ontology, with the individual that
+ * represents each node, a hash of its labels and properties and the data property assertions
+ * the import created. Re-importing a node whose hash is unchanged can then be skipped without
+ * generating any axioms, and re-importing a changed node only replaces values the import made.
+ *
+ * Entries recorded during an import are pending until {@link #commit()} is called, so an
+ * import that is discarded (e.g. a staged import the user did not merge) leaves the index
+ * untouched. Imports that run at the same time, such as a staged import and a sync, each
+ * record through their own view from {@link #newImport()}: the views share the committed
+ * entries but keep separate pending entries, so one import's commit or discard never affects
+ * another's. The committed entries may be read and committed to from any thread.
+ */
+public class ImportIndex {
+
+    // Multiplier of the content hash, the 64-bit golden ratio
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_INTEGER = 2;
+    private static final int TAG_FLOAT = 3;
+    private static final int TAG_BOOLEAN = 4;
+    private static final int TAG_BYTES = 5;
+    private static final int TAG_LIST = 6;
+    private static final int TAG_MAP = 7;
+    private static final int TAG_OTHER = 8;
+
+    private final OWLOntology ontology;
+    private final LongObjectMap<Entry> entries;
+    private LongObjectMap<Entry> pending = new LongObjectMap<>();
+
+    /**
+     * @param ontology The ontology the indexed nodes were imported into
+     */
+    public ImportIndex(OWLOntology ontology) {
+        this(ontology, new LongObjectMap<>());
+    }
+
+    private ImportIndex(OWLOntology ontology, LongObjectMap<Entry> entries) {
+        this.ontology = ontology;
+        this.entries = entries;
+    }
+
+    /**
+     * Returns a view for one import, sharing this index's committed entries but with pending
+     * entries of its own. A view is used by one import at a time.
+     */
+    public ImportIndex newImport() {
+        return new ImportIndex(ontology, entries);
+    }
+
+    public OWLOntology getOntology() {
+        return ontology;
+    }
+
+    /**
+     * Returns the entry for a node id, including pending entries, or null if the node has
+     * not been imported.
+     */
+    public Entry get(long nodeId) {
+        Entry entry = pending.get(nodeId);
+        if (entry != null) {
+            return entry;
+        }
+        synchronized (entries) {
+            return entries.get(nodeId);
+        }
+    }
+
+    /**
+     * Records a node as imported. The entry becomes permanent on {@link #commit()}.
+     *
+     * @param dataAssertions The data property assertions generated for the node
+     */
+    public void record(long nodeId, OWLNamedIndividual individual, long contentHash,
+                       Set<OWLDataPropertyAssertionAxiom> dataAssertions) {
+        pending.put(nodeId, new Entry(individual, contentHash, dataAssertions));
+    }
+
+    /**
+     * Returns true if the node was imported with the same content and its individual is still
+     * part of the ontology (it may have been removed by undo or by hand since).
+     */
+    public boolean isUnchanged(long nodeId, long contentHash) {
+        Entry entry = get(nodeId);
+        return entry != null && entry.contentHash == contentHash
+            && ontology.containsEntityInSignature(entry.individual);
+    }
+
+    /**
+     * Makes the pending entries of this view permanent.
+     */
+    public void commit() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        synchronized (entries) {
+            pending.forEach(entries::put);
+        }
+        pending = new LongObjectMap<>();
+    }
+
+    /**
+     * Drops the pending entries of this view.
+     */
+    public void discard() {
+        pending = new LongObjectMap<>();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 64-bit hash of a node's labels and property values, used to detect changed nodes. Values
+     * are hashed by content, byte arrays included, and labels and property keys in sorted
+     * order; the type of each value is part of the hash, so {@code 1} and {@code "1"} differ.
+     */
+    public static long contentHash(Node node) {
+        List<String> labels = new ArrayList<>();
+        node.labels().forEach(labels::add);
+        labels.sort(null);
+        long hash = 1;
+        for (String label : labels) {
+            hash = hashValue(hash, label);
+        }
+        return hashValue(hash, node.asMap());
+    }
+
+    private static long hashValue(long hash, Object value) {
+        if (value == null) {
+            return mix(hash, TAG_NULL);
+        }
+        if (value instanceof String) {
+            return hashBytes(mix(hash, TAG_STRING), ((String) value).getBytes(StandardCharsets.UTF_8));
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return mix(mix(hash, TAG_INTEGER), ((Number) value).longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return mix(mix(hash, TAG_FLOAT), Double.doubleToLongBits(((Number) value).doubleValue()));
+        }
+        if (value instanceof Boolean) {
+            return mix(mix(hash, TAG_BOOLEAN), (Boolean) value ? 1 : 0);
+        }
+        if (value instanceof byte[]) {
+            return hashBytes(mix(hash, TAG_BYTES), (byte[]) value);
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            hash = mix(mix(hash, TAG_LIST), list.size());
+            for (Object element : list) {
+                hash = hashValue(hash, element);
+            }
+            return hash;
+        }
+        if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((key, element) -> sorted.put(String.valueOf(key), element));
+            hash = mix(mix(hash, TAG_MAP), sorted.size());
+            for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+                hash = hashValue(hashValue(hash, entry.getKey()), entry.getValue());
+            }
+            return hash;
+        }
+        // Temporal and spatial values, which are imported as their string form
+        return hashBytes(mix(hash, TAG_OTHER), value.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long hashBytes(long hash, byte[] bytes) {
+        hash = mix(hash, bytes.length);
+        for (byte b : bytes) {
+            hash = mix(hash, b);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * HASH_MULTIPLIER;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Individual, content hash and imported data property values of a node.
+     */
+    public static class Entry {
+        public final OWLNamedIndividual individual;
+        public final long contentHash;
+        public final Set<OWLDataPropertyAssertionAxiom> dataAssertions;
+
+        public Entry(OWLNamedIndividual individual, long contentHash,
+                     Set<OWLDataPropertyAssertionAxiom> dataAssertions) {
+            this.individual = individual;
+            this.contentHash = contentHash;
+            this.dataAssertions = dataAssertions;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One OpenAI-compatible chat completion endpoint (base URL + model) together with the
+ * latency statistics observed for it. The statistics drive the hedge delay used by
+ * {@link NlpQueryService}.
+ */
+public class LlmEndpoint {
+
+    private static final int LATENCY_WINDOW = 64;
+
+    private final String baseUrl;
+    private final String model;
+    private final String apiKey;
+    private final LlmHttpClient httpClient;
+
+    // Ring buffer of recent response times in milliseconds, see recordCancelled
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount = 0;
+    private int latencyNext = 0;
+    private long failures = 0;
+
+    public LlmEndpoint(String baseUrl, String model, String apiKey,
+                       Duration connectTimeout, Duration readTimeout) {
+        this.baseUrl = baseUrl;
+        this.model = model;
+        this.apiKey = apiKey;
+        this.httpClient = LlmHttpClient.forEndpoint(baseUrl, connectTimeout, readTimeout);
+    }
+
+    /**
+     * Parses a list of endpoints written one per line (or comma separated) as
+     * {@code model@baseUrl}. Entries without a model use the given default model.
+     *
+     * @param spec The endpoint list, may be empty
+     * @param defaultModel Model used for entries that only give a URL
+     * @param apiKey API key shared by all parsed endpoints
+     * @return The parsed endpoints, in order
+     */
+    public static List<LlmEndpoint> parseList(String spec, String defaultModel, String apiKey,
+                                              Duration connectTimeout, Duration readTimeout) {
+        List<LlmEndpoint> endpoints = new ArrayList<>();
+        if (spec == null) {
+            return endpoints;
+        }
+        for (String entry : Arrays.asList(spec.split("[,\\n]"))) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int at = entry.indexOf('@');
+            String model = at > 0 ? entry.substring(0, at).trim() : defaultModel;
+            String url = at > 0 ? entry.substring(at + 1).trim() : entry;
+            endpoints.add(new LlmEndpoint(url, model, apiKey, connectTimeout, readTimeout));
+        }
+        return endpoints;
+    }
+
+    /**
+     * Full URL of the chat completions resource.
+     */
+    public String getCompletionsUrl() {
+        return baseUrl.endsWith("/") ? baseUrl + "chat/completions" : baseUrl + "/chat/completions";
+    }
+
+    public synchronized void recordSuccess(long latencyMillis) {
+        addLatency(latencyMillis);
+    }
+
+    /**
+     * Records a request that was cancelled before it answered, e.g. because a hedged request
+     * answered first. Its response time is unknown but at least {@code elapsedMillis}, which is
+     * recorded as a sample; leaving such slow requests out would make the percentiles drift low.
+     */
+    public synchronized void recordCancelled(long elapsedMillis) {
+        addLatency(elapsedMillis);
+    }
+
+    private void addLatency(long latencyMillis) {
+        latencies[latencyNext] = latencyMillis;
+        latencyNext = (latencyNext + 1) % LATENCY_WINDOW;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+    }
+
+    public synchronized void recordFailure() {
+        failures++;
+    }
+
+    /**
+     * Returns the given percentile of recent response times, or -1 if nothing has been recorded.
+     *
+     * @param percentile Value between 0 and 100
+     */
+    public synchronized long getLatencyPercentile(double percentile) {
+        if (latencyCount == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * latencyCount) - 1;
+        return sorted[Math.max(0, Math.min(index, latencyCount - 1))];
+    }
+
+    public synchronized int getSampleCount() {
+        return latencyCount;
+    }
+
+    public synchronized long getFailureCount() {
+        return failures;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public LlmHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @Override
+    public String toString() {
+        return model + "@" + baseUrl;
+    }
+}
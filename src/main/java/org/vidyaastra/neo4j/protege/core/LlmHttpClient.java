@@ -0,0 +1,100 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Long-lived HTTP client for OpenAI-compatible LLM endpoints.
+ * One client is shared per endpoint origin and timeout setting, so repeated translations
+ * reuse pooled keep-alive (and, where the server supports it, HTTP/2) connections instead
+ * of paying a new TLS handshake for every request.
+ */
+public final class LlmHttpClient {
+
+    private static final Map<String, LlmHttpClient> CLIENTS = new ConcurrentHashMap<>();
+
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+
+    private LlmHttpClient(Duration connectTimeout, Duration readTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Returns the shared client for the origin of the given base URL, creating it on first use.
+     *
+     * @param baseUrl The LLM API base URL (e.g. https://api.openai.com/v1)
+     * @param connectTimeout Maximum time to establish a connection
+     * @param readTimeout Maximum time to wait for a complete response
+     * @return The shared client
+     */
+    public static LlmHttpClient forEndpoint(String baseUrl, Duration connectTimeout, Duration readTimeout) {
+        String key = originOf(baseUrl) + "|" + connectTimeout.toMillis() + "|" + readTimeout.toMillis();
+        return CLIENTS.computeIfAbsent(key, k -> new LlmHttpClient(connectTimeout, readTimeout));
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Sends a JSON POST request without blocking the calling thread.
+     *
+     * @param url The full request URL
+     * @param apiKey Bearer token, may be empty for local servers
+     * @param jsonBody The request body
+     * @return Future completing with the HTTP response
+     */
+    public CompletableFuture<HttpResponse<String>> postJson(String url, String apiKey, String jsonBody) {
+        return postJson(url, apiKey, jsonBody, readTimeout);
+    }
+
+    /**
+     * Sends a JSON POST request that gives up after the given timeout instead of the client's
+     * read timeout.
+     *
+     * Note that on Java 11 cancelling the returned future does not abort the HTTP exchange:
+     * the request keeps its connection busy until the response arrives or the timeout expires.
+     * The timeout is therefore the only way to bound a request nobody waits for any more.
+     */
+    public CompletableFuture<HttpResponse<String>> postJson(String url, String apiKey, String jsonBody,
+                                                            Duration timeout) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8));
+
+        if (apiKey != null && !apiKey.trim().isEmpty()) {
+            request.header("Authorization", "Bearer " + apiKey);
+        }
+
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Drops all cached clients. Their idle connections are released once garbage collected.
+     */
+    public static void clearClients() {
+        CLIENTS.clear();
+    }
+
+    /**
+     * Extracts scheme://host:port from a URL so that all paths on one server share a client.
+     */
+    private static String originOf(String baseUrl) {
+        URI uri = URI.create(baseUrl.trim());
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+}
@@ -0,0 +1,201 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Plugin-wide registry of Neo4j connections. Views acquire a connection instead of creating
+ * their own {@link Neo4jService}, so all views of the same URI, user and database share one
+ * driver and its connection pool, and only the first of them pays for
+ * {@code verifyConnectivity}. Connections are reference-counted: the driver is closed when
+ * the last view releases it.
+ *
+ * Each acquire returns a separate lease, a view of the shared service (see
+ * {@link Neo4jService#withTransactionSettings}); closing or disconnecting a lease does not
+ * close the shared driver, only {@link #release(Neo4jService)} does.
+ *
+ * Each shared connection has a {@link Neo4jHealthMonitor} that restores it after network
+ * failures, so views do not each have to watch their own.
+ */
+public final class Neo4jConnectionRegistry {
+
+    private static Neo4jConnectionRegistry instance;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Neo4jService, Entry> leases = new IdentityHashMap<>();
+    private final Map<Neo4jService, Neo4jHealthMonitor.Listener> leaseListeners = new IdentityHashMap<>();
+    private int warmConnections = 0;
+    private int healthCheckSeconds = 0;
+
+    private Neo4jConnectionRegistry() {
+    }
+
+    /**
+     * Returns the registry shared by all views of the plugin.
+     */
+    public static synchronized Neo4jConnectionRegistry getInstance() {
+        if (instance == null) {
+            instance = new Neo4jConnectionRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Sets how connections opened from now on are pre-warmed and monitored.
+     *
+     * @param warmConnections Connections to open up front and after reconnecting
+     * @param healthCheckSeconds Seconds between health checks, 0 to not monitor connections
+     */
+    public synchronized void configure(int warmConnections, int healthCheckSeconds) {
+        this.warmConnections = warmConnections;
+        this.healthCheckSeconds = healthCheckSeconds;
+    }
+
+    public synchronized int getWarmConnections() {
+        return warmConnections;
+    }
+
+    /**
+     * Same as {@link #acquire(String, String, String, String, Neo4jHealthMonitor.Listener)}
+     * without a health listener.
+     */
+    public Neo4jService acquire(String uri, String username, String password, String database) {
+        return acquire(uri, username, password, database, null);
+    }
+
+    /**
+     * Returns a lease on the connection for the given settings, sharing the service of other
+     * views with the same URI, user and database. The service is not connected yet if this is
+     * the first lease; call {@link Neo4jService#connectAsync(int)} on the lease with
+     * {@link #getWarmConnections()}.
+     *
+     * If the shared service was created with a different password, e.g. because it changed
+     * in the preferences, a new service is created; views holding the old one keep it until
+     * they release it.
+     *
+     * @param listener Told when the connection is lost and restored until the lease is
+     *        released, or null
+     * @return A lease to pass to {@link #release(Neo4jService)} when done
+     */
+    public synchronized Neo4jService acquire(String uri, String username, String password, String database,
+                                             Neo4jHealthMonitor.Listener listener) {
+        String key = key(uri, username, database);
+        Entry entry = entries.get(key);
+        if (entry == null || !Objects.equals(entry.password, password)) {
+            entry = new Entry(key, password, new Neo4jService(uri, username, password, database));
+            if (healthCheckSeconds > 0) {
+                entry.monitor = new Neo4jHealthMonitor(entry.service, healthCheckSeconds, warmConnections);
+                entry.monitor.start();
+            }
+            entries.put(key, entry);
+            System.out.println("Opened shared Neo4j connection: " + key);
+        }
+        Neo4jService lease = entry.service.withTransactionSettings(null, Map.of());
+        entry.references++;
+        leases.put(lease, entry);
+        if (listener != null && entry.monitor != null) {
+            entry.monitor.addListener(listener);
+            leaseListeners.put(lease, listener);
+        }
+        return lease;
+    }
+
+    /**
+     * Releases a lease returned by {@link #acquire}. The shared driver is closed when its last
+     * lease is released. Releasing a lease twice has no effect.
+     */
+    public void release(Neo4jService lease) {
+        Entry closing = null;
+        synchronized (this) {
+            Entry entry = leases.remove(lease);
+            if (entry == null) {
+                return;
+            }
+            Neo4jHealthMonitor.Listener listener = leaseListeners.remove(lease);
+            if (listener != null) {
+                entry.monitor.removeListener(listener);
+            }
+            entry.references--;
+            if (entry.references == 0) {
+                entries.remove(entry.key, entry);
+                closing = entry;
+            }
+        }
+        if (closing != null) {
+            // Closing the driver waits for its connections, so do it outside the lock
+            if (closing.monitor != null) {
+                closing.monitor.close();
+            }
+            closing.service.close();
+            System.out.println("Closed shared Neo4j connection: " + closing.key);
+        }
+    }
+
+    /**
+     * Tells whether a lease still belongs to the connection the given settings would get
+     * from {@link #acquire}, i.e. whether a view can keep using it after the settings were
+     * edited.
+     */
+    public synchronized boolean isCurrent(Neo4jService lease, String uri, String username, String password,
+                                          String database) {
+        Entry entry = leases.get(lease);
+        return entry != null && entries.get(key(uri, username, database)) == entry
+            && Objects.equals(entry.password, password);
+    }
+
+    /**
+     * Returns the open shared connections with their number of leases, for display.
+     */
+    public synchronized List<ConnectionInfo> getConnections() {
+        List<ConnectionInfo> connections = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            ConnectionInfo info = new ConnectionInfo();
+            info.key = entry.key;
+            info.references = entry.references;
+            info.connected = entry.service.isConnected();
+            connections.add(info);
+        }
+        return connections;
+    }
+
+    private static String key(String uri, String username, String database) {
+        String db = database == null || database.trim().isEmpty() ? "neo4j" : database.trim();
+        return username + "@" + uri + "/" + db;
+    }
+
+    /**
+     * A shared service and the number of leases on it.
+     */
+    private static final class Entry {
+        final String key;
+        final String password;
+        final Neo4jService service;
+        Neo4jHealthMonitor monitor;
+        int references;
+
+        Entry(String key, String password, Neo4jService service) {
+            this.key = key;
+            this.password = password;
+            this.service = service;
+        }
+    }
+
+    /**
+     * Snapshot of a shared connection for display.
+     */
+    public static class ConnectionInfo {
+        public String key;
+        public int references;
+        public boolean connected;
+
+        @Override
+        public String toString() {
+            return key + " (" + references + (references == 1 ? " view" : " views")
+                + (connected ? "" : ", not connected") + ")";
+        }
+    }
+}
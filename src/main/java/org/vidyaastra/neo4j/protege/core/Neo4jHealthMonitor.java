@@ -0,0 +1,124 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pings a connected {@link Neo4jService} in the background and restores the connection after
+ * failures, so the first query after a network blip does not have to wait for the driver to
+ * notice broken connections, re-fetch the routing table and authenticate new ones.
+ *
+ * While the service is connected a {@code RETURN 1} is run every interval. When it fails the
+ * monitor calls {@link Neo4jService#reconnectAsync(int)}, retrying after 1, 2, 4, ... seconds
+ * up to {@link #MAX_BACKOFF_SECONDS} until it succeeds. All monitors share one daemon thread;
+ * a check is a single trivial query, so one thread is enough for any number of connections.
+ */
+public class Neo4jHealthMonitor implements AutoCloseable {
+
+    private static final Duration PING_TIMEOUT = Duration.ofSeconds(10);
+    private static final long MAX_BACKOFF_SECONDS = 60;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "neo4j-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Notified, on the monitor thread, when the connection is lost and when it is back.
+     */
+    public interface Listener {
+
+        /**
+         * @param healthy true when the connection works again, false while it is being restored
+         * @param message Describes the state for display, e.g. "Reconnecting in 4 s"
+         */
+        void onHealthChanged(boolean healthy, String message);
+    }
+
+    private final Neo4jService neo4jService;
+    private final int intervalSeconds;
+    private final int warmConnections;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+    private ScheduledFuture<?> next;
+
+    /**
+     * @param neo4jService The service to watch; checks are skipped while it is not connected
+     * @param intervalSeconds Seconds between checks
+     * @param warmConnections Connections to re-open when restoring the connection
+     */
+    public Neo4jHealthMonitor(Neo4jService neo4jService, int intervalSeconds, int warmConnections) {
+        this.neo4jService = neo4jService;
+        this.intervalSeconds = Math.max(1, intervalSeconds);
+        this.warmConnections = warmConnections;
+    }
+
+    public void start() {
+        schedule(this::check, intervalSeconds);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (next != null) {
+            next.cancel(false);
+        }
+    }
+
+    private void check() {
+        if (!neo4jService.isConnected() || neo4jService.ping(PING_TIMEOUT)) {
+            schedule(this::check, intervalSeconds);
+            return;
+        }
+        System.err.println("Lost connection to Neo4j at " + neo4jService.getUri());
+        reconnect(1);
+    }
+
+    private void reconnect(long delaySeconds) {
+        notifyListeners(false, "Connection lost, reconnecting in " + delaySeconds + " s");
+        schedule(() -> neo4jService.reconnectAsync(warmConnections).whenComplete((ignored, error) -> {
+            if (closed) {
+                return;
+            }
+            if (error == null) {
+                System.out.println("Restored connection to Neo4j at " + neo4jService.getUri());
+                notifyListeners(true, "Reconnected to " + neo4jService.getUri());
+                schedule(this::check, intervalSeconds);
+            } else if (!neo4jService.isConnected()) {
+                // Disconnected meanwhile; checks resume if the service connects again
+                schedule(this::check, intervalSeconds);
+            } else {
+                reconnect(Math.min(delaySeconds * 2, MAX_BACKOFF_SECONDS));
+            }
+        }), delaySeconds);
+    }
+
+    private synchronized void schedule(Runnable step, long delaySeconds) {
+        if (!closed) {
+            next = EXECUTOR.schedule(step, delaySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private void notifyListeners(boolean healthy, String message) {
+        if (closed) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            listener.onHealthChanged(healthy, message);
+        }
+    }
+}
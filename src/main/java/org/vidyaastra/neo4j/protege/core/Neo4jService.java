@@ -1,28 +1,56 @@
 package org.vidyaastra.neo4j.protege.core;
 
 import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Config;
 import org.neo4j.driver.Driver;
 import org.neo4j.driver.GraphDatabase;
 import org.neo4j.driver.Record;
 import org.neo4j.driver.Result;
 import org.neo4j.driver.Session;
 import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.TransactionConfig;
+import org.neo4j.driver.async.AsyncSession;
+import org.neo4j.driver.async.ResultCursor;
+import org.neo4j.driver.summary.Plan;
+import org.neo4j.driver.summary.ResultSummary;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service class for managing Neo4j database connections and executing queries.
  */
 public class Neo4jService implements AutoCloseable {
     
-    private Driver driver;
+    /**
+     * Size of the first chunk delivered by {@link #streamQuery}.
+     */
+    public static final int FIRST_CHUNK_SIZE = 100;
+    
+    // Pooled connections idle for longer are checked before use, so one broken by a network
+    // blip is replaced instead of failing the query that picks it up
+    private static final long LIVENESS_CHECK_IDLE_SECONDS = 30;
+    
+    private volatile Driver driver;
     private String uri;
     private String username;
     private String password;
     private String database;
-    private boolean connected;
+    private volatile boolean connected;
+    // Connect in progress, guarded by this
+    private CompletableFuture<Void> connecting;
+    
+    // Set for views created by withTransactionSettings, which use the driver of the parent
+    private final Neo4jService parent;
+    private final Duration transactionTimeout;
+    private final Map<String, Object> transactionMetadata;
+    private final boolean parameterizeLiterals;
     
     public Neo4jService(String uri, String username, String password, String database) {
         this.uri = uri;
@@ -30,27 +58,180 @@ public class Neo4jService implements AutoCloseable {
         this.password = password;
         this.database = database;
         this.connected = false;
+        this.parent = null;
+        this.transactionTimeout = null;
+        this.transactionMetadata = Map.of();
+        this.parameterizeLiterals = false;
+    }
+    
+    private Neo4jService(Neo4jService parent, Duration timeout, Map<String, Object> metadata,
+                         boolean parameterizeLiterals) {
+        this.uri = parent.uri;
+        this.username = parent.username;
+        this.password = parent.password;
+        this.database = parent.database;
+        this.parent = parent;
+        this.transactionTimeout = timeout;
+        this.transactionMetadata = Map.copyOf(metadata);
+        this.parameterizeLiterals = parameterizeLiterals;
+    }
+    
+    /**
+     * Returns a view of this service that shares its connection but runs every transaction
+     * with the given timeout and metadata. The server aborts transactions that exceed the
+     * timeout, and the metadata shows up in {@code SHOW TRANSACTIONS}, which makes the
+     * queries identifiable and lets {@link #terminateTransactions(String, Object)} find them.
+     * Connecting or closing the view connects or closes nothing of its own.
+     * 
+     * @param timeout Transaction timeout, or null for the server default
+     * @param metadata Transaction metadata; values must be strings, numbers or booleans
+     */
+    public Neo4jService withTransactionSettings(Duration timeout, Map<String, Object> metadata) {
+        return new Neo4jService(parent != null ? parent : this, timeout, metadata, parameterizeLiterals);
+    }
+    
+    /**
+     * Returns a view of this service, with the same transaction settings, whose
+     * {@link #prepareQuery(String, Map)} lifts the literals of queries into parameters.
+     * 
+     * @param enabled true to parameterize literals, false to run queries as written
+     */
+    public Neo4jService withLiteralParameterization(boolean enabled) {
+        return new Neo4jService(parent != null ? parent : this, transactionTimeout, transactionMetadata, enabled);
+    }
+    
+    /**
+     * Pre-processing stage for queries typed by the user. If literal parameterization is
+     * enabled for this view, string and number literals are replaced with parameters (see
+     * {@link CypherParameterizer}), so queries that differ only in their literals reuse one
+     * cached plan on the server. Run the returned query with the returned parameters.
+     * 
+     * @param cypherQuery The query as written
+     * @param parameters Parameters the query already has
+     * @return The query to run and its parameters; unchanged if parameterization is disabled
+     */
+    public CypherParameterizer.Parameterized prepareQuery(String cypherQuery, Map<String, Object> parameters) {
+        if (parameterizeLiterals) {
+            return CypherParameterizer.parameterize(cypherQuery, parameters);
+        }
+        CypherParameterizer.Parameterized unchanged = new CypherParameterizer.Parameterized();
+        unchanged.query = cypherQuery;
+        unchanged.parameters = parameters;
+        return unchanged;
     }
     
     /**
-     * Establishes connection to the Neo4j database.
+     * Establishes connection to the Neo4j database, blocking until the connectivity check
+     * has passed. See {@link #connectAsync(int)}.
      * 
      * @throws RuntimeException if connection fails
      */
     public void connect() {
-        if (connected && driver != null) {
-            return; // Already connected
+        try {
+            connectAsync(0).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new RuntimeException("Failed to connect to Neo4j: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while connecting to Neo4j", e);
         }
-        
+    }
+    
+    /**
+     * Connects without blocking the calling thread. The driver verifies connectivity (which
+     * also fetches the routing table for neo4j:// URIs) and then opens {@code warmConnections}
+     * pooled connections, so the first query does not pay for TCP, TLS and authentication.
+     * Safe to call from several threads, e.g. views sharing this service through
+     * {@link Neo4jConnectionRegistry}: while a connect is in progress every caller gets the
+     * same future, and only one driver is created.
+     * 
+     * @param warmConnections Number of connections to open up front, 0 for none
+     * @return Completes when connected, or exceptionally if the connection fails
+     */
+    public CompletableFuture<Void> connectAsync(int warmConnections) {
+        if (parent != null) {
+            return parent.connectAsync(warmConnections);
+        }
+        synchronized (this) {
+            if (connected && driver != null) {
+                return CompletableFuture.completedFuture(null); // Already connected
+            }
+            if (connecting != null) {
+                return connecting;
+            }
+            CompletableFuture<Void> attempt = new CompletableFuture<>();
+            connecting = attempt;
+            openDriver(warmConnections).whenComplete((newDriver, error) -> {
+                boolean current;
+                synchronized (this) {
+                    // disconnect() while connecting discards the attempt
+                    current = connecting == attempt;
+                    if (current) {
+                        connecting = null;
+                        if (error == null) {
+                            driver = newDriver;
+                            connected = true;
+                        }
+                    }
+                }
+                if (error != null) {
+                    attempt.completeExceptionally(unwrap(error));
+                } else if (!current) {
+                    newDriver.closeAsync();
+                    attempt.completeExceptionally(new IllegalStateException("Disconnected while connecting"));
+                } else {
+                    System.out.println("Successfully connected to Neo4j at: " + uri);
+                    attempt.complete(null);
+                }
+            });
+            return attempt;
+        }
+    }
+    
+    /**
+     * Checks connectivity again and re-opens the pre-warmed connections, e.g. after a failed
+     * health check. The driver and its pool are kept: the driver replaces broken connections
+     * by itself, so reconnecting means making sure the server is reachable, the routing table
+     * is fresh and the pool is warm before the next query needs it. Running queries are not
+     * affected.
+     * 
+     * @param warmConnections Number of connections to open up front, 0 for none
+     * @return Completes when the server is reachable again, or exceptionally if it is not
+     */
+    public CompletableFuture<Void> reconnectAsync(int warmConnections) {
+        Driver current = driver();
+        if (current == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Not connected to Neo4j"));
+        }
+        return current.verifyConnectivityAsync().toCompletableFuture()
+            .thenCompose(ignored -> warmUp(current, warmConnections));
+    }
+    
+    /**
+     * Runs a trivial query to check that the server answers, for health checks.
+     * 
+     * @param timeout How long to wait for the answer
+     * @return true if the query succeeded within the timeout
+     */
+    public boolean ping(Duration timeout) {
+        Driver current = driver();
+        if (current == null) {
+            return false;
+        }
+        AsyncSession session = current.asyncSession(sessionConfig());
         try {
-            driver = GraphDatabase.driver(uri, AuthTokens.basic(username, password));
-            // Verify connectivity
-            driver.verifyConnectivity();
-            connected = true;
-            System.out.println("Successfully connected to Neo4j at: " + uri);
+            session.runAsync("RETURN 1").thenCompose(ResultCursor::consumeAsync).toCompletableFuture()
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         } catch (Exception e) {
-            connected = false;
-            throw new RuntimeException("Failed to connect to Neo4j: " + e.getMessage(), e);
+            System.err.println("Neo4j health check failed: " + unwrap(e).getMessage());
+            return false;
+        } finally {
+            session.closeAsync();
         }
     }
     
@@ -58,19 +239,88 @@ public class Neo4jService implements AutoCloseable {
      * Disconnects from the Neo4j database.
      */
     public void disconnect() {
-        if (driver != null) {
-            driver.close();
+        if (parent != null) {
+            return;
+        }
+        Driver closing;
+        synchronized (this) {
+            closing = driver;
             driver = null;
             connected = false;
+            connecting = null;
+        }
+        if (closing != null) {
+            // Closing waits for the driver's threads, so it must not hold the lock they need
+            closing.close();
             System.out.println("Disconnected from Neo4j");
         }
     }
     
+    /**
+     * Creates a driver, verifies connectivity and warms its pool. The driver is closed again
+     * if verification fails.
+     */
+    private CompletableFuture<Driver> openDriver(int warmConnections) {
+        Driver newDriver;
+        try {
+            Config config = Config.builder()
+                .withConnectionLivenessCheckTimeout(LIVENESS_CHECK_IDLE_SECONDS, TimeUnit.SECONDS)
+                .build();
+            newDriver = GraphDatabase.driver(uri, AuthTokens.basic(username, password), config);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return newDriver.verifyConnectivityAsync().toCompletableFuture()
+            .thenCompose(ignored -> warmUp(newDriver, warmConnections))
+            .handle((ignored, error) -> {
+                if (error != null) {
+                    newDriver.closeAsync();
+                    throw new CompletionException(unwrap(error));
+                }
+                return newDriver;
+            });
+    }
+    
+    /**
+     * Opens the given number of sessions at the same time and runs a trivial query in each,
+     * which leaves that many authenticated connections in the pool. Failures are only logged;
+     * a cold pool is slower, not broken.
+     */
+    private CompletableFuture<Void> warmUp(Driver target, int connections) {
+        if (connections <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long start = System.nanoTime();
+        List<CompletableFuture<Throwable>> sessions = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            AsyncSession session = target.asyncSession(sessionConfig());
+            sessions.add(session.runAsync("RETURN 1")
+                .thenCompose(ResultCursor::consumeAsync)
+                .handle((summary, error) -> error)
+                .thenCompose(error -> session.closeAsync().handle((closed, closeError) -> error))
+                .toCompletableFuture());
+        }
+        return CompletableFuture.allOf(sessions.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            long failed = sessions.stream().filter(session -> session.join() != null).count();
+            System.out.println("Pre-warmed " + (connections - failed) + " of " + connections
+                + " connections to " + uri + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                + " ms");
+        });
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+    
     /**
      * Checks if currently connected to Neo4j.
      */
     public boolean isConnected() {
-        return connected && driver != null;
+        return parent != null ? parent.isConnected() : connected && driver != null;
     }
     
     /**
@@ -94,6 +344,21 @@ public class Neo4jService implements AutoCloseable {
      */
     public List<Map<String, Object>> executeQuery(String cypherQuery, Map<String, Object> parameters) 
             throws Exception {
+        return executeQuery(cypherQuery, parameters, null);
+    }
+    
+    /**
+     * Executes a Cypher query with parameters and a server-side timeout.
+     * 
+     * @param cypherQuery The Cypher query to execute
+     * @param parameters Query parameters
+     * @param timeout Transaction timeout enforced by the server, or null for the timeout of
+     *                this service (see {@link #withTransactionSettings})
+     * @return List of records as maps
+     * @throws Exception if query execution fails or times out
+     */
+    public List<Map<String, Object>> executeQuery(String cypherQuery, Map<String, Object> parameters,
+                                                  Duration timeout) throws Exception {
         
         if (!isConnected()) {
             throw new IllegalStateException("Not connected to Neo4j. Call connect() first.");
@@ -102,7 +367,7 @@ public class Neo4jService implements AutoCloseable {
         List<Map<String, Object>> results = new ArrayList<>();
         
         try (Session session = getSession()) {
-            Result result = session.run(cypherQuery, parameters);
+            Result result = session.run(cypherQuery, parameters, transactionConfig(timeout));
             
             while (result.hasNext()) {
                 Record record = result.next();
@@ -119,6 +384,169 @@ public class Neo4jService implements AutoCloseable {
         return results;
     }
     
+    /**
+     * Executes a Cypher query and hands the records to the handler in chunks as they arrive
+     * from the server, so the full result is never held in memory. The driver fetches records
+     * in batches of {@code chunkSize}; returning false from the handler stops fetching and
+     * discards the rest of the result on the server. The first chunk holds at most
+     * {@link #FIRST_CHUNK_SIZE} records so the first rows can be shown right away.
+     * 
+     * @param cypherQuery The Cypher query to execute
+     * @param parameters Query parameters
+     * @param chunkSize Number of records per chunk
+     * @param handler Receives each chunk of records, as driver records or as maps
+     * @return The number of records handed to the handler
+     * @throws Exception if query execution or the handler fails
+     */
+    public long streamQuery(String cypherQuery, Map<String, Object> parameters, int chunkSize,
+                            RecordChunkHandler handler) throws Exception {
+        return streamQuery(cypherQuery, parameters, chunkSize, null, handler);
+    }
+    
+    /**
+     * Same as {@link #streamQuery(String, Map, int, RecordChunkHandler)} with a transaction
+     * timeout for this query.
+     *
+     * @param timeout Transaction timeout enforced by the server, or null for the timeout of
+     *                this service
+     */
+    public long streamQuery(String cypherQuery, Map<String, Object> parameters, int chunkSize, Duration timeout,
+                            RecordChunkHandler handler) throws Exception {
+        
+        if (!isConnected()) {
+            throw new IllegalStateException("Not connected to Neo4j. Call connect() first.");
+        }
+        
+        long streamed = 0;
+        
+        try (Session session = getSession(chunkSize)) {
+            Result result = session.run(cypherQuery, parameters, transactionConfig(timeout));
+            handler.onKeys(result.keys());
+            // A small first chunk lets callers show the first rows without waiting for a full one
+            int limit = Math.min(FIRST_CHUNK_SIZE, chunkSize);
+            List<Record> chunk = new ArrayList<>(limit);
+            boolean proceed = true;
+            
+            while (proceed && result.hasNext()) {
+                chunk.add(result.next());
+                if (chunk.size() == limit) {
+                    streamed += chunk.size();
+                    proceed = handler.onRecords(chunk);
+                    limit = chunkSize;
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (proceed && !chunk.isEmpty()) {
+                streamed += chunk.size();
+                handler.onRecords(chunk);
+            }
+            
+            System.out.println("Query streamed " + streamed + " records" + (proceed ? "." : " before being stopped."));
+            
+        } catch (Exception e) {
+            System.err.println("Error streaming query: " + e.getMessage());
+            throw new Exception("Query execution failed: " + e.getMessage(), e);
+        }
+        
+        return streamed;
+    }
+    
+    /**
+     * Receives the records of a streamed query chunk by chunk.
+     */
+    public interface RecordChunkHandler {
+        
+        /**
+         * @param chunk The next records, in result order
+         * @return true to keep fetching, false to stop
+         * @throws Exception to abort the query
+         */
+        boolean onChunk(List<Map<String, Object>> chunk) throws Exception;
+        
+        /**
+         * Called once before the first chunk with the column names of the result, in query
+         * order; also called for a result without records.
+         */
+        default void onKeys(List<String> keys) throws Exception {
+        }
+        
+        /**
+         * Receives a chunk of a streamed query as driver records. The default turns each record
+         * into a map for {@link #onChunk}; handlers that store or only count the records
+         * override it, so no map is built and no value boxed per row.
+         *
+         * @return true to keep fetching, false to stop
+         * @throws Exception to abort the query
+         */
+        default boolean onRecords(List<Record> records) throws Exception {
+            List<Map<String, Object>> chunk = new ArrayList<>(records.size());
+            for (Record record : records) {
+                chunk.add(record.asMap());
+            }
+            return onChunk(chunk);
+        }
+    }
+    
+    /**
+     * Asks the planner for the execution plan of a query without running it.
+     * 
+     * @param cypherQuery The Cypher query to plan
+     * @param parameters Query parameters
+     * @return The estimated plan, or null if the server did not return one
+     * @throws Exception if the query cannot be planned (e.g. syntax errors)
+     */
+    public Plan explain(String cypherQuery, Map<String, Object> parameters) throws Exception {
+        ResultSummary summary = explainSummary(cypherQuery, parameters);
+        return summary.hasPlan() ? summary.plan() : null;
+    }
+    
+    /**
+     * Plans a query without running it and returns the whole summary, which besides the plan
+     * tells through {@link ResultSummary#queryType()} whether the query would write.
+     * 
+     * @throws Exception if the query cannot be planned (e.g. syntax errors)
+     */
+    public ResultSummary explainSummary(String cypherQuery, Map<String, Object> parameters) throws Exception {
+        if (!isConnected()) {
+            throw new IllegalStateException("Not connected to Neo4j. Call connect() first.");
+        }
+        
+        try (Session session = getSession()) {
+            return session.run("EXPLAIN " + cypherQuery, parameters, transactionConfig(null)).consume();
+        } catch (Exception e) {
+            System.err.println("Error explaining query: " + e.getMessage());
+            throw new Exception("EXPLAIN failed: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Runs a query under PROFILE and returns its summary. The query is executed in full,
+     * including any writes, but its records are discarded on the server. The summary's
+     * {@code profile()} holds the operator tree with db hits, rows, page cache statistics and
+     * time per operator.
+     *
+     * @param cypherQuery The Cypher query to profile, without a PROFILE or EXPLAIN prefix
+     * @param parameters Query parameters
+     * @return The summary of the profiled execution
+     * @throws Exception if query execution fails
+     */
+    public ResultSummary profile(String cypherQuery, Map<String, Object> parameters) throws Exception {
+        if (!isConnected()) {
+            throw new IllegalStateException("Not connected to Neo4j. Call connect() first.");
+        }
+    
+        try (Session session = getSession()) {
+            ResultSummary summary = session.run("PROFILE " + cypherQuery, parameters, transactionConfig(null))
+                .consume();
+            System.out.println("Profiled query in " + summary.resultAvailableAfter(TimeUnit.MILLISECONDS)
+                + " ms + " + summary.resultConsumedAfter(TimeUnit.MILLISECONDS) + " ms.");
+            return summary;
+        } catch (Exception e) {
+            System.err.println("Error profiling query: " + e.getMessage());
+            throw new Exception("PROFILE failed: " + e.getMessage(), e);
+        }
+    }
+    
     /**
      * Executes a Cypher write query (CREATE, UPDATE, DELETE, etc.) and returns the summary.
      * 
@@ -146,7 +574,7 @@ public class Neo4jService implements AutoCloseable {
         }
         
         try (Session session = getSession()) {
-            var result = session.run(cypherQuery, parameters);
+            var result = session.run(cypherQuery, parameters, transactionConfig(null));
             var summary = result.consume();
             
             StringBuilder sb = new StringBuilder();
@@ -167,14 +595,101 @@ public class Neo4jService implements AutoCloseable {
         }
     }
     
+    /**
+     * Terminates the running transactions of all clients whose metadata has the given value,
+     * e.g. the queries of one view after the user pressed Stop. Uses
+     * {@code TERMINATE TRANSACTIONS} and falls back to the {@code dbms} procedures of servers
+     * older than 4.4. Transactions of other users are only visible to administrators.
+     * 
+     * @return The number of transactions terminated
+     * @throws Exception if the transactions cannot be listed or terminated
+     */
+    public int terminateTransactions(String metadataKey, Object value) throws Exception {
+        if (!isConnected()) {
+            throw new IllegalStateException("Not connected to Neo4j. Call connect() first.");
+        }
+        
+        Map<String, Object> parameters = Map.of("key", metadataKey, "value", value);
+        List<String> ids = new ArrayList<>();
+        try (Session session = getSession()) {
+            try {
+                for (Record record : session.run("SHOW TRANSACTIONS YIELD transactionId, metaData "
+                        + "WHERE metaData[$key] = $value RETURN transactionId", parameters).list()) {
+                    ids.add(record.get("transactionId").asString());
+                }
+                if (!ids.isEmpty()) {
+                    session.run("TERMINATE TRANSACTIONS $ids", Map.of("ids", ids)).consume();
+                }
+            } catch (Exception e) {
+                // Servers before 4.4 only have the procedures
+                ids.clear();
+                for (Record record : session.run("CALL dbms.listTransactions() YIELD transactionId, metaData "
+                        + "WHERE metaData[$key] = $value "
+                        + "CALL dbms.killTransaction(transactionId) YIELD transactionId AS killed "
+                        + "RETURN killed", parameters).list()) {
+                    ids.add(record.get("killed").asString());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error terminating transactions: " + e.getMessage());
+            throw new Exception("Terminating transactions failed: " + e.getMessage(), e);
+        }
+        
+        System.out.println("Terminated " + ids.size() + " transactions with " + metadataKey + " = " + value);
+        return ids.size();
+    }
+    
+    /**
+     * Builds the configuration for a transaction of this service.
+     * 
+     * @param timeout Timeout for this transaction, or null for the timeout of the service
+     */
+    private TransactionConfig transactionConfig(Duration timeout) {
+        Duration effective = timeout != null ? timeout : transactionTimeout;
+        if (effective == null && transactionMetadata.isEmpty()) {
+            return TransactionConfig.empty();
+        }
+        TransactionConfig.Builder config = TransactionConfig.builder().withMetadata(transactionMetadata);
+        if (effective != null) {
+            config.withTimeout(effective);
+        }
+        return config.build();
+    }
+    
+    private Driver driver() {
+        return parent != null ? parent.driver() : driver;
+    }
+    
+    /**
+     * Session settings for the specified database.
+     */
+    private SessionConfig sessionConfig() {
+        SessionConfig.Builder config = SessionConfig.builder();
+        if (database != null && !database.trim().isEmpty() && !database.equalsIgnoreCase("neo4j")) {
+            config.withDatabase(database);
+        }
+        return config.build();
+    }
+    
     /**
      * Gets a Neo4j session configured for the specified database.
      */
     private Session getSession() {
         if (database != null && !database.trim().isEmpty() && !database.equalsIgnoreCase("neo4j")) {
-            return driver.session(SessionConfig.forDatabase(database));
+            return driver().session(SessionConfig.forDatabase(database));
         }
-        return driver.session();
+        return driver().session();
+    }
+    
+    /**
+     * Gets a session for the specified database that pulls records in batches of the given size.
+     */
+    private Session getSession(int fetchSize) {
+        SessionConfig.Builder config = SessionConfig.builder().withFetchSize(fetchSize);
+        if (database != null && !database.trim().isEmpty() && !database.equalsIgnoreCase("neo4j")) {
+            config.withDatabase(database);
+        }
+        return driver().session(config.build());
     }
     
     /**
@@ -204,6 +719,10 @@ public class Neo4jService implements AutoCloseable {
         return uri;
     }
     
+    public String getUsername() {
+        return username;
+    }
+    
     public String getDatabase() {
         return database;
     }
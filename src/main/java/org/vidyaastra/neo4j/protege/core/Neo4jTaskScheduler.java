@@ -0,0 +1,279 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plugin-wide scheduler for background work started from the UI. Tasks run on named daemon
+ * threads; each kind of task has its own concurrency limit, so e.g. a second export waits
+ * until the first one has finished instead of competing with it. The limits are the only
+ * bound: a task the scheduler starts gets a thread at once, so a task shown as running is
+ * running, and ADMIN tasks never wait for a thread held by queries.
+ * Tasks beyond the limit are queued in submission order and can be listed with
+ * {@link #getTasks()}. Cancelling a task's {@link Future} removes it from the queue, or
+ * interrupts it if it is already running.
+ */
+public final class Neo4jTaskScheduler {
+
+    /**
+     * Kinds of task, with their default number of tasks allowed to run at the same time.
+     * ADMIN is for short statements that must not wait behind queries, such as terminating them.
+     * VIEW is for sorting and filtering results that have already been fetched.
+     */
+    public enum Kind {
+        CONNECT(1), QUERY(4), IMPORT(1), EXPORT(1), SAVE(2), ADMIN(2), VIEW(1);
+
+        private final int defaultLimit;
+
+        Kind(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+    }
+
+    public enum State {
+        QUEUED, RUNNING
+    }
+
+    private static final int MAX_LIMIT = 8;
+    private static final int MAX_QUEUED_PER_KIND = 16;
+
+    private static Neo4jTaskScheduler instance;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<Kind, Integer> limits = new EnumMap<>(Kind.class);
+    private final Map<Kind, Integer> running = new EnumMap<>(Kind.class);
+    private final Map<Kind, Deque<Task<?>>> queued = new EnumMap<>(Kind.class);
+    private final List<Task<?>> active = new ArrayList<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private Neo4jTaskScheduler() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // No queue in front of the threads: dispatch() already caps how many tasks run
+        executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "neo4j-task-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        for (Kind kind : Kind.values()) {
+            limits.put(kind, kind.defaultLimit);
+            running.put(kind, 0);
+            queued.put(kind, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Returns the scheduler shared by all views of the plugin.
+     */
+    public static synchronized Neo4jTaskScheduler getInstance() {
+        if (instance == null) {
+            instance = new Neo4jTaskScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Sets how many tasks of a kind may run at the same time. Queued tasks start right away
+     * if the limit was raised.
+     */
+    public void setLimit(Kind kind, int limit) {
+        synchronized (this) {
+            limits.put(kind, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        }
+        dispatch(kind);
+    }
+
+    /**
+     * Queues a task and starts it as soon as its kind is below its limit.
+     *
+     * @param kind Kind of the task, which decides its concurrency limit
+     * @param name Shown in the list of tasks
+     * @param work The task
+     * @return Future to wait for or cancel the task
+     * @throws RejectedExecutionException if too many tasks of the kind are already queued
+     */
+    public <T> Future<T> submit(Kind kind, String name, Callable<T> work) {
+        Task<T> task = new Task<>(kind, name, work);
+        synchronized (this) {
+            Deque<Task<?>> queue = queued.get(kind);
+            if (queue.size() >= MAX_QUEUED_PER_KIND) {
+                throw new RejectedExecutionException(queue.size() + " " + kind.name().toLowerCase()
+                    + " tasks are already waiting");
+            }
+            queue.addLast(task);
+        }
+        System.out.println("Queued " + kind + " task: " + name);
+        dispatch(kind);
+        notifyListeners();
+        return task;
+    }
+
+    /**
+     * Queues a task without a result, see {@link #submit(Kind, String, Callable)}.
+     */
+    public Future<?> submit(Kind kind, String name, Runnable work) {
+        return submit(kind, name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the running tasks followed by the queued ones, in the order they will start.
+     */
+    public synchronized List<TaskInfo> getTasks() {
+        List<TaskInfo> tasks = new ArrayList<>();
+        for (Task<?> task : active) {
+            tasks.add(task.info(State.RUNNING));
+        }
+        for (Deque<Task<?>> queue : queued.values()) {
+            for (Task<?> task : queue) {
+                tasks.add(task.info(State.QUEUED));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Registers a listener called, on the thread that caused it, whenever a task is queued,
+     * started, finished or cancelled.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    private void dispatch(Kind kind) {
+        List<Task<?>> start = new ArrayList<>();
+        synchronized (this) {
+            Deque<Task<?>> queue = queued.get(kind);
+            while (running.get(kind) < limits.get(kind) && !queue.isEmpty()) {
+                Task<?> task = queue.pollFirst();
+                if (task.isCancelled()) {
+                    continue;
+                }
+                running.put(kind, running.get(kind) + 1);
+                task.startedMillis = System.currentTimeMillis();
+                active.add(task);
+                start.add(task);
+            }
+        }
+        for (Task<?> task : start) {
+            executor.execute(task);
+        }
+        if (!start.isEmpty()) {
+            notifyListeners();
+        }
+    }
+
+    private void finished(Task<?> task) {
+        synchronized (this) {
+            active.remove(task);
+            running.put(task.kind, running.get(task.kind) - 1);
+        }
+        System.out.println("Finished " + task.kind + " task: " + task.name + " ("
+            + (System.currentTimeMillis() - task.startedMillis) + " ms)");
+        dispatch(task.kind);
+        notifyListeners();
+    }
+
+    private void cancelledWhileQueued(Task<?> task) {
+        boolean removed;
+        synchronized (this) {
+            removed = queued.get(task.kind).remove(task);
+        }
+        if (removed) {
+            System.out.println("Cancelled queued " + task.kind + " task: " + task.name);
+            notifyListeners();
+        }
+    }
+
+    private void notifyListeners() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * A queued or running task.
+     */
+    private final class Task<T> extends FutureTask<T> {
+
+        final Kind kind;
+        final String name;
+        final long submittedMillis = System.currentTimeMillis();
+        volatile long startedMillis;
+
+        Task(Kind kind, String name, Callable<T> work) {
+            super(work);
+            this.kind = kind;
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                finished(this);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                cancelledWhileQueued(this);
+            }
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            System.err.println(kind + " task failed: " + name + ": " + t.getMessage());
+            super.setException(t);
+        }
+
+        TaskInfo info(State state) {
+            TaskInfo info = new TaskInfo();
+            info.name = name;
+            info.kind = kind;
+            info.state = state;
+            info.submittedMillis = submittedMillis;
+            info.startedMillis = state == State.RUNNING ? startedMillis : 0;
+            return info;
+        }
+    }
+
+    /**
+     * Snapshot of a task for display.
+     */
+    public static class TaskInfo {
+        public String name;
+        public Kind kind;
+        public State state;
+        public long submittedMillis;
+        public long startedMillis;
+
+        @Override
+        public String toString() {
+            long since = state == State.RUNNING ? startedMillis : submittedMillis;
+            return String.format("%s (%s %d s)", name, state == State.RUNNING ? "running" : "queued",
+                (System.currentTimeMillis() - since) / 1000);
+        }
+    }
+}
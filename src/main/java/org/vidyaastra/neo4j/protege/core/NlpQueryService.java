@@ -1,11 +1,25 @@
 package org.vidyaastra.neo4j.protege.core;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -16,14 +30,54 @@ import org.json.JSONObject;
  */
 public class NlpQueryService {
     
-    private final String apiKey;
-    private final String model;
-    private final String baseUrl;
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(60);
+    private static final Duration DEFAULT_HEDGE_DELAY = Duration.ofSeconds(3);
+    private static final int DEFAULT_MAX_RETRIES = 2;
+    
+    // Low temperature for more deterministic queries; candidates need some diversity
+    private static final double DEFAULT_TEMPERATURE = 0.1;
+    private static final double CANDIDATE_TEMPERATURE = 0.7;
+    
+    // Hedge at this percentile of the primary endpoint's observed latency
+    private static final double HEDGE_PERCENTILE = 95.0;
+    private static final int MIN_LATENCY_SAMPLES = 5;
+    private static final long BASE_BACKOFF_MS = 250;
+    private static final long MAX_BACKOFF_MS = 8000;
+    // How long a schema summary is reused before getGraphSchema queries the database again
+    private static final long SCHEMA_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+    
+    // Schema summaries by connection, see getGraphSchema
+    private static final Map<String, CachedSchema> SCHEMAS = new ConcurrentHashMap<>();
+    
+    private final List<LlmEndpoint> endpoints;
+    private final Duration minHedgeDelay;
+    private final int maxRetries;
     
     public NlpQueryService(String apiKey, String model, String baseUrl) {
-        this.apiKey = apiKey;
-        this.model = model;
-        this.baseUrl = baseUrl;
+        this(apiKey, model, baseUrl, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+    }
+    
+    public NlpQueryService(String apiKey, String model, String baseUrl,
+                           Duration connectTimeout, Duration readTimeout) {
+        this(List.of(new LlmEndpoint(baseUrl, model, apiKey, connectTimeout, readTimeout)),
+            DEFAULT_HEDGE_DELAY, DEFAULT_MAX_RETRIES);
+    }
+    
+    /**
+     * Creates a service that fails over across several endpoints.
+     * 
+     * @param endpoints Endpoints in order of preference; the first one is the primary
+     * @param minHedgeDelay Lower bound for the hedge delay, zero or negative disables hedging
+     * @param maxRetries Retries per request on HTTP 429/5xx or I/O errors
+     */
+    public NlpQueryService(List<LlmEndpoint> endpoints, Duration minHedgeDelay, int maxRetries) {
+        if (endpoints == null || endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one LLM endpoint is required");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.minHedgeDelay = minHedgeDelay;
+        this.maxRetries = Math.max(0, maxRetries);
     }
     
     /**
@@ -35,6 +89,25 @@ public class NlpQueryService {
      * @throws Exception if translation fails
      */
     public String translateToCypher(String naturalLanguageQuery, String graphSchema) throws Exception {
+        try {
+            return translateToCypherAsync(naturalLanguageQuery, graphSchema).get();
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Converts a natural language query to a Cypher query without blocking the caller.
+     * 
+     * @param naturalLanguageQuery The natural language query from the user
+     * @param graphSchema Optional schema information about the Neo4j graph
+     * @return Future completing with the generated Cypher query
+     */
+    public CompletableFuture<String> translateToCypherAsync(String naturalLanguageQuery, String graphSchema) {
         System.out.println("\n=== NLP to Cypher Translation Started ===");
         System.out.println("Natural Language Query: " + naturalLanguageQuery);
         System.out.println("Graph Schema Length: " + (graphSchema != null ? graphSchema.length() : 0) + " characters");
@@ -46,21 +119,82 @@ public class NlpQueryService {
         System.out.println(systemPrompt);
         System.out.println("\n--- User Prompt ---");
         System.out.println(userPrompt);
-        System.out.println("\n--- Sending to LLM (" + model + ") at " + baseUrl + " ---");
-        
-        String llmResponse = generateCompletion(systemPrompt, userPrompt);
-        
-        System.out.println("\n--- LLM Response ---");
-        System.out.println(llmResponse);
+        System.out.println("\n--- Sending to LLM " + endpoints + " ---");
         
-        // Extract Cypher query from response
-        String cypherQuery = extractCypherQuery(llmResponse);
-        
-        System.out.println("\n--- Extracted Cypher Query ---");
-        System.out.println(cypherQuery);
-        System.out.println("=== NLP to Cypher Translation Completed ===\n");
+        return generateCompletionAsync(systemPrompt, userPrompt, 1, DEFAULT_TEMPERATURE).thenApply(choices -> {
+            String llmResponse = choices.get(0);
+            System.out.println("\n--- LLM Response ---");
+            System.out.println(llmResponse);
+            
+            // Extract Cypher query from response
+            String cypherQuery;
+            try {
+                cypherQuery = extractCypherQuery(llmResponse);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+            
+            System.out.println("\n--- Extracted Cypher Query ---");
+            System.out.println(cypherQuery);
+            System.out.println("=== NLP to Cypher Translation Completed ===\n");
+            
+            return cypherQuery;
+        });
+    }
+    
+    /**
+     * Requests several alternative Cypher translations of the same question. The LLM is asked
+     * for {@code count} choices through the {@code n} parameter at a higher temperature; if the
+     * server ignores {@code n}, the missing candidates are requested with parallel calls.
+     * Responses that do not look like Cypher and duplicates are dropped.
+     * 
+     * @param naturalLanguageQuery The natural language query from the user
+     * @param graphSchema Optional schema information about the Neo4j graph
+     * @param count Number of candidates to request
+     * @return Future completing with the distinct candidate queries, never empty
+     */
+    public CompletableFuture<List<String>> translateToCypherCandidatesAsync(String naturalLanguageQuery,
+                                                                            String graphSchema, int count) {
+        System.out.println("\n=== NLP to Cypher Candidate Translation Started (" + count + " candidates) ===");
+        String systemPrompt = buildSystemPrompt(graphSchema);
+        String userPrompt = buildUserPrompt(naturalLanguageQuery);
         
-        return cypherQuery;
+        return generateCompletionAsync(systemPrompt, userPrompt, count, CANDIDATE_TEMPERATURE)
+            .thenCompose(choices -> {
+                if (choices.size() >= count) {
+                    return CompletableFuture.completedFuture(choices);
+                }
+                // Server ignored "n": fill up with parallel single-choice requests
+                List<CompletableFuture<List<String>>> extra = new ArrayList<>();
+                for (int i = choices.size(); i < count; i++) {
+                    extra.add(generateCompletionAsync(systemPrompt, userPrompt, 1, CANDIDATE_TEMPERATURE)
+                        .exceptionally(error -> List.of()));
+                }
+                return CompletableFuture.allOf(extra.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+                    List<String> all = new ArrayList<>(choices);
+                    extra.forEach(future -> all.addAll(future.join()));
+                    return all;
+                });
+            })
+            .thenApply(choices -> {
+                Set<String> candidates = new LinkedHashSet<>();
+                String lastError = null;
+                for (String choice : choices) {
+                    try {
+                        candidates.add(extractCypherQuery(choice));
+                    } catch (Exception e) {
+                        lastError = e.getMessage();
+                    }
+                }
+                if (candidates.isEmpty()) {
+                    throw new CompletionException(new Exception(lastError != null ? lastError : "No candidates returned"));
+                }
+                
+                System.out.println("\n--- Distinct Cypher Candidates: " + candidates.size() + " ---");
+                candidates.forEach(System.out::println);
+                System.out.println("=== NLP to Cypher Candidate Translation Completed ===\n");
+                return new ArrayList<>(candidates);
+            });
     }
     
     /**
@@ -85,7 +219,10 @@ public class NlpQueryService {
         sb.append("- Use labels() function to get node type when combining different labels\n");
         sb.append("- Prefer WHERE with OR over UNION when possible for better performance\n");
         sb.append("- Always use RETURN clause to specify what data to retrieve\n");
-        sb.append("- Match node and relationship names exactly as shown in schema (case-sensitive)\n\n");
+        sb.append("- Match node and relationship names exactly as shown in schema (case-sensitive)\n");
+        sb.append("- Start MATCH patterns from an indexed or unique property, or else from the label with the\n");
+        sb.append("  smallest count, and traverse outwards; avoid starting from the largest labels\n");
+        sb.append("- Bound variable-length paths and anchor at least one end of them\n\n");
         
         if (graphSchema != null && !graphSchema.trim().isEmpty()) {
             sb.append("AVAILABLE GRAPH SCHEMA:\n");
@@ -110,89 +247,245 @@ public class NlpQueryService {
     }
     
     /**
-     * Generates a completion using the LLM API.
+     * Generates a completion using the LLM API without blocking the caller.
+     * If the primary request is still outstanding after the hedge delay, a duplicate is sent
+     * to the next endpoint; the first successful response wins and the other is cancelled.
      */
-    private String generateCompletion(String systemPrompt, String userPrompt) throws Exception {
-        String endpoint = baseUrl.endsWith("/") ? baseUrl + "chat/completions" : baseUrl + "/chat/completions";
+    private CompletableFuture<List<String>> generateCompletionAsync(String systemPrompt, String userPrompt,
+                                                                    int choices, double temperature) {
+        CompletionCall call = new CompletionCall(systemPrompt, userPrompt, choices, temperature);
+        call.launch(0, false);
         
-        System.out.println("LLM Endpoint: " + endpoint);
+        long hedgeDelay = getHedgeDelayMillis();
+        if (hedgeDelay > 0) {
+            CompletableFuture.delayedExecutor(hedgeDelay, TimeUnit.MILLISECONDS).execute(() -> {
+                if (!call.result.isDone()) {
+                    int hedgeIndex = endpoints.size() > 1 ? 1 : 0;
+                    System.out.println("No LLM response after " + hedgeDelay + " ms, sending hedged request to "
+                        + endpoints.get(hedgeIndex));
+                    call.launch(hedgeIndex, true);
+                }
+            });
+        }
         
-        URL url = new URL(endpoint);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        // Cancel whatever is still in flight once one request has answered. On Java 11 this only
+        // completes the futures; the losing HTTP exchange itself runs on until it answers or hits
+        // the call's deadline (see CompletionCall#sendWithRetry), so a hedged call can cost two
+        // requests.
+        call.result.whenComplete((content, error) -> call.inFlight.forEach(f -> f.cancel(true)));
+        return call.result;
+    }
+    
+    /**
+     * Returns the current hedge delay: the primary endpoint's p95 latency once enough samples
+     * exist, but never less than the configured minimum. Returns 0 when hedging is disabled.
+     */
+    public long getHedgeDelayMillis() {
+        if (minHedgeDelay == null || minHedgeDelay.isZero() || minHedgeDelay.isNegative()) {
+            return 0;
+        }
+        LlmEndpoint primary = endpoints.get(0);
+        long delay = minHedgeDelay.toMillis();
+        if (primary.getSampleCount() >= MIN_LATENCY_SAMPLES) {
+            delay = Math.max(delay, primary.getLatencyPercentile(HEDGE_PERCENTILE));
+        }
+        return delay;
+    }
+    
+    /**
+     * State shared by the primary and hedged requests of one completion.
+     */
+    private class CompletionCall {
+        final String systemPrompt;
+        final String userPrompt;
+        final int choices;
+        final double temperature;
+        final CompletableFuture<List<String>> result = new CompletableFuture<>();
+        final List<CompletableFuture<?>> inFlight = new CopyOnWriteArrayList<>();
+        final AtomicInteger outstanding = new AtomicInteger();
+        final long deadline;
         
-        try {
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Content-Type", "application/json");
-            conn.setRequestProperty("Authorization", "Bearer " + apiKey);
-            conn.setDoOutput(true);
-            
-            // Build request body
-            JSONObject requestBody = new JSONObject();
-            requestBody.put("model", model);
-            
-            JSONArray messages = new JSONArray();
-            messages.put(new JSONObject().put("role", "system").put("content", systemPrompt));
-            messages.put(new JSONObject().put("role", "user").put("content", userPrompt));
-            
-            requestBody.put("messages", messages);
-            requestBody.put("temperature", 0.1); // Low temperature for more deterministic queries
+        CompletionCall(String systemPrompt, String userPrompt, int choices, double temperature) {
+            this.systemPrompt = systemPrompt;
+            this.userPrompt = userPrompt;
+            this.choices = choices;
+            this.temperature = temperature;
+            this.deadline = System.nanoTime() + endpoints.get(0).getHttpClient().getReadTimeout().toNanos();
+        }
+        
+        /**
+         * @param hedged false for the primary request, true for the hedged duplicate
+         */
+        void launch(int endpointIndex, boolean hedged) {
+            outstanding.incrementAndGet();
+            sendWithRetry(endpointIndex, 0, hedged).whenComplete((content, error) -> {
+                if (error == null) {
+                    result.complete(content);
+                } else if (outstanding.decrementAndGet() == 0) {
+                    result.completeExceptionally(unwrap(error));
+                }
+            });
+        }
+        
+        /**
+         * Sends one request; retryable failures are retried on the next endpoint after a
+         * jittered exponential backoff. No request outlives the deadline of the whole call,
+         * which bounds what a hedged or retried request that lost costs, as it cannot be
+         * aborted once sent. A first primary request cancelled because the hedged one answered
+         * is recorded with the time it had run, as its latency was at least that.
+         */
+        CompletableFuture<List<String>> sendWithRetry(int endpointIndex, int attempt, boolean hedged) {
+            if (result.isDone()) {
+                return CompletableFuture.failedFuture(new CancellationException("Superseded by another response"));
+            }
             
-            System.out.println("\n--- LLM Request Body ---");
-            System.out.println(requestBody.toString(2)); // Pretty print with indent
+            LlmEndpoint endpoint = endpoints.get(endpointIndex % endpoints.size());
+            String requestBody = buildRequestBody(endpoint.getModel(), systemPrompt, userPrompt, choices, temperature);
+            System.out.println("LLM Endpoint: " + endpoint.getCompletionsUrl() + " (attempt " + (attempt + 1) + ")");
             
-            // Send request
-            try (OutputStream os = conn.getOutputStream()) {
-                byte[] input = requestBody.toString().getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
+            long start = System.nanoTime();
+            if (deadline - start <= 0) {
+                return CompletableFuture.failedFuture(new HttpTimeoutException("LLM request timed out"));
             }
+            Duration timeout = Duration.ofNanos(deadline - start);
+            Duration readTimeout = endpoint.getHttpClient().getReadTimeout();
+            CompletableFuture<HttpResponse<String>> request = endpoint.getHttpClient().postJson(
+                endpoint.getCompletionsUrl(), endpoint.getApiKey(), requestBody,
+                timeout.compareTo(readTimeout) < 0 ? timeout : readTimeout);
+            inFlight.add(request);
             
-            // Read response
-            int responseCode = conn.getResponseCode();
-            System.out.println("\nLLM Response Code: " + responseCode);
-            
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                StringBuilder response = new StringBuilder();
-                try (BufferedReader br = new BufferedReader(
-                        new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        response.append(line);
+            return request
+                .thenApply(response -> parseCompletionResponse(response.statusCode(), response.body()))
+                .handle((content, error) -> {
+                    if (error == null) {
+                        endpoint.recordSuccess((System.nanoTime() - start) / 1_000_000);
+                        return CompletableFuture.completedFuture(content);
                     }
-                }
-                
-                String responseString = response.toString();
-                System.out.println("\n--- Full LLM JSON Response ---");
-                System.out.println(responseString);
-                
-                JSONObject jsonResponse = new JSONObject(responseString);
-                JSONArray choices = jsonResponse.getJSONArray("choices");
-                
-                if (choices.length() > 0) {
-                    JSONObject firstChoice = choices.getJSONObject(0);
-                    JSONObject message = firstChoice.getJSONObject("message");
-                    return message.getString("content");
-                } else {
-                    throw new Exception("No choices returned from LLM");
-                }
-                
-            } else {
-                // Read error response
-                System.err.println("\n!!! LLM API Error !!!");
-                System.err.println("Response Code: " + responseCode);
-                StringBuilder errorResponse = new StringBuilder();
-                try (BufferedReader br = new BufferedReader(
-                        new InputStreamReader(conn.getErrorStream(), StandardCharsets.UTF_8))) {
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        errorResponse.append(line);
+                    
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof CancellationException) {
+                        if (!hedged && attempt == 0) {
+                            endpoint.recordCancelled((System.nanoTime() - start) / 1_000_000);
+                        }
+                        return CompletableFuture.<List<String>>failedFuture(cause);
                     }
-                }
-                throw new Exception("LLM API error (HTTP " + responseCode + "): " + errorResponse.toString());
-            }
-            
-        } finally {
-            conn.disconnect();
+                    endpoint.recordFailure();
+                    
+                    if (attempt < maxRetries && isRetryable(cause)) {
+                        long backoff = getBackoffMillis(attempt);
+                        System.err.println("LLM request to " + endpoint + " failed (" + cause.getMessage()
+                            + "), retrying in " + backoff + " ms");
+                        Executor delayed = CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS);
+                        return CompletableFuture.runAsync(() -> { }, delayed)
+                            .thenCompose(ignored -> sendWithRetry(endpointIndex + 1, attempt + 1, hedged));
+                    }
+                    return CompletableFuture.<List<String>>failedFuture(cause);
+                })
+                .thenCompose(future -> future);
+        }
+    }
+    
+    /**
+     * Builds the chat completion request body.
+     */
+    private String buildRequestBody(String model, String systemPrompt, String userPrompt,
+                                    int choices, double temperature) {
+        JSONObject requestBody = new JSONObject();
+        requestBody.put("model", model);
+        
+        JSONArray messages = new JSONArray();
+        messages.put(new JSONObject().put("role", "system").put("content", systemPrompt));
+        messages.put(new JSONObject().put("role", "user").put("content", userPrompt));
+        
+        requestBody.put("messages", messages);
+        requestBody.put("temperature", temperature);
+        if (choices > 1) {
+            requestBody.put("n", choices);
+        }
+        
+        System.out.println("\n--- LLM Request Body ---");
+        System.out.println(requestBody.toString(2)); // Pretty print with indent
+        
+        return requestBody.toString();
+    }
+    
+    /**
+     * Parses an OpenAI-compatible chat completion response into the content of every choice.
+     */
+    private List<String> parseCompletionResponse(int responseCode, String responseString) {
+        System.out.println("\nLLM Response Code: " + responseCode);
+        
+        if (responseCode != 200) {
+            System.err.println("\n!!! LLM API Error !!!");
+            System.err.println("Response Code: " + responseCode);
+            throw new CompletionException(new LlmApiException(responseCode, responseString));
+        }
+        
+        System.out.println("\n--- Full LLM JSON Response ---");
+        System.out.println(responseString);
+        
+        JSONObject jsonResponse = new JSONObject(responseString);
+        JSONArray choices = jsonResponse.getJSONArray("choices");
+        
+        if (choices.length() == 0) {
+            throw new CompletionException(new Exception("No choices returned from LLM"));
+        }
+        
+        List<String> contents = new ArrayList<>();
+        for (int i = 0; i < choices.length(); i++) {
+            JSONObject message = choices.getJSONObject(i).getJSONObject("message");
+            contents.add(message.getString("content"));
+        }
+        return contents;
+    }
+    
+    /**
+     * Rate limiting, server errors and I/O failures (including timeouts) are worth retrying.
+     */
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof LlmApiException) {
+            int status = ((LlmApiException) error).getStatusCode();
+            return status == 429 || status >= 500;
         }
+        return error instanceof IOException;
+    }
+    
+    /**
+     * Exponential backoff with "equal jitter": half the window is fixed, half is random.
+     */
+    private static long getBackoffMillis(int attempt) {
+        long window = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt, 16));
+        return window / 2 + ThreadLocalRandom.current().nextLong(window / 2 + 1);
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+    
+    /**
+     * Non-success HTTP response from the LLM API.
+     */
+    public static class LlmApiException extends Exception {
+        private static final long serialVersionUID = 1L;
+        
+        private final int statusCode;
+        
+        public LlmApiException(int statusCode, String responseBody) {
+            super("LLM API error (HTTP " + statusCode + "): " + responseBody);
+            this.statusCode = statusCode;
+        }
+        
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+    
+    public List<LlmEndpoint> getEndpoints() {
+        return endpoints;
     }
     
     /**
@@ -236,27 +529,64 @@ public class NlpQueryService {
     
     /**
      * Gets the graph schema from Neo4j to help with query generation.
+     * Besides label, relationship type and property names, the summary carries count-store
+     * cardinalities and the indexed/unique properties so the LLM can anchor queries on
+     * selective, indexed starting points.
+     * 
+     * Building the summary runs a count query per label and relationship type, so it is kept
+     * per connection (URI, user and database) for a few minutes; {@link #clearGraphSchema}
+     * drops it earlier, e.g. on reconnect.
      * 
      * @param neo4jService The Neo4j service to use
      * @return A string describing the graph schema
      */
     public static String getGraphSchema(Neo4jService neo4jService) {
+        String key = schemaKey(neo4jService);
+        CachedSchema cached = SCHEMAS.get(key);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < SCHEMA_TTL_MS) {
+            return cached.schema;
+        }
+        String schema = loadGraphSchema(neo4jService);
+        if (!schema.isEmpty()) {
+            SCHEMAS.put(key, new CachedSchema(schema, System.currentTimeMillis()));
+        }
+        return schema;
+    }
+    
+    /**
+     * Drops the cached schema summary of a connection, so the next translation reads it again.
+     */
+    public static void clearGraphSchema(Neo4jService neo4jService) {
+        SCHEMAS.remove(schemaKey(neo4jService));
+    }
+    
+    private static String schemaKey(Neo4jService neo4jService) {
+        return neo4jService.getUri() + "|" + neo4jService.getUsername() + "|" + neo4jService.getDatabase();
+    }
+    
+    private static String loadGraphSchema(Neo4jService neo4jService) {
         try {
             StringBuilder schema = new StringBuilder();
             
-            // Get node labels
+            // Get node labels with their counts (answered from the count store)
             var labelsResult = neo4jService.executeQuery("CALL db.labels()");
-            schema.append("Node Labels:\n");
+            schema.append("Node Labels (with node counts):\n");
             for (var record : labelsResult) {
-                schema.append("  - ").append(record.get("label")).append("\n");
+                String label = String.valueOf(record.get("label"));
+                long count = countOf(neo4jService,
+                    "MATCH (n:" + quoteIdentifier(label) + ") RETURN count(n) AS count");
+                schema.append("  - ").append(label).append(formatCount(count, "nodes")).append("\n");
             }
             schema.append("\n");
             
-            // Get relationship types
+            // Get relationship types with their counts (answered from the count store)
             var relTypesResult = neo4jService.executeQuery("CALL db.relationshipTypes()");
-            schema.append("Relationship Types:\n");
+            schema.append("Relationship Types (with relationship counts):\n");
             for (var record : relTypesResult) {
-                schema.append("  - ").append(record.get("relationshipType")).append("\n");
+                String type = String.valueOf(record.get("relationshipType"));
+                long count = countOf(neo4jService,
+                    "MATCH ()-[r:" + quoteIdentifier(type) + "]->() RETURN count(r) AS count");
+                schema.append("  - ").append(type).append(formatCount(count, "relationships")).append("\n");
             }
             schema.append("\n");
             
@@ -267,6 +597,14 @@ public class NlpQueryService {
                 schema.append("  - ").append(record.get("propertyKey")).append("\n");
             }
             
+            // Get indexed and unique properties
+            String indexes = getIndexedProperties(neo4jService);
+            if (!indexes.isEmpty()) {
+                schema.append("\n");
+                schema.append("Indexed Properties (fast lookup anchors):\n");
+                schema.append(indexes);
+            }
+            
             return schema.toString();
             
         } catch (Exception e) {
@@ -274,4 +612,74 @@ public class NlpQueryService {
             return "";
         }
     }
+    
+    /**
+     * Lists indexed properties from SHOW INDEXES, marking unique ones. Works with the 4.x
+     * ("uniqueness") and 5.x ("owningConstraint") column layouts; token lookup indexes are skipped.
+     */
+    private static String getIndexedProperties(Neo4jService neo4jService) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            for (var record : neo4jService.executeQuery("SHOW INDEXES")) {
+                Object labelsOrTypes = record.get("labelsOrTypes");
+                Object properties = record.get("properties");
+                if (!(labelsOrTypes instanceof List) || !(properties instanceof List)) {
+                    continue;
+                }
+                
+                boolean unique = "UNIQUE".equals(record.get("uniqueness")) || record.get("owningConstraint") != null;
+                boolean relationship = "RELATIONSHIP".equals(record.get("entityType"));
+                
+                for (Object labelOrType : (List<?>) labelsOrTypes) {
+                    sb.append("  - ")
+                        .append(relationship ? "[:" : "(:")
+                        .append(labelOrType)
+                        .append(" {")
+                        .append(((List<?>) properties).stream().map(String::valueOf)
+                            .collect(Collectors.joining(", ")))
+                        .append("}")
+                        .append(relationship ? "]" : ")");
+                    if (unique) {
+                        sb.append(" UNIQUE");
+                    }
+                    sb.append(" [").append(record.get("type")).append("]\n");
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to retrieve indexes: " + e.getMessage());
+        }
+        return sb.toString();
+    }
+    
+    private static long countOf(Neo4jService neo4jService, String countQuery) {
+        try {
+            var rows = neo4jService.executeQuery(countQuery);
+            Object count = rows.isEmpty() ? null : rows.get(0).get("count");
+            return count instanceof Number ? ((Number) count).longValue() : -1;
+        } catch (Exception e) {
+            System.err.println("Failed to count: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    private static class CachedSchema {
+        final String schema;
+        final long loadedAt;
+        
+        CachedSchema(String schema, long loadedAt) {
+            this.schema = schema;
+            this.loadedAt = loadedAt;
+        }
+    }
+    
+    private static String formatCount(long count, String noun) {
+        return count < 0 ? "" : String.format(" (%,d %s)", count, noun);
+    }
+    
+    /**
+     * Backtick-quotes a label or relationship type for use in a Cypher pattern.
+     */
+    private static String quoteIdentifier(String name) {
+        return "`" + name.replace("`", "``") + "`";
+    }
 }
@@ -4,6 +4,7 @@ import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * Service for exporting OWL ontology entities to Neo4j graph database.
@@ -11,8 +12,20 @@ import java.util.*;
  */
 public class OwlExportService {
     
+    private static final Pattern INVALID_PROPERTY_CHARS = Pattern.compile("[^a-zA-Z0-9_]");
+    private static final Pattern INVALID_RELATIONSHIP_CHARS = Pattern.compile("[^a-zA-Z0-9]");
+    
     private final Neo4jService neo4jService;
     
+    // Names derived from IRIs, computed once per entity instead of once per use
+    private final Map<IRI, String> localNames = new HashMap<>();
+    private final Map<String, String> propertyNames = new HashMap<>();
+    private final Map<String, String> relationshipNames = new HashMap<>();
+    
+    // Parameter map reused by every export query; the driver copies the parameters when
+    // the query is run, so the map can be refilled for the next one
+    private final Map<String, Object> params = new HashMap<>();
+    
     public OwlExportService(Neo4jService neo4jService) {
         this.neo4jService = neo4jService;
     }
@@ -82,7 +95,8 @@ public class OwlExportService {
         String iri = owlClass.getIRI().toString();
         
         // Get annotations (labels, comments, etc.)
-        Map<String, Object> properties = new HashMap<>();
+        Map<String, Object> properties = params;
+        properties.clear();
         properties.put("iri", iri);
         properties.put("name", className);
         properties.put("type", "OWLClass");
@@ -123,7 +137,8 @@ public class OwlExportService {
         String individualName = getLocalName(individual.getIRI());
         String iri = individual.getIRI().toString();
         
-        Map<String, Object> properties = new HashMap<>();
+        Map<String, Object> properties = params;
+        properties.clear();
         properties.put("iri", iri);
         properties.put("name", individualName);
         properties.put("type", "OWLIndividual");
@@ -144,14 +159,11 @@ public class OwlExportService {
         }
         
         // Get data property values
-        for (OWLDataProperty dataProperty : ontology.getDataPropertiesInSignature()) {
-            ontology.getDataPropertyAssertionAxioms(individual).stream()
-                .filter(axiom -> axiom.getProperty().equals(dataProperty))
-                .forEach(axiom -> {
-                    String propName = getLocalName(dataProperty.getIRI());
-                    OWLLiteral literal = axiom.getObject();
-                    properties.put(propName, literal.getLiteral());
-                });
+        for (OWLDataPropertyAssertionAxiom axiom : ontology.getDataPropertyAssertionAxioms(individual)) {
+            if (!axiom.getProperty().isAnonymous()) {
+                String propName = getLocalName(axiom.getProperty().asOWLDataProperty().getIRI());
+                properties.put(propName, axiom.getObject().getLiteral());
+            }
         }
         
         // Build Cypher query dynamically based on properties
@@ -174,6 +186,13 @@ public class OwlExportService {
         
         String propertyName = getLocalName(objectProperty.getIRI());
         String relationshipType = sanitizeRelationshipName(propertyName);
+        String cypher = String.format(
+            "MATCH (subject:OWLIndividual {iri: $subjectIri}), " +
+            "(object:OWLIndividual {iri: $objectIri}) " +
+            "MERGE (subject)-[r:%s]->(object) " +
+            "SET r.propertyName = $propertyName",
+            relationshipType
+        );
         
         // Get all object property assertions
         for (OWLObjectPropertyAssertionAxiom axiom : ontology.getAxioms(AxiomType.OBJECT_PROPERTY_ASSERTION)) {
@@ -186,19 +205,11 @@ public class OwlExportService {
                 OWLNamedIndividual subject = (OWLNamedIndividual) axiom.getSubject();
                 OWLNamedIndividual object = (OWLNamedIndividual) axiom.getObject();
                 
-                Map<String, Object> params = new HashMap<>();
+                params.clear();
                 params.put("subjectIri", subject.getIRI().toString());
                 params.put("objectIri", object.getIRI().toString());
                 params.put("propertyName", propertyName);
                 
-                String cypher = String.format(
-                    "MATCH (subject:OWLIndividual {iri: $subjectIri}), " +
-                    "(object:OWLIndividual {iri: $objectIri}) " +
-                    "MERGE (subject)-[r:%s]->(object) " +
-                    "SET r.propertyName = $propertyName",
-                    relationshipType
-                );
-                
                 neo4jService.executeWriteQuery(cypher, params);
             }
         }
@@ -217,7 +228,7 @@ public class OwlExportService {
                 OWLClass namedSuperClass = superClass.asOWLClass();
                 
                 if (!namedSuperClass.isOWLThing()) {
-                    Map<String, Object> params = new HashMap<>();
+                    params.clear();
                     params.put("subclassIri", owlClass.getIRI().toString());
                     params.put("superclassIri", namedSuperClass.getIRI().toString());
                     
@@ -245,7 +256,7 @@ public class OwlExportService {
                 OWLClass owlClass = classExpression.asOWLClass();
                 
                 if (!owlClass.isOWLThing()) {
-                    Map<String, Object> params = new HashMap<>();
+                    params.clear();
                     params.put("individualIri", individual.getIRI().toString());
                     params.put("classIri", owlClass.getIRI().toString());
                     
@@ -264,30 +275,34 @@ public class OwlExportService {
      * Extracts the local name from an IRI.
      */
     private String getLocalName(IRI iri) {
-        String iriString = iri.toString();
-        int hashIndex = iriString.lastIndexOf('#');
-        int slashIndex = iriString.lastIndexOf('/');
-        
-        int splitIndex = Math.max(hashIndex, slashIndex);
-        if (splitIndex >= 0 && splitIndex < iriString.length() - 1) {
-            return iriString.substring(splitIndex + 1);
-        }
-        
-        return iriString;
+        return localNames.computeIfAbsent(iri, key -> {
+            String iriString = key.toString();
+            int hashIndex = iriString.lastIndexOf('#');
+            int slashIndex = iriString.lastIndexOf('/');
+            
+            int splitIndex = Math.max(hashIndex, slashIndex);
+            if (splitIndex >= 0 && splitIndex < iriString.length() - 1) {
+                return iriString.substring(splitIndex + 1);
+            }
+            
+            return iriString;
+        });
     }
     
     /**
      * Sanitizes property names for Neo4j (removes special characters).
      */
     private String sanitizePropertyName(String name) {
-        return name.replaceAll("[^a-zA-Z0-9_]", "_");
+        return propertyNames.computeIfAbsent(name,
+            key -> INVALID_PROPERTY_CHARS.matcher(key).replaceAll("_"));
     }
     
     /**
      * Sanitizes relationship type names for Neo4j (uppercase, underscores).
      */
     private String sanitizeRelationshipName(String name) {
-        return name.replaceAll("[^a-zA-Z0-9]", "_").toUpperCase();
+        return relationshipNames.computeIfAbsent(name,
+            key -> INVALID_RELATIONSHIP_CHARS.matcher(key).replaceAll("_").toUpperCase());
     }
     
     /**
@@ -0,0 +1,385 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import org.neo4j.driver.types.Node;
+import org.neo4j.driver.types.Path;
+import org.neo4j.driver.types.Relationship;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+
+/**
+ * Service for importing Neo4j query results into an OWL ontology.
+ * Converts nodes to individuals with class assertions and data property values, and
+ * relationships to object property assertions between those individuals. Results can be
+ * converted in chunks: individuals and declarations are remembered across calls, so each
+ * chunk's change list can be applied with one {@code applyChanges} call.
+ */
+public class OwlImportService {
+
+    private final OWLOntology ontology;
+    private final OWLDataFactory dataFactory;
+    private final String baseIRI;
+    private final String namespace;
+
+    // Individuals created for Neo4j node ids, shared by all imports through this service
+    private final LongObjectMap<OWLNamedIndividual> nodeIndividuals = new LongObjectMap<>();
+    
+    // Entities per label, property key and relationship type; a large import uses only a few
+    // distinct names but would otherwise build a new IRI for each of millions of occurrences
+    private final Map<String, OWLClass> classes = new HashMap<>();
+    private final Map<String, OWLDataProperty> dataProperties = new HashMap<>();
+    private final Map<String, OWLObjectProperty> objectProperties = new HashMap<>();
+
+    // Classes and properties already declared, so chunked imports declare each only once
+    private final Set<OWLEntity> declaredEntities = new HashSet<>();
+    
+    // Previously imported nodes; null imports everything unconditionally
+    private ImportIndex importIndex;
+
+    public OwlImportService(OWLOntology ontology, OWLDataFactory dataFactory) {
+        this(ontology, dataFactory, baseIRIOf(ontology));
+    }
+
+    /**
+     * Creates an importer whose changes target {@code ontology} but whose entities are named
+     * under {@code baseIRI}, e.g. a staging ontology that is later merged into the active one.
+     */
+    public OwlImportService(OWLOntology ontology, OWLDataFactory dataFactory, String baseIRI) {
+        this.ontology = ontology;
+        this.dataFactory = dataFactory;
+        this.baseIRI = baseIRI;
+        this.namespace = baseIRI + "#";
+    }
+
+    /**
+     * Makes re-imports incremental: nodes recorded in the index with unchanged content are
+     * skipped, axioms the index's ontology already contains are not emitted again, and data
+     * property values that changed since the last import are removed from that ontology.
+     */
+    public void setImportIndex(ImportIndex importIndex) {
+        this.importIndex = importIndex;
+    }
+
+    /**
+     * Returns the ontology IRI, or a default IRI for anonymous ontologies.
+     */
+    public static String baseIRIOf(OWLOntology ontology) {
+        if (ontology.getOntologyID().getOntologyIRI().isPresent()) {
+            return ontology.getOntologyID().getOntologyIRI().get().toString();
+        }
+        return "http://www.semanticweb.org/ontology";
+    }
+
+    /**
+     * Creates an empty in-memory ontology with its own manager. Changes applied to it do not
+     * reach Protégé's model manager, so no views, listeners or reasoner are involved until the
+     * staged axioms are merged.
+     */
+    public static OWLOntology createStagingOntology() throws OWLOntologyCreationException {
+        return OWLManager.createOWLOntologyManager().createOntology();
+    }
+
+    /**
+     * Builds the changes that copy all staged axioms into the target ontology, skipping
+     * axioms the target already contains.
+     */
+    public static List<OWLOntologyChange> buildMergeChanges(OWLOntology staging, OWLOntology target) {
+        List<OWLOntologyChange> changes = new ArrayList<>(staging.getAxiomCount());
+        for (OWLAxiom axiom : staging.getAxioms()) {
+            if (!target.containsAxiom(axiom)) {
+                changes.add(new AddAxiom(target, axiom));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Describes the content of a staging ontology: axiom counts per type and a few sample
+     * axioms, for review before merging.
+     */
+    public static String describeStaging(OWLOntology staging, int sampleSize) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Staged axioms: ").append(staging.getAxiomCount()).append("\n");
+        for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+            int count = staging.getAxiomCount(type);
+            if (count > 0) {
+                sb.append("  ").append(type.getName()).append(": ").append(count).append("\n");
+            }
+        }
+        if (sampleSize > 0 && staging.getAxiomCount() > 0) {
+            sb.append("Sample:\n");
+            int shown = 0;
+            for (OWLAxiom axiom : staging.getAxioms()) {
+                if (shown++ == sampleSize) {
+                    sb.append("  ...\n");
+                    break;
+                }
+                sb.append("  ").append(axiom).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Converts query results to ontology changes. Axioms that occur several times in the
+     * results (e.g. the declaration of a label shared by many nodes) are emitted only once.
+     * Nodes are converted before relationships so edges can refer to the individuals of
+     * nodes returned anywhere in the same result set.
+     *
+     * @param results List of result records as maps
+     * @param summary Summary to update with statistics
+     * @return The changes adding the generated axioms to the ontology and, when an import
+     *         index is set, removing outdated values from the indexed ontology
+     */
+    public List<OWLOntologyChange> buildChanges(List<Map<String, Object>> results, ImportSummary summary) {
+        long start = System.nanoTime();
+        Set<OWLAxiom> axioms = new LinkedHashSet<>();
+        List<Node> nodes = new ArrayList<>();
+        List<Relationship> relationships = new ArrayList<>();
+
+        for (Map<String, Object> record : results) {
+            for (Object value : record.values()) {
+                collectEntities(value, nodes, relationships);
+            }
+            summary.recordsProcessed++;
+        }
+
+        Set<OWLAxiom> removals = new LinkedHashSet<>();
+        for (Node node : nodes) {
+            if (importIndex == null) {
+                summary.axiomsGenerated += addNodeAxioms(node, axioms);
+            } else {
+                addChangedNodeAxioms(node, axioms, removals, summary);
+            }
+        }
+        for (Relationship rel : relationships) {
+            summary.axiomsGenerated += addRelationshipAxioms(rel, axioms);
+        }
+        summary.nodesProcessed += nodes.size();
+        summary.relationshipsProcessed += relationships.size();
+        int unique = axioms.size();
+
+        List<OWLOntologyChange> changes = new ArrayList<>(axioms.size() + removals.size());
+        if (importIndex != null) {
+            // Bulk check against the existing ontology, so unchanged axioms cause no change events
+            OWLOntology existing = importIndex.getOntology();
+            int before = axioms.size();
+            axioms.removeIf(existing::containsAxiom);
+            summary.axiomsAlreadyPresent += before - axioms.size();
+
+            for (OWLAxiom axiom : removals) {
+                changes.add(new RemoveAxiom(existing, axiom));
+            }
+            summary.axiomsRemoved += removals.size();
+        }
+        for (OWLAxiom axiom : axioms) {
+            changes.add(new AddAxiom(ontology, axiom));
+        }
+
+        summary.duplicatesRemoved += summary.axiomsGenerated - unique;
+        summary.buildMillis += (System.nanoTime() - start) / 1_000_000;
+        return changes;
+    }
+
+    /**
+     * Finds nodes and relationships in a result value, decomposing paths and descending
+     * into lists and maps (e.g. {@code collect(n)} or map projections).
+     */
+    private void collectEntities(Object value, List<Node> nodes, List<Relationship> relationships) {
+        if (value instanceof Node) {
+            nodes.add((Node) value);
+        } else if (value instanceof Relationship) {
+            relationships.add((Relationship) value);
+        } else if (value instanceof Path) {
+            Path path = (Path) value;
+            path.nodes().forEach(nodes::add);
+            path.relationships().forEach(relationships::add);
+        } else if (value instanceof List) {
+            for (Object element : (List<?>) value) {
+                collectEntities(element, nodes, relationships);
+            }
+        } else if (value instanceof Map) {
+            for (Object element : ((Map<?, ?>) value).values()) {
+                collectEntities(element, nodes, relationships);
+            }
+        }
+    }
+
+    /**
+     * Adds the axioms for one node: a class declaration and class assertion per label, and
+     * one data property assertion per node property, all on a single individual.
+     *
+     * @return The number of axioms generated, including duplicates
+     */
+    private int addNodeAxioms(Node node, Set<OWLAxiom> axioms) {
+        int generated = 0;
+        OWLNamedIndividual individual = getIndividual(node.id(), node.labels());
+
+        // Get node labels (used as OWL classes)
+        for (String label : node.labels()) {
+            // Create OWL Class for the label if it doesn't exist
+            OWLClass owlClass = classes.computeIfAbsent(label, name -> dataFactory.getOWLClass(iri(name)));
+            declare(owlClass, axioms);
+
+            // Add class assertion
+            axioms.add(dataFactory.getOWLClassAssertionAxiom(owlClass, individual));
+            generated += 2;
+        }
+
+        // Add properties from node
+        for (String propKey : node.keys()) {
+            Object propValue = node.get(propKey).asObject();
+            if (propValue != null) {
+                OWLDataProperty dataProp = dataProperties.computeIfAbsent(propKey,
+                    name -> dataFactory.getOWLDataProperty(iri(name)));
+                axioms.add(dataFactory.getOWLDataPropertyAssertionAxiom(
+                    dataProp, individual, dataFactory.getOWLLiteral(propValue.toString())));
+                generated++;
+            }
+        }
+        return generated;
+    }
+
+    /**
+     * Adds the axioms for a node unless the index shows it was imported with the same content.
+     * Data property values an earlier import created for the node and that it no longer has
+     * are collected as removals; values added to the individual by hand are left alone.
+     */
+    private void addChangedNodeAxioms(Node node, Set<OWLAxiom> axioms, Set<OWLAxiom> removals,
+                                      ImportSummary summary) {
+        long contentHash = ImportIndex.contentHash(node);
+        if (importIndex.isUnchanged(node.id(), contentHash)) {
+            summary.nodesUnchanged++;
+            return;
+        }
+
+        Set<OWLAxiom> nodeAxioms = new LinkedHashSet<>();
+        summary.axiomsGenerated += addNodeAxioms(node, nodeAxioms);
+
+        OWLNamedIndividual individual = getIndividual(node.id(), node.labels());
+        OWLOntology existing = importIndex.getOntology();
+        ImportIndex.Entry previous = importIndex.get(node.id());
+        if (previous != null) {
+            for (OWLDataPropertyAssertionAxiom imported : previous.dataAssertions) {
+                if (!nodeAxioms.contains(imported) && existing.containsAxiom(imported)) {
+                    removals.add(imported);
+                }
+            }
+        }
+
+        Set<OWLDataPropertyAssertionAxiom> dataAssertions = new HashSet<>();
+        for (OWLAxiom axiom : nodeAxioms) {
+            if (axiom instanceof OWLDataPropertyAssertionAxiom) {
+                dataAssertions.add((OWLDataPropertyAssertionAxiom) axiom);
+            }
+        }
+        axioms.addAll(nodeAxioms);
+        importIndex.record(node.id(), individual, contentHash, dataAssertions);
+    }
+
+    /**
+     * Adds the object property for a relationship type and the assertion linking the
+     * individuals of its start and end node.
+     *
+     * @return The number of axioms generated, including duplicates
+     */
+    private int addRelationshipAxioms(Relationship rel, Set<OWLAxiom> axioms) {
+        OWLObjectProperty objProp = objectProperties.computeIfAbsent(rel.type(),
+            name -> dataFactory.getOWLObjectProperty(iri(name)));
+        declare(objProp, axioms);
+
+        OWLNamedIndividual subject = getIndividual(rel.startNodeId(), List.of());
+        OWLNamedIndividual object = getIndividual(rel.endNodeId(), List.of());
+        axioms.add(dataFactory.getOWLObjectPropertyAssertionAxiom(objProp, subject, object));
+        return 2;
+    }
+
+    /**
+     * Adds a declaration axiom unless this service has declared the entity before.
+     */
+    private void declare(OWLEntity entity, Set<OWLAxiom> axioms) {
+        if (declaredEntities.add(entity)) {
+            axioms.add(dataFactory.getOWLDeclarationAxiom(entity));
+        }
+    }
+
+    /**
+     * Returns the individual for a Neo4j node id, creating it on first sight. Individuals are
+     * named after the node id alone (e.g. {@code Node_42}), never its labels, which become
+     * class assertions; so a node gets the same IRI whether it is first seen as a node or as
+     * a relationship endpoint, and when its labels change.
+     *
+     * Earlier versions named an individual per label, e.g. {@code Person_42}. A node that is
+     * not in the import index keeps such an individual if the ontology already has one for
+     * one of its labels, so re-importing an ontology built by those versions does not
+     * duplicate its nodes. Relationship endpoints carry no labels and always get the new name
+     * unless their node was seen first.
+     *
+     * @param labels Labels of the node, empty for a relationship endpoint
+     */
+    private OWLNamedIndividual getIndividual(long nodeId, Iterable<String> labels) {
+        return nodeIndividuals.computeIfAbsent(nodeId, id -> {
+            // Keep the name given by an earlier import
+            ImportIndex.Entry indexed = importIndex != null ? importIndex.get(id) : null;
+            if (indexed != null) {
+                return indexed.individual;
+            }
+            OWLOntology existing = importIndex != null ? importIndex.getOntology() : ontology;
+            for (String label : labels) {
+                IRI legacy = iri(label + "_" + id);
+                if (existing.containsIndividualInSignature(legacy)) {
+                    return dataFactory.getOWLNamedIndividual(legacy);
+                }
+            }
+            return dataFactory.getOWLNamedIndividual(iri("Node_" + id));
+        });
+    }
+
+    private IRI iri(String localName) {
+        return IRI.create(namespace, localName);
+    }
+
+    public String getBaseIRI() {
+        return baseIRI;
+    }
+
+    /**
+     * Import summary statistics.
+     */
+    public static class ImportSummary {
+        public int recordsProcessed = 0;
+        public int nodesProcessed = 0;
+        public int relationshipsProcessed = 0;
+        public int axiomsGenerated = 0;
+        public int duplicatesRemoved = 0;
+        public int nodesUnchanged = 0;
+        public int axiomsAlreadyPresent = 0;
+        public int axiomsRemoved = 0;
+        public int changesApplied = 0;
+        public int applyCalls = 0;
+        public boolean cancelled = false;
+        public int listenerNotifications = 0;
+        public long buildMillis = 0;
+        public long applyMillis = 0;
+
+        @Override
+        public String toString() {
+            return String.format(
+                "Import Summary:\n" +
+                "  Records processed: %d\n" +
+                "  Nodes / relationships processed: %d / %d\n" +
+                "  Axioms generated: %d (%d duplicates removed)\n" +
+                "  Unchanged nodes skipped: %d, axioms already present: %d, changed values removed: %d\n" +
+                "  Changes applied: %d in %d applyChanges call(s)\n" +
+                "  Change listener notifications: %d\n" +
+                "  Build time: %d ms, apply time: %d ms%s",
+                recordsProcessed, nodesProcessed, relationshipsProcessed, axiomsGenerated, duplicatesRemoved,
+                nodesUnchanged, axiomsAlreadyPresent, axiomsRemoved,
+                changesApplied, applyCalls, listenerNotifications,
+                buildMillis, applyMillis,
+                cancelled ? "\n  Import was cancelled before all records were fetched" : ""
+            );
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.summary.Plan;
+
+/**
+ * Inspects an EXPLAIN plan for operators that make a query dangerously expensive
+ * (cartesian products, all-nodes scans, huge row estimates) and decides whether the
+ * query should run, run with a warning, or be blocked.
+ */
+public class QueryPlanAnalysis {
+
+    private static final String CARTESIAN_PRODUCT = "CartesianProduct";
+    private static final String ALL_NODES_SCAN = "AllNodesScan";
+    private static final String ESTIMATED_ROWS = "EstimatedRows";
+    private static final int MAX_SUMMARY_LINES = 20;
+    
+    // Cost weights: operators that touch many records per estimated row count extra
+    private static final double PATHOLOGICAL_WEIGHT = 10.0;
+    private static final double SCAN_WEIGHT = 2.0;
+
+    /**
+     * Outcome of the cost check.
+     */
+    public enum Verdict {
+        OK, WARN, BLOCK
+    }
+
+    private final Verdict verdict;
+    private final List<String> findings;
+    private final String planSummary;
+    private final int cartesianProducts;
+    private final int allNodesScans;
+    private final double maxEstimatedRows;
+    private final double cost;
+    private final boolean planAvailable;
+
+    private QueryPlanAnalysis(Verdict verdict, List<String> findings, String planSummary,
+                              int cartesianProducts, int allNodesScans, double maxEstimatedRows,
+                              double cost, boolean planAvailable) {
+        this.verdict = verdict;
+        this.findings = findings;
+        this.planSummary = planSummary;
+        this.cartesianProducts = cartesianProducts;
+        this.allNodesScans = allNodesScans;
+        this.maxEstimatedRows = maxEstimatedRows;
+        this.cost = cost;
+        this.planAvailable = planAvailable;
+    }
+
+    /**
+     * Runs EXPLAIN for the query and analyses the resulting plan. If the query cannot be
+     * planned, the result is a warning carrying the planner's error message.
+     *
+     * @param neo4jService Connected service used to run EXPLAIN
+     * @param cypherQuery The query to check
+     * @param thresholds Limits deciding between OK, WARN and BLOCK
+     * @return The analysis
+     */
+    public static QueryPlanAnalysis explain(Neo4jService neo4jService, String cypherQuery, Thresholds thresholds) {
+        try {
+            Plan plan = neo4jService.explain(cypherQuery, Map.of());
+            if (plan == null) {
+                return unavailable("Server returned no plan");
+            }
+            return analyze(plan, thresholds);
+        } catch (Exception e) {
+            return unavailable(e.getMessage());
+        }
+    }
+
+    /**
+     * Analyses an estimated plan against the given thresholds.
+     */
+    public static QueryPlanAnalysis analyze(Plan plan, Thresholds thresholds) {
+        PlanWalker walker = new PlanWalker();
+        walker.walk(plan, 0);
+
+        List<String> findings = new ArrayList<>();
+        Verdict verdict = Verdict.OK;
+
+        if (walker.cartesianProducts > 0) {
+            findings.add(walker.cartesianProducts + " CartesianProduct operator(s)");
+            verdict = escalate(verdict, thresholds.blockCartesianProducts ? Verdict.BLOCK : Verdict.WARN);
+        }
+        if (walker.allNodesScans > 0) {
+            findings.add(walker.allNodesScans + " AllNodesScan operator(s)");
+            verdict = escalate(verdict, thresholds.blockAllNodesScans ? Verdict.BLOCK : Verdict.WARN);
+        }
+        if (thresholds.blockEstimatedRows > 0 && walker.maxEstimatedRows >= thresholds.blockEstimatedRows) {
+            findings.add(String.format("Operator estimated at %,.0f rows (block limit %,d)",
+                walker.maxEstimatedRows, thresholds.blockEstimatedRows));
+            verdict = escalate(verdict, Verdict.BLOCK);
+        } else if (thresholds.warnEstimatedRows > 0 && walker.maxEstimatedRows >= thresholds.warnEstimatedRows) {
+            findings.add(String.format("Operator estimated at %,.0f rows (warn limit %,d)",
+                walker.maxEstimatedRows, thresholds.warnEstimatedRows));
+            verdict = escalate(verdict, Verdict.WARN);
+        }
+
+        return new QueryPlanAnalysis(verdict, findings, walker.summary.toString(),
+            walker.cartesianProducts, walker.allNodesScans, walker.maxEstimatedRows,
+            walker.cost, true);
+    }
+    
+    /**
+     * Explains every candidate query and orders them cheapest first. Candidates that cannot
+     * be planned sort last, then blocked ones; the rest are ordered by estimated cost.
+     *
+     * @param neo4jService Connected service used to run EXPLAIN
+     * @param candidates Alternative queries for the same question
+     * @param thresholds Limits deciding between OK, WARN and BLOCK
+     * @return The candidates with their analyses, best first
+     */
+    public static List<RankedCandidate> rankCandidates(Neo4jService neo4jService, List<String> candidates,
+                                                       Thresholds thresholds) {
+        List<RankedCandidate> ranked = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            String query = candidates.get(i);
+            ranked.add(new RankedCandidate(i + 1, query, explain(neo4jService, query, thresholds)));
+        }
+        ranked.sort(Comparator
+            .comparing((RankedCandidate c) -> !c.analysis.planAvailable)
+            .thenComparing(c -> c.analysis.verdict == Verdict.BLOCK)
+            .thenComparingDouble(c -> c.analysis.cost));
+        return ranked;
+    }
+
+    private static QueryPlanAnalysis unavailable(String reason) {
+        List<String> findings = new ArrayList<>();
+        findings.add("Plan unavailable: " + reason);
+        return new QueryPlanAnalysis(Verdict.WARN, findings, "", 0, 0, 0, Double.MAX_VALUE, false);
+    }
+
+    private static Verdict escalate(Verdict current, Verdict candidate) {
+        return candidate.ordinal() > current.ordinal() ? candidate : current;
+    }
+
+    /**
+     * Strips the runtime suffix from operator names, e.g. "AllNodesScan@neo4j".
+     */
+    public static String operatorName(Plan plan) {
+        String type = plan.operatorType();
+        int at = type.indexOf('@');
+        return at > 0 ? type.substring(0, at) : type;
+    }
+
+    public static double estimatedRows(Plan plan) {
+        Value value = plan.arguments().get(ESTIMATED_ROWS);
+        return value != null && !value.isNull() ? value.asDouble() : 0;
+    }
+
+    /**
+     * Depth-first walk collecting counters and an indented operator listing.
+     */
+    private static class PlanWalker {
+        int cartesianProducts = 0;
+        int allNodesScans = 0;
+        double maxEstimatedRows = 0;
+        double cost = 0;
+        int lines = 0;
+        final StringBuilder summary = new StringBuilder();
+
+        void walk(Plan plan, int depth) {
+            String name = operatorName(plan);
+            double rows = estimatedRows(plan);
+
+            String marker = "";
+            double weight = 1.0;
+            if (CARTESIAN_PRODUCT.equals(name)) {
+                cartesianProducts++;
+                marker = "  <-- cartesian product";
+                weight = PATHOLOGICAL_WEIGHT;
+            } else if (ALL_NODES_SCAN.equals(name)) {
+                allNodesScans++;
+                marker = "  <-- scans every node";
+                weight = PATHOLOGICAL_WEIGHT;
+            } else if (name.endsWith("Scan") || name.startsWith("VarLengthExpand")) {
+                weight = SCAN_WEIGHT;
+            }
+            maxEstimatedRows = Math.max(maxEstimatedRows, rows);
+            cost += rows * weight;
+
+            if (lines < MAX_SUMMARY_LINES) {
+                summary.append("  ".repeat(depth + 1)).append(name)
+                    .append(String.format("  (est. rows %,.0f)", rows)).append(marker).append("\n");
+            } else if (lines == MAX_SUMMARY_LINES) {
+                summary.append("  ...\n");
+            }
+            lines++;
+
+            for (Plan child : plan.children()) {
+                walk(child, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * A candidate translation together with its plan analysis.
+     */
+    public static class RankedCandidate {
+        public final int index;
+        public final String query;
+        public final QueryPlanAnalysis analysis;
+
+        public RankedCandidate(int index, String query, QueryPlanAnalysis analysis) {
+            this.index = index;
+            this.query = query;
+            this.analysis = analysis;
+        }
+
+        @Override
+        public String toString() {
+            String costText = analysis.planAvailable ? String.format("cost %,.0f", analysis.cost) : "not plannable";
+            return "Candidate " + index + " (" + costText + ", " + analysis.verdict + ")";
+        }
+    }
+
+    /**
+     * Limits used to classify a plan. A row limit of 0 disables that check.
+     */
+    public static class Thresholds {
+        public long warnEstimatedRows = 100_000;
+        public long blockEstimatedRows = 10_000_000;
+        public boolean blockCartesianProducts = false;
+        public boolean blockAllNodesScans = false;
+    }
+
+    public Verdict getVerdict() {
+        return verdict;
+    }
+
+    public List<String> getFindings() {
+        return findings;
+    }
+
+    public String getPlanSummary() {
+        return planSummary;
+    }
+
+    public int getCartesianProducts() {
+        return cartesianProducts;
+    }
+
+    public int getAllNodesScans() {
+        return allNodesScans;
+    }
+
+    public double getMaxEstimatedRows() {
+        return maxEstimatedRows;
+    }
+
+    /**
+     * Heuristic cost: the sum of estimated rows over all operators, with scans weighted
+     * double and cartesian products / all-nodes scans weighted ten times, as a stand-in
+     * for db hits which EXPLAIN does not report.
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    public boolean isPlanAvailable() {
+        return planAvailable;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Plan check: ").append(verdict);
+        if (planAvailable) {
+            sb.append(String.format(" (estimated cost %,.0f)", cost));
+        }
+        sb.append("\n");
+        for (String finding : findings) {
+            sb.append("  - ").append(finding).append("\n");
+        }
+        if (!planSummary.isEmpty()) {
+            sb.append("Estimated plan:\n").append(planSummary);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,239 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.neo4j.driver.types.Node;
+import org.neo4j.driver.types.Path.Segment;
+import org.neo4j.driver.types.Relationship;
+
+/**
+ * Writes result rows into a CSV or newline-delimited JSON file, optionally gzip-compressed.
+ * The rows are read from a {@link ResultRows} store, such as the one behind the Results tab,
+ * chunk by chunk, so the file holds exactly the rows the user saw without running the query
+ * again, and large results are never held in memory as a whole.
+ */
+public class ResultFileExporter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Output file formats.
+     */
+    public enum Format {
+        CSV("csv"), NDJSON("ndjson");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final Format format;
+    private final boolean gzip;
+    private final int chunkSize;
+
+    public ResultFileExporter(Format format, boolean gzip, int chunkSize) {
+        this.format = format;
+        this.gzip = gzip;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Writes every row to the file, replacing it if it exists. The CSV header is the store's
+     * column list, which holds the query's result keys in order.
+     *
+     * @param rows The rows to save
+     * @param file Destination file
+     * @param progress Called with the number of records written after each chunk, may be null
+     * @return Statistics of the export
+     * @throws Exception if the rows cannot be read or the file cannot be written
+     */
+    public Summary export(ResultRows rows, Path file, LongConsumer progress) throws Exception {
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer writer = openWriter(channel)) {
+
+            List<String> columns = rows.getColumns();
+            if (format == Format.CSV) {
+                writeCsvLine(writer, columns);
+            }
+            rows.readChunks(chunkSize, chunk -> {
+                for (Map<String, Object> record : chunk) {
+                    if (format == Format.CSV) {
+                        List<Object> values = new ArrayList<>(columns.size());
+                        for (String column : columns) {
+                            values.add(record.get(column));
+                        }
+                        writeCsvLine(writer, values);
+                    } else {
+                        JSONObject json = new JSONObject();
+                        for (Map.Entry<String, Object> entry : record.entrySet()) {
+                            json.put(entry.getKey(), toJson(entry.getValue()));
+                        }
+                        writer.write(json.toString());
+                        writer.write('\n');
+                    }
+                }
+                summary.records += chunk.size();
+                if (progress != null) {
+                    progress.accept(summary.records);
+                }
+                return !Thread.currentThread().isInterrupted();
+            });
+        }
+
+        // Measured after closing, when the gzip trailer has been written
+        summary.bytes = Files.size(file);
+        summary.millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Saved results to " + file + ": " + summary);
+        return summary;
+    }
+
+    /**
+     * Buffers characters before encoding and, for gzip, compresses into a second buffer, so
+     * the channel receives large writes.
+     */
+    private Writer openWriter(FileChannel channel) throws IOException {
+        OutputStream out = Channels.newOutputStream(channel);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            writer.write(csv(toJson(value).toString()));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Quotes a CSV field if it contains a separator, quote or line break.
+     */
+    private static String csv(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return "\"" + text.replace("\"", "\"\"") + "\"";
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Converts a driver value to its JSON representation. Nodes become objects with id, labels
+     * and properties; relationships additionally carry type and endpoint ids; paths become
+     * arrays alternating nodes and relationships. Byte arrays are written Base64-encoded,
+     * temporal and spatial values as their string form.
+     */
+    static Object toJson(Object value) {
+        if (value == null) {
+            return JSONObject.NULL;
+        }
+        if (value instanceof Node) {
+            Node node = (Node) value;
+            JSONObject json = new JSONObject();
+            json.put("id", node.id());
+            json.put("labels", new JSONArray(node.labels()));
+            json.put("properties", toJson(node.asMap()));
+            return json;
+        }
+        if (value instanceof Relationship) {
+            Relationship rel = (Relationship) value;
+            JSONObject json = new JSONObject();
+            json.put("id", rel.id());
+            json.put("type", rel.type());
+            json.put("start", rel.startNodeId());
+            json.put("end", rel.endNodeId());
+            json.put("properties", toJson(rel.asMap()));
+            return json;
+        }
+        if (value instanceof org.neo4j.driver.types.Path) {
+            org.neo4j.driver.types.Path path = (org.neo4j.driver.types.Path) value;
+            JSONArray json = new JSONArray();
+            json.put(toJson(path.start()));
+            for (Segment segment : path) {
+                json.put(toJson(segment.relationship()));
+                json.put(toJson(segment.end()));
+            }
+            return json;
+        }
+        if (value instanceof Map) {
+            JSONObject json = new JSONObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                json.put(String.valueOf(entry.getKey()), toJson(entry.getValue()));
+            }
+            return json;
+        }
+        if (value instanceof List) {
+            JSONArray json = new JSONArray();
+            for (Object element : (List<?>) value) {
+                json.put(toJson(element));
+            }
+            return json;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof String) {
+            return value;
+        }
+        if (value instanceof byte[]) {
+            return Base64.getEncoder().encodeToString((byte[]) value);
+        }
+        return value.toString();
+    }
+
+    /**
+     * Statistics of a file export.
+     */
+    public static class Summary {
+        public long records = 0;
+        public long bytes = 0;
+        public long millis = 0;
+
+        /**
+         * Throughput in megabytes of file output per second.
+         */
+        public double getMegabytesPerSecond() {
+            return millis == 0 ? 0 : (bytes / (1024.0 * 1024.0)) / (millis / 1000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d records, %.1f MB in %.1f s (%.1f MB/s)",
+                records, bytes / (1024.0 * 1024.0), millis / 1000.0, getMegabytesPerSecond());
+        }
+    }
+}
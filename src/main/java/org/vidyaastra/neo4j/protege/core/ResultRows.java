@@ -0,0 +1,60 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Random-access view of query result rows, independent of where the rows are kept.
+ * Implementations must allow {@link #get(int)} from any thread while rows are being added.
+ */
+public interface ResultRows {
+
+    /**
+     * Returns the number of rows currently available.
+     */
+    int size();
+
+    /**
+     * Returns the column names, in order of first appearance.
+     */
+    List<String> getColumns();
+
+    /**
+     * Returns one row as a map from column name to driver value.
+     *
+     * @throws IndexOutOfBoundsException if the index is not below {@link #size()}
+     */
+    Map<String, Object> get(int index);
+
+    /**
+     * Returns a single value of a row, or null if the row has no such column. Implementations
+     * that do not store rows as maps override this to avoid building one.
+     *
+     * @throws IndexOutOfBoundsException if the index is not below {@link #size()}
+     */
+    default Object getValue(int index, String column) {
+        return get(index).get(column);
+    }
+
+    /**
+     * Hands the rows to the handler in chunks, e.g. to import them again.
+     *
+     * @return The number of rows handed to the handler
+     * @throws Exception if the handler fails
+     */
+    default long readChunks(int chunkSize, Neo4jService.RecordChunkHandler handler) throws Exception {
+        int total = size();
+        for (int from = 0; from < total; from += chunkSize) {
+            int to = Math.min(total, from + chunkSize);
+            List<Map<String, Object>> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(get(i));
+            }
+            if (!handler.onChunk(chunk)) {
+                return to;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,461 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalPath;
+import org.neo4j.driver.internal.InternalRelationship;
+import org.neo4j.driver.types.Entity;
+import org.neo4j.driver.types.Node;
+import org.neo4j.driver.types.Relationship;
+
+/**
+ * Result store that keeps the first rows on the heap, in a {@link ColumnarResult}, and
+ * encodes all further rows into a temporary file, which is read back with positional reads.
+ * Browsing or re-importing a result far larger than the heap therefore only costs disk space.
+ * The file is not memory-mapped: a mapping cannot be released explicitly, and on Windows
+ * the file of a still-mapped region cannot be deleted when the store is closed.
+ *
+ * Rows are encoded compactly as tagged values: primitives, strings, byte arrays, lists, maps,
+ * nodes, relationships and paths round-trip; other values (temporal, spatial) come back as
+ * their string form. All methods are synchronized, so rows can be read while they are added.
+ */
+public class SpillableResultStore implements ResultRows, AutoCloseable {
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    // Decoded spilled rows kept for cell reads, enough for the rows a table shows at once
+    private static final int DECODED_ROW_CACHE_SIZE = 256;
+
+    private static final byte NULL = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte BOOLEAN = 3;
+    private static final byte STRING = 4;
+    private static final byte LIST = 5;
+    private static final byte MAP = 6;
+    private static final byte NODE = 7;
+    private static final byte RELATIONSHIP = 8;
+    private static final byte PATH = 9;
+    private static final byte BYTES = 10;
+
+    private final int heapRows;
+    private final ColumnarResult heap = new ColumnarResult();
+    private final List<String> columns = new ArrayList<>();
+    private final Map<String, Integer> columnIndexes = new HashMap<>();
+
+    // Spilled rows: start offset of row i at offsets[i], end at offsets[i + 1]
+    private long[] offsets = new long[1024];
+    private int spilledRows = 0;
+    private Path file;
+    private FileChannel channel;
+    private ByteBuffer writeBuffer;
+    private long flushedBytes = 0;
+    private boolean closed = false;
+
+    private final ByteArrayOutputStream rowBytes = new ByteArrayOutputStream();
+    private final DataOutputStream rowOut = new DataOutputStream(rowBytes);
+
+    // Most recently read spilled rows by spilled index, least recently used first
+    private final Map<Integer, Map<String, Object>> decodedRows =
+        new LinkedHashMap<Integer, Map<String, Object>>(DECODED_ROW_CACHE_SIZE * 2, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Map<String, Object>> eldest) {
+                return size() > DECODED_ROW_CACHE_SIZE;
+            }
+        };
+
+    /**
+     * @param heapRows Number of rows kept on the heap before spilling to disk
+     */
+    public SpillableResultStore(int heapRows) {
+        this.heapRows = Math.max(0, heapRows);
+    }
+
+    /**
+     * Adds rows at the end of the store. Rows added after {@link #close()} are ignored.
+     *
+     * @throws UncheckedIOException if the spill file cannot be written
+     */
+    public synchronized void addAll(List<Map<String, Object>> rows) {
+        if (closed) {
+            return;
+        }
+        for (Map<String, Object> row : rows) {
+            addColumns(row.keySet());
+            if (heap.size() < heapRows) {
+                heap.add(row);
+            } else {
+                List<String> keys = new ArrayList<>(row.keySet());
+                spill(keys, i -> row.get(keys.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Adds driver records at the end of the store. Heap rows read integers, floats and
+     * booleans without boxing, and spilled rows are encoded without building a row map.
+     * Records added after {@link #close()} are ignored.
+     *
+     * @throws UncheckedIOException if the spill file cannot be written
+     */
+    public synchronized void addRecords(List<Record> records) {
+        if (closed) {
+            return;
+        }
+        for (Record record : records) {
+            List<String> keys = record.keys();
+            addColumns(keys);
+            if (heap.size() < heapRows) {
+                heap.addRecord(record);
+            } else {
+                spill(keys, i -> record.get(i).asObject());
+            }
+        }
+    }
+
+    /**
+     * Declares columns of the result, e.g. from {@code Result.keys()}, so they keep the
+     * query's order and are known even if no row is added. Known columns are ignored.
+     */
+    public synchronized void addColumns(Collection<String> keys) {
+        for (String key : keys) {
+            if (!columnIndexes.containsKey(key)) {
+                columnIndexes.put(key, columns.size());
+                columns.add(key);
+            }
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return heap.size() + spilledRows;
+    }
+
+    @Override
+    public synchronized List<String> getColumns() {
+        return new ArrayList<>(columns);
+    }
+
+    @Override
+    public synchronized Map<String, Object> get(int index) {
+        if (index < heap.size()) {
+            return heap.get(index);
+        }
+        return new LinkedHashMap<>(spilledRow(index - heap.size()));
+    }
+
+    @Override
+    public synchronized Object getValue(int index, String column) {
+        return index < heap.size() ? heap.getValue(index, column) : spilledRow(index - heap.size()).get(column);
+    }
+
+    /**
+     * Returns the number of bytes written to the spill file.
+     */
+    public synchronized long getSpilledBytes() {
+        return spilledRows == 0 ? 0 : offsets[spilledRows];
+    }
+
+    public synchronized int getSpilledRows() {
+        return spilledRows;
+    }
+
+    /**
+     * Deletes the spill file and drops all rows; the store is empty afterwards.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        heap.clear();
+        spilledRows = 0;
+        decodedRows.clear();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to delete result spill file " + file + ": " + e.getMessage());
+        }
+        channel = null;
+        file = null;
+    }
+
+    /**
+     * Returns a spilled row, decoding it only if it is not among the recently read rows, so
+     * reading a row cell by cell decodes it once. The returned map is shared with the cache.
+     */
+    private Map<String, Object> spilledRow(int spilled) {
+        if (spilled >= spilledRows) {
+            throw new IndexOutOfBoundsException("Row " + (heap.size() + spilled) + " of " + size());
+        }
+        Map<String, Object> row = decodedRows.get(spilled);
+        if (row == null) {
+            try {
+                row = decodeRow(readRow(offsets[spilled], (int) (offsets[spilled + 1] - offsets[spilled])));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            decodedRows.put(spilled, row);
+        }
+        return row;
+    }
+
+    /**
+     * Encodes one row given as its column names and the value at each position.
+     */
+    private void spill(List<String> keys, IntFunction<Object> values) {
+        try {
+            if (channel == null) {
+                file = Files.createTempFile("neo4j-results-", ".bin");
+                file.toFile().deleteOnExit();
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            }
+
+            rowBytes.reset();
+            rowOut.writeShort(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                rowOut.writeShort(columnIndexes.get(keys.get(i)));
+                encode(values.apply(i));
+            }
+            byte[] bytes = rowBytes.toByteArray();
+
+            if (spilledRows + 1 >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[spilledRows + 1] = offsets[spilledRows] + bytes.length;
+            spilledRows++;
+
+            if (bytes.length > writeBuffer.remaining()) {
+                flush();
+            }
+            if (bytes.length > writeBuffer.capacity()) {
+                channel.write(ByteBuffer.wrap(bytes), flushedBytes);
+                flushedBytes += bytes.length;
+            } else {
+                writeBuffer.put(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            flushedBytes += channel.write(writeBuffer, flushedBytes);
+        }
+        writeBuffer.clear();
+    }
+
+    /**
+     * Returns the bytes of a spilled row, flushing the write buffer first if the row is still
+     * in it.
+     */
+    private ByteBuffer readRow(long offset, int length) throws IOException {
+        if (offset + length > flushedBytes) {
+            flush();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Result spill file is truncated");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private void encode(Object value) throws IOException {
+        if (value == null) {
+            rowOut.writeByte(NULL);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                || value instanceof Byte) {
+            rowOut.writeByte(LONG);
+            rowOut.writeLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            rowOut.writeByte(DOUBLE);
+            rowOut.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            rowOut.writeByte(BOOLEAN);
+            rowOut.writeBoolean((Boolean) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            rowOut.writeByte(BYTES);
+            rowOut.writeInt(bytes.length);
+            rowOut.write(bytes);
+        } else if (value instanceof Node) {
+            Node node = (Node) value;
+            rowOut.writeByte(NODE);
+            rowOut.writeLong(node.id());
+            List<String> labels = new ArrayList<>();
+            node.labels().forEach(labels::add);
+            rowOut.writeShort(labels.size());
+            for (String label : labels) {
+                writeString(label);
+            }
+            encode(node.asMap());
+        } else if (value instanceof Relationship) {
+            Relationship rel = (Relationship) value;
+            rowOut.writeByte(RELATIONSHIP);
+            rowOut.writeLong(rel.id());
+            rowOut.writeLong(rel.startNodeId());
+            rowOut.writeLong(rel.endNodeId());
+            writeString(rel.type());
+            encode(rel.asMap());
+        } else if (value instanceof org.neo4j.driver.types.Path) {
+            org.neo4j.driver.types.Path path = (org.neo4j.driver.types.Path) value;
+            rowOut.writeByte(PATH);
+            rowOut.writeInt(path.length());
+            encode(path.start());
+            for (org.neo4j.driver.types.Path.Segment segment : path) {
+                encode(segment.relationship());
+                encode(segment.end());
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            rowOut.writeByte(LIST);
+            rowOut.writeInt(list.size());
+            for (Object element : list) {
+                encode(element);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            rowOut.writeByte(MAP);
+            rowOut.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(String.valueOf(entry.getKey()));
+                encode(entry.getValue());
+            }
+        } else {
+            rowOut.writeByte(STRING);
+            writeString(value.toString());
+        }
+    }
+
+    private void writeString(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        rowOut.writeInt(bytes.length);
+        rowOut.write(bytes);
+    }
+
+    private Map<String, Object> decodeRow(ByteBuffer buffer) {
+        int count = buffer.getShort();
+        Map<String, Object> row = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String column = columns.get(buffer.getShort());
+            row.put(column, decode(buffer));
+        }
+        return row;
+    }
+
+    private static Object decode(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case STRING:
+                return readString(buffer);
+            case BYTES: {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                return bytes;
+            }
+            case LIST: {
+                int size = buffer.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(decode(buffer));
+                }
+                return list;
+            }
+            case MAP:
+                return decodeMap(buffer);
+            case NODE: {
+                long id = buffer.getLong();
+                int labelCount = buffer.getShort();
+                List<String> labels = new ArrayList<>(labelCount);
+                for (int i = 0; i < labelCount; i++) {
+                    labels.add(readString(buffer));
+                }
+                buffer.get(); // MAP tag of the properties
+                return new InternalNode(id, labels, toValues(decodeMap(buffer)));
+            }
+            case RELATIONSHIP: {
+                long id = buffer.getLong();
+                long start = buffer.getLong();
+                long end = buffer.getLong();
+                String type = readString(buffer);
+                buffer.get(); // MAP tag of the properties
+                return new InternalRelationship(id, start, end, type, toValues(decodeMap(buffer)));
+            }
+            case PATH: {
+                int length = buffer.getInt();
+                List<Entity> entities = new ArrayList<>(2 * length + 1);
+                for (int i = 0; i < 2 * length + 1; i++) {
+                    entities.add((Entity) decode(buffer));
+                }
+                return new InternalPath(entities);
+            }
+            default:
+                throw new IllegalStateException("Corrupt result spill file: unknown value tag " + tag);
+        }
+    }
+
+    private static Map<String, Object> decodeMap(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        Map<String, Object> map = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            String key = readString(buffer);
+            map.put(key, decode(buffer));
+        }
+        return map;
+    }
+
+    private static Map<String, Value> toValues(Map<String, Object> properties) {
+        Map<String, Value> values = new LinkedHashMap<>(properties.size() * 2);
+        for (Map.Entry<String, Object> entry : properties.entrySet()) {
+            values.put(entry.getKey(), Values.value(entry.getValue()));
+        }
+        return values;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -22,6 +22,12 @@ public class Neo4jDialogManager {
         return JOptionPane.showInputDialog(parent, message, "Input", JOptionPane.OK_CANCEL_OPTION);
     }
     
+    public Object showSelectionDialog(Component parent, String title, String message,
+                                      Object[] options, Object initialSelection) {
+        return JOptionPane.showInputDialog(parent, message, title, JOptionPane.QUESTION_MESSAGE,
+            null, options, initialSelection);
+    }
+    
     public void showMessageDialog(Component parent, String message) {
         JOptionPane.showMessageDialog(parent, message, "Message", JOptionPane.INFORMATION_MESSAGE);
     }
@@ -10,15 +10,41 @@ public enum Neo4jOperationType {
      */
     NATURAL_LANGUAGE_QUERY("Natural Language Query", "Ask questions in natural language"),
     
+    /**
+     * Natural language query mode that generates several candidates and offers the cheapest plan
+     */
+    NATURAL_LANGUAGE_BEST_PLAN("Natural Language Query (Best Plan)",
+        "Generate several Cypher candidates and pick the one with the cheapest plan"),
+    
     /**
      * Direct Cypher query mode - execute raw Cypher queries
      */
     DIRECT_CYPHER_QUERY("Direct Cypher Query", "Execute Cypher queries directly"),
     
+    /**
+     * Profile mode - run a Cypher query under PROFILE (or EXPLAIN) and show its operator tree
+     */
+    PROFILE_QUERY("Profile Query", "Run a Cypher query under PROFILE and show db hits and rows per operator"),
+    
     /**
      * Export to Neo4j mode - export OWL ontology entities to Neo4j graph database
      */
-    EXPORT_TO_NEO4J("Export to Neo4j", "Export ontology classes and individuals to Neo4j");
+    EXPORT_TO_NEO4J("Export to Neo4j", "Export ontology classes and individuals to Neo4j"),
+    
+    /**
+     * Import from Neo4j mode - page through the whole graph (or a label subset) into the ontology
+     */
+    IMPORT_FROM_NEO4J("Import from Neo4j", "Import all nodes and relationships, optionally filtered by label and type"),
+    
+    /**
+     * Sync mode - periodically pull nodes and relationships changed since the last poll
+     */
+    SYNC_FROM_NEO4J("Sync from Neo4j", "Poll Neo4j for changed nodes and relationships and apply them to the ontology"),
+    
+    /**
+     * Batch mode - translate and execute a file of natural language questions and write a report
+     */
+    BATCH_NL_QUERIES("Batch NL Queries", "Translate and execute a file of questions, writing a CSV report");
     
     private final String displayName;
     private final String description;
@@ -32,6 +58,14 @@ public enum Neo4jOperationType {
         return displayName;
     }
     
+    /**
+     * Tells whether the mode moves a whole ontology or graph, so its transactions may
+     * legitimately run for a long time.
+     */
+    public boolean isBulkTransfer() {
+        return this == EXPORT_TO_NEO4J || this == IMPORT_FROM_NEO4J || this == SYNC_FROM_NEO4J;
+    }
+    
     public String getDescription() {
         return description;
     }
@@ -0,0 +1,179 @@
+package org.vidyaastra.neo4j.protege.ui;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTree;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeCellRenderer;
+import javax.swing.tree.DefaultTreeModel;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.summary.Plan;
+import org.neo4j.driver.summary.ProfiledPlan;
+import org.vidyaastra.neo4j.protege.core.QueryPlanAnalysis;
+
+/**
+ * Shows the operator tree of a PROFILE or EXPLAIN plan. For profiled plans each operator lists
+ * its db hits, rows, page cache hits and misses and time; the operators responsible for the
+ * largest share of db hits or time are highlighted, hot ones in red and warm ones in orange.
+ */
+public class Neo4jPlanView extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+
+    // Share of the total db hits or time from which an operator is highlighted
+    private static final double HOT_SHARE = 0.25;
+    private static final double WARM_SHARE = 0.10;
+
+    private final JLabel summaryLabel;
+    private final JTree tree;
+
+    public Neo4jPlanView() {
+        super(new BorderLayout(5, 5));
+        summaryLabel = new JLabel(" ");
+        tree = new JTree(new DefaultTreeModel(new DefaultMutableTreeNode("No plan")));
+        tree.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        tree.setCellRenderer(new OperatorRenderer());
+
+        JScrollPane scrollPane = new JScrollPane(tree);
+        scrollPane.setBorder(BorderFactory.createTitledBorder("Query Plan"));
+        add(summaryLabel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+    }
+
+    /**
+     * Replaces the shown plan. Must be called on the EDT.
+     *
+     * @param plan The plan, a {@link ProfiledPlan} for PROFILE
+     * @param timing Overall timing of the query for the summary line, or null
+     */
+    public void setPlan(Plan plan, String timing) {
+        List<Plan> operators = new ArrayList<>();
+        collect(plan, operators);
+
+        long totalDbHits = 0;
+        long totalTime = 0;
+        Plan hottest = null;
+        for (Plan operator : operators) {
+            if (operator instanceof ProfiledPlan) {
+                ProfiledPlan profiled = (ProfiledPlan) operator;
+                totalDbHits += profiled.dbHits();
+                totalTime += profiled.time();
+                if (hottest == null || profiled.dbHits() > ((ProfiledPlan) hottest).dbHits()) {
+                    hottest = profiled;
+                }
+            }
+        }
+
+        DefaultMutableTreeNode root = build(plan, totalDbHits, totalTime);
+        tree.setModel(new DefaultTreeModel(root));
+        for (int row = 0; row < tree.getRowCount(); row++) {
+            tree.expandRow(row);
+        }
+
+        StringBuilder summary = new StringBuilder();
+        if (plan instanceof ProfiledPlan) {
+            summary.append(String.format("PROFILE: %,d operators, %,d db hits, %,d rows, %.1f ms operator time",
+                operators.size(), totalDbHits, ((ProfiledPlan) plan).records(), totalTime / 1_000_000.0));
+            if (hottest != null && totalDbHits > 0) {
+                summary.append(String.format("; hottest: %s (%.0f%% of db hits)",
+                    QueryPlanAnalysis.operatorName(hottest), 100.0 * ((ProfiledPlan) hottest).dbHits() / totalDbHits));
+            }
+        } else {
+            summary.append(String.format("EXPLAIN: %,d operators, %,.0f estimated rows",
+                operators.size(), QueryPlanAnalysis.estimatedRows(plan)));
+        }
+        if (timing != null) {
+            summary.append("; ").append(timing);
+        }
+        summaryLabel.setText(summary.toString());
+    }
+
+    private static void collect(Plan plan, List<Plan> operators) {
+        operators.add(plan);
+        for (Plan child : plan.children()) {
+            collect(child, operators);
+        }
+    }
+
+    private static DefaultMutableTreeNode build(Plan plan, long totalDbHits, long totalTime) {
+        DefaultMutableTreeNode node = new DefaultMutableTreeNode(new Operator(plan, totalDbHits, totalTime));
+        for (Plan child : plan.children()) {
+            node.add(build(child, totalDbHits, totalTime));
+        }
+        return node;
+    }
+
+    /**
+     * Tree node content: the label of one operator and how hot it is.
+     */
+    private static final class Operator {
+        final String text;
+        final double share;
+
+        Operator(Plan plan, long totalDbHits, long totalTime) {
+            StringBuilder sb = new StringBuilder(QueryPlanAnalysis.operatorName(plan));
+            Value details = plan.arguments().get("Details");
+            if (details != null && !details.isNull()) {
+                sb.append(" ").append(details.asString());
+            }
+
+            if (plan instanceof ProfiledPlan) {
+                ProfiledPlan profiled = (ProfiledPlan) plan;
+                double dbHitShare = totalDbHits > 0 ? (double) profiled.dbHits() / totalDbHits : 0;
+                double timeShare = totalTime > 0 ? (double) profiled.time() / totalTime : 0;
+                share = Math.max(dbHitShare, timeShare);
+                sb.append(String.format(" | db hits %,d (%.0f%%) | rows %,d",
+                    profiled.dbHits(), 100 * dbHitShare, profiled.records()));
+                if (profiled.hasPageCacheStats()) {
+                    sb.append(String.format(" | page cache %,d hits / %,d misses (%.1f%%)",
+                        profiled.pageCacheHits(), profiled.pageCacheMisses(), 100 * profiled.pageCacheHitRatio()));
+                }
+                // The server reports operator time in nanoseconds
+                sb.append(String.format(" | time %.2f ms", profiled.time() / 1_000_000.0));
+            } else {
+                share = 0;
+                sb.append(String.format(" | estimated rows %,.0f", QueryPlanAnalysis.estimatedRows(plan)));
+            }
+            text = sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    private static final class OperatorRenderer extends DefaultTreeCellRenderer {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Component getTreeCellRendererComponent(JTree tree, Object value, boolean selected,
+                                                      boolean expanded, boolean leaf, int row, boolean hasFocus) {
+            super.getTreeCellRendererComponent(tree, value, selected, expanded, leaf, row, hasFocus);
+            setIcon(null);
+            Object content = ((DefaultMutableTreeNode) value).getUserObject();
+            double share = content instanceof Operator ? ((Operator) content).share : 0;
+            if (share >= HOT_SHARE) {
+                setFont(tree.getFont().deriveFont(Font.BOLD));
+                setForeground(selected ? getTextSelectionColor() : Color.RED);
+            } else {
+                setFont(tree.getFont());
+                if (share >= WARM_SHARE && !selected) {
+                    setForeground(Color.ORANGE.darker());
+                }
+            }
+            return this;
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package org.vidyaastra.neo4j.protege.ui;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.vidyaastra.neo4j.protege.core.QueryPlanAnalysis;
 import org.protege.editor.core.prefs.Preferences;
 import org.protege.editor.core.prefs.PreferencesManager;
 
@@ -15,11 +19,47 @@ public class Neo4jPreferences {
     private static final String NEO4J_USERNAME_KEY = "neo4j.username";
     private static final String NEO4J_PASSWORD_KEY = "neo4j.password";
     private static final String NEO4J_DATABASE_KEY = "neo4j.database";
+    private static final String NEO4J_CONNECTION_NAMES_KEY = "neo4j.connectionNames";
+    private static final String NEO4J_CONNECTION_PREFIX = "neo4j.connection.";
+    private static final String NEO4J_WARM_CONNECTIONS_KEY = "neo4j.warmConnections";
+    private static final String NEO4J_HEALTH_CHECK_SECONDS_KEY = "neo4j.healthCheckSeconds";
+    
+    /**
+     * Name of the connection configured by the URI, username, password and database keys.
+     */
+    public static final String DEFAULT_CONNECTION_NAME = "Default";
     
     // LLM Integration preference keys
     private static final String LLM_BASE_URL_KEY = "llm.baseUrl";
     private static final String LLM_API_KEY_KEY = "llm.apiKey";
     private static final String LLM_MODEL_KEY = "llm.model";
+    private static final String LLM_CONNECT_TIMEOUT_KEY = "llm.connectTimeoutSeconds";
+    private static final String LLM_READ_TIMEOUT_KEY = "llm.readTimeoutSeconds";
+    private static final String LLM_FALLBACK_ENDPOINTS_KEY = "llm.fallbackEndpoints";
+    private static final String LLM_HEDGE_DELAY_KEY = "llm.hedgeDelayMillis";
+    private static final String LLM_MAX_RETRIES_KEY = "llm.maxRetries";
+    private static final String LLM_CANDIDATE_COUNT_KEY = "llm.candidateCount";
+    
+    // Query execution preference keys
+    private static final String BATCH_CONCURRENCY_KEY = "batch.concurrency";
+    private static final String BATCH_TIMEOUT_KEY = "batch.timeoutSeconds";
+    private static final String IMPORT_CHUNK_SIZE_KEY = "import.chunkSize";
+    private static final String IMPORT_USE_STAGING_KEY = "import.useStaging";
+    private static final String SYNC_WATERMARK_PROPERTY_KEY = "sync.watermarkProperty";
+    private static final String SYNC_INTERVAL_SECONDS_KEY = "sync.intervalSeconds";
+    private static final String SCHEDULER_MAX_QUERIES_KEY = "scheduler.maxConcurrentQueries";
+    private static final String QUERY_TIMEOUT_SECONDS_KEY = "query.timeoutSeconds";
+    private static final String QUERY_TIMEOUT_OVERRIDES_KEY = "query.timeoutOverrides";
+    private static final String QUERY_METADATA_TAG_KEY = "query.metadataTag";
+    private static final String QUERY_PARAMETERIZE_LITERALS_KEY = "query.parameterizeLiterals";
+    private static final String IMPORT_PAGE_SIZE_KEY = "import.pageSize";
+    private static final String IMPORT_PARALLELISM_KEY = "import.parallelism";
+    private static final String RESULTS_HEAP_ROWS_KEY = "results.heapRows";
+    private static final String GUARD_ENABLED_KEY = "guard.enabled";
+    private static final String GUARD_WARN_ROWS_KEY = "guard.warnEstimatedRows";
+    private static final String GUARD_BLOCK_ROWS_KEY = "guard.blockEstimatedRows";
+    private static final String GUARD_BLOCK_CARTESIAN_KEY = "guard.blockCartesianProducts";
+    private static final String GUARD_BLOCK_ALL_NODES_SCAN_KEY = "guard.blockAllNodesScans";
     
     // Default values for Neo4j
     private static final String DEFAULT_NEO4J_URI = "neo4j+s://yourserver.databases.neo4j.io";
@@ -30,6 +70,28 @@ public class Neo4jPreferences {
     // Default values for LLM
     private static final String DEFAULT_LLM_BASE_URL = "https://api.openai.com/v1";
     private static final String DEFAULT_LLM_MODEL = "gpt-4o-mini";
+    private static final int DEFAULT_LLM_CONNECT_TIMEOUT_SECONDS = 10;
+    private static final int DEFAULT_LLM_READ_TIMEOUT_SECONDS = 60;
+    private static final int DEFAULT_LLM_HEDGE_DELAY_MILLIS = 3000;
+    private static final int DEFAULT_LLM_MAX_RETRIES = 2;
+    private static final int DEFAULT_LLM_CANDIDATE_COUNT = 3;
+    
+    // Default values for query execution
+    private static final int DEFAULT_BATCH_CONCURRENCY = 4;
+    private static final int DEFAULT_BATCH_TIMEOUT_SECONDS = 60;
+    private static final int DEFAULT_IMPORT_CHUNK_SIZE = 2000;
+    private static final String DEFAULT_SYNC_WATERMARK_PROPERTY = "updatedAt";
+    private static final int DEFAULT_SYNC_INTERVAL_SECONDS = 30;
+    private static final int DEFAULT_SCHEDULER_MAX_QUERIES = 4;
+    private static final int DEFAULT_NEO4J_WARM_CONNECTIONS = 4;
+    private static final int DEFAULT_NEO4J_HEALTH_CHECK_SECONDS = 30;
+    private static final int DEFAULT_QUERY_TIMEOUT_SECONDS = 300;
+    private static final String DEFAULT_QUERY_METADATA_TAG = "neo4j-protege-plugin";
+    private static final int DEFAULT_IMPORT_PAGE_SIZE = 10_000;
+    private static final int DEFAULT_IMPORT_PARALLELISM = 4;
+    private static final int DEFAULT_RESULTS_HEAP_ROWS = 10_000;
+    private static final int DEFAULT_GUARD_WARN_ROWS = 100_000;
+    private static final int DEFAULT_GUARD_BLOCK_ROWS = 10_000_000;
     
     /**
      * Gets the Neo4j preferences instance.
@@ -82,6 +144,128 @@ public class Neo4jPreferences {
                password != null && !password.trim().isEmpty();
     }
     
+    /**
+     * Number of pooled connections opened when connecting, so the first queries do not wait
+     * for TCP, TLS and authentication.
+     */
+    public static int getWarmConnections() {
+        return getPreferences().getInt(NEO4J_WARM_CONNECTIONS_KEY, DEFAULT_NEO4J_WARM_CONNECTIONS);
+    }
+    
+    public static void setWarmConnections(int connections) {
+        getPreferences().putInt(NEO4J_WARM_CONNECTIONS_KEY, connections);
+    }
+    
+    /**
+     * Seconds between background health checks of open connections; 0 disables them.
+     */
+    public static int getHealthCheckSeconds() {
+        return getPreferences().getInt(NEO4J_HEALTH_CHECK_SECONDS_KEY, DEFAULT_NEO4J_HEALTH_CHECK_SECONDS);
+    }
+    
+    public static void setHealthCheckSeconds(int seconds) {
+        getPreferences().putInt(NEO4J_HEALTH_CHECK_SECONDS_KEY, seconds);
+    }
+    
+    /**
+     * Returns the names of the configured connections, the default connection first.
+     */
+    public static List<String> getConnectionNames() {
+        List<String> names = new ArrayList<>();
+        names.add(DEFAULT_CONNECTION_NAME);
+        for (String name : getPreferences().getString(NEO4J_CONNECTION_NAMES_KEY, "").split("\n")) {
+            if (!name.trim().isEmpty() && !names.contains(name.trim())) {
+                names.add(name.trim());
+            }
+        }
+        return names;
+    }
+    
+    /**
+     * Returns the settings of a named connection; the default connection for
+     * {@link #DEFAULT_CONNECTION_NAME} or an unknown name.
+     */
+    public static NamedConnection getConnection(String name) {
+        NamedConnection connection = new NamedConnection();
+        if (name == null || name.equals(DEFAULT_CONNECTION_NAME) || !getConnectionNames().contains(name)) {
+            connection.name = DEFAULT_CONNECTION_NAME;
+            connection.uri = getNeo4jUri();
+            connection.username = getNeo4jUsername();
+            connection.password = getNeo4jPassword();
+            connection.database = getNeo4jDatabase();
+            return connection;
+        }
+        String prefix = NEO4J_CONNECTION_PREFIX + name + ".";
+        connection.name = name;
+        connection.uri = getPreferences().getString(prefix + "uri", DEFAULT_NEO4J_URI);
+        connection.username = getPreferences().getString(prefix + "username", DEFAULT_NEO4J_USERNAME);
+        connection.password = getPreferences().getString(prefix + "password", "");
+        connection.database = getPreferences().getString(prefix + "database", DEFAULT_NEO4J_DATABASE);
+        return connection;
+    }
+    
+    /**
+     * Stores a connection under its name, adding the name to the list if it is new.
+     */
+    public static void saveConnection(NamedConnection connection) {
+        if (connection.name.equals(DEFAULT_CONNECTION_NAME)) {
+            setNeo4jUri(connection.uri);
+            setNeo4jUsername(connection.username);
+            setNeo4jPassword(connection.password);
+            setNeo4jDatabase(connection.database);
+            return;
+        }
+        String prefix = NEO4J_CONNECTION_PREFIX + connection.name + ".";
+        getPreferences().putString(prefix + "uri", connection.uri);
+        getPreferences().putString(prefix + "username", connection.username);
+        getPreferences().putString(prefix + "password", connection.password);
+        getPreferences().putString(prefix + "database", connection.database);
+        List<String> names = getConnectionNames();
+        if (!names.contains(connection.name)) {
+            names.add(connection.name);
+            setConnectionNames(names);
+        }
+    }
+    
+    /**
+     * Removes a named connection. The default connection cannot be removed.
+     */
+    public static void removeConnection(String name) {
+        List<String> names = getConnectionNames();
+        if (!name.equals(DEFAULT_CONNECTION_NAME) && names.remove(name)) {
+            setConnectionNames(names);
+            String prefix = NEO4J_CONNECTION_PREFIX + name + ".";
+            getPreferences().putString(prefix + "password", "");
+        }
+    }
+    
+    private static void setConnectionNames(List<String> names) {
+        getPreferences().putString(NEO4J_CONNECTION_NAMES_KEY,
+            String.join("\n", names.subList(1, names.size())));
+    }
+    
+    /**
+     * Settings of one Neo4j connection.
+     */
+    public static class NamedConnection {
+        public String name;
+        public String uri;
+        public String username;
+        public String password;
+        public String database;
+        
+        public boolean isConfigured() {
+            return uri != null && !uri.trim().isEmpty()
+                && username != null && !username.trim().isEmpty()
+                && password != null && !password.trim().isEmpty();
+        }
+        
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+    
     // ========== LLM Integration Methods ==========
     
     public static String getLlmBaseUrl() {
@@ -108,8 +292,289 @@ public class Neo4jPreferences {
         getPreferences().putString(LLM_MODEL_KEY, model);
     }
     
+    public static int getLlmConnectTimeoutSeconds() {
+        return getPreferences().getInt(LLM_CONNECT_TIMEOUT_KEY, DEFAULT_LLM_CONNECT_TIMEOUT_SECONDS);
+    }
+    
+    public static void setLlmConnectTimeoutSeconds(int seconds) {
+        getPreferences().putInt(LLM_CONNECT_TIMEOUT_KEY, seconds);
+    }
+    
+    public static int getLlmReadTimeoutSeconds() {
+        return getPreferences().getInt(LLM_READ_TIMEOUT_KEY, DEFAULT_LLM_READ_TIMEOUT_SECONDS);
+    }
+    
+    public static void setLlmReadTimeoutSeconds(int seconds) {
+        getPreferences().putInt(LLM_READ_TIMEOUT_KEY, seconds);
+    }
+    
+    /**
+     * Additional endpoints for failover and hedged requests, one {@code model@baseUrl} per line.
+     * They share the primary API key.
+     */
+    public static String getLlmFallbackEndpoints() {
+        return getPreferences().getString(LLM_FALLBACK_ENDPOINTS_KEY, "");
+    }
+    
+    public static void setLlmFallbackEndpoints(String endpoints) {
+        getPreferences().putString(LLM_FALLBACK_ENDPOINTS_KEY, endpoints);
+    }
+    
+    /**
+     * Minimum delay before a hedged duplicate request is sent; 0 disables hedging.
+     */
+    public static int getLlmHedgeDelayMillis() {
+        return getPreferences().getInt(LLM_HEDGE_DELAY_KEY, DEFAULT_LLM_HEDGE_DELAY_MILLIS);
+    }
+    
+    public static void setLlmHedgeDelayMillis(int millis) {
+        getPreferences().putInt(LLM_HEDGE_DELAY_KEY, millis);
+    }
+    
+    public static int getLlmMaxRetries() {
+        return getPreferences().getInt(LLM_MAX_RETRIES_KEY, DEFAULT_LLM_MAX_RETRIES);
+    }
+    
+    public static void setLlmMaxRetries(int retries) {
+        getPreferences().putInt(LLM_MAX_RETRIES_KEY, retries);
+    }
+    
+    /**
+     * Number of candidate translations requested in "Best Plan" mode.
+     */
+    public static int getLlmCandidateCount() {
+        return getPreferences().getInt(LLM_CANDIDATE_COUNT_KEY, DEFAULT_LLM_CANDIDATE_COUNT);
+    }
+    
+    public static void setLlmCandidateCount(int count) {
+        getPreferences().putInt(LLM_CANDIDATE_COUNT_KEY, count);
+    }
+    
     public static boolean isLlmConfigured() {
         String apiKey = getLlmApiKey();
         return apiKey != null && !apiKey.trim().isEmpty();
     }
+    
+    // ========== Query Execution Methods ==========
+    
+    public static int getBatchConcurrency() {
+        return getPreferences().getInt(BATCH_CONCURRENCY_KEY, DEFAULT_BATCH_CONCURRENCY);
+    }
+    
+    public static void setBatchConcurrency(int concurrency) {
+        getPreferences().putInt(BATCH_CONCURRENCY_KEY, concurrency);
+    }
+    
+    public static int getBatchTimeoutSeconds() {
+        return getPreferences().getInt(BATCH_TIMEOUT_KEY, DEFAULT_BATCH_TIMEOUT_SECONDS);
+    }
+    
+    public static void setBatchTimeoutSeconds(int seconds) {
+        getPreferences().putInt(BATCH_TIMEOUT_KEY, seconds);
+    }
+    
+    /**
+     * Number of records fetched, converted and applied to the ontology at a time.
+     */
+    public static int getImportChunkSize() {
+        return getPreferences().getInt(IMPORT_CHUNK_SIZE_KEY, DEFAULT_IMPORT_CHUNK_SIZE);
+    }
+    
+    public static void setImportChunkSize(int chunkSize) {
+        getPreferences().putInt(IMPORT_CHUNK_SIZE_KEY, chunkSize);
+    }
+    
+    /**
+     * Whether query results are imported into a staging ontology and merged after review.
+     */
+    public static boolean isStagingImportEnabled() {
+        return getPreferences().getBoolean(IMPORT_USE_STAGING_KEY, true);
+    }
+    
+    public static void setStagingImportEnabled(boolean enabled) {
+        getPreferences().putBoolean(IMPORT_USE_STAGING_KEY, enabled);
+    }
+    
+    /**
+     * Width of the node id range read per page by "Import from Neo4j".
+     */
+    public static int getImportPageSize() {
+        return getPreferences().getInt(IMPORT_PAGE_SIZE_KEY, DEFAULT_IMPORT_PAGE_SIZE);
+    }
+    
+    public static void setImportPageSize(int pageSize) {
+        getPreferences().putInt(IMPORT_PAGE_SIZE_KEY, pageSize);
+    }
+    
+    /**
+     * Number of pages "Import from Neo4j" fetches in parallel, each over its own session.
+     */
+    public static int getImportParallelism() {
+        return getPreferences().getInt(IMPORT_PARALLELISM_KEY, DEFAULT_IMPORT_PARALLELISM);
+    }
+    
+    public static void setImportParallelism(int parallelism) {
+        getPreferences().putInt(IMPORT_PARALLELISM_KEY, parallelism);
+    }
+    
+    /**
+     * Node and relationship property that "Sync from Neo4j" compares against the last poll,
+     * e.g. an update timestamp or a transaction counter maintained by the application.
+     */
+    public static String getSyncWatermarkProperty() {
+        return getPreferences().getString(SYNC_WATERMARK_PROPERTY_KEY, DEFAULT_SYNC_WATERMARK_PROPERTY);
+    }
+    
+    public static void setSyncWatermarkProperty(String property) {
+        getPreferences().putString(SYNC_WATERMARK_PROPERTY_KEY, property);
+    }
+    
+    public static int getSyncIntervalSeconds() {
+        return getPreferences().getInt(SYNC_INTERVAL_SECONDS_KEY, DEFAULT_SYNC_INTERVAL_SECONDS);
+    }
+    
+    public static void setSyncIntervalSeconds(int seconds) {
+        getPreferences().putInt(SYNC_INTERVAL_SECONDS_KEY, seconds);
+    }
+    
+    /**
+     * Number of queries started from the plugin that may run at the same time; further
+     * queries wait in the task scheduler.
+     */
+    public static int getMaxConcurrentQueries() {
+        return getPreferences().getInt(SCHEDULER_MAX_QUERIES_KEY, DEFAULT_SCHEDULER_MAX_QUERIES);
+    }
+    
+    public static void setMaxConcurrentQueries(int queries) {
+        getPreferences().putInt(SCHEDULER_MAX_QUERIES_KEY, queries);
+    }
+    
+    /**
+     * Default server-side timeout for the transactions of the interactive query modes, 0 for
+     * none. Bulk transfers are not limited by it, see {@link #getQueryTimeoutSeconds(Neo4jOperationType)}.
+     */
+    public static int getQueryTimeoutSeconds() {
+        return getPreferences().getInt(QUERY_TIMEOUT_SECONDS_KEY, DEFAULT_QUERY_TIMEOUT_SECONDS);
+    }
+    
+    public static void setQueryTimeoutSeconds(int seconds) {
+        getPreferences().putInt(QUERY_TIMEOUT_SECONDS_KEY, seconds);
+    }
+    
+    /**
+     * Per-mode timeouts as comma or newline separated {@code MODE=seconds} entries, e.g.
+     * {@code IMPORT_FROM_NEO4J=3600, DIRECT_CYPHER_QUERY=900}.
+     */
+    public static String getQueryTimeoutOverrides() {
+        return getPreferences().getString(QUERY_TIMEOUT_OVERRIDES_KEY, "");
+    }
+    
+    public static void setQueryTimeoutOverrides(String overrides) {
+        getPreferences().putString(QUERY_TIMEOUT_OVERRIDES_KEY, overrides);
+    }
+    
+    /**
+     * Returns the transaction timeout for a query mode: its override if one is configured,
+     * otherwise the default for interactive modes and no timeout for bulk transfers (export,
+     * import, sync), which can take far longer than any interactive query. 0 means no timeout.
+     */
+    public static int getQueryTimeoutSeconds(Neo4jOperationType mode) {
+        for (String entry : getQueryTimeoutOverrides().split("[,\\n]")) {
+            int equals = entry.indexOf('=');
+            if (equals > 0 && entry.substring(0, equals).trim().equalsIgnoreCase(mode.name())) {
+                try {
+                    return Integer.parseInt(entry.substring(equals + 1).trim());
+                } catch (NumberFormatException e) {
+                    System.err.println("Ignoring invalid query timeout override: " + entry.trim());
+                }
+            }
+        }
+        return mode.isBulkTransfer() ? 0 : getQueryTimeoutSeconds();
+    }
+    
+    /**
+     * Value of the "app" transaction metadata of plugin queries, shown by SHOW TRANSACTIONS.
+     */
+    public static String getQueryMetadataTag() {
+        return getPreferences().getString(QUERY_METADATA_TAG_KEY, DEFAULT_QUERY_METADATA_TAG);
+    }
+    
+    public static void setQueryMetadataTag(String tag) {
+        getPreferences().putString(QUERY_METADATA_TAG_KEY, tag);
+    }
+    
+    /**
+     * Whether Direct Cypher queries have their literals replaced with parameters before they
+     * run, so the server can reuse plans across queries that differ only in their literals.
+     */
+    public static boolean isParameterizeLiteralsEnabled() {
+        return getPreferences().getBoolean(QUERY_PARAMETERIZE_LITERALS_KEY, true);
+    }
+    
+    public static void setParameterizeLiteralsEnabled(boolean enabled) {
+        getPreferences().putBoolean(QUERY_PARAMETERIZE_LITERALS_KEY, enabled);
+    }
+    
+    /**
+     * Number of result rows kept on the heap; further rows are spilled to a temporary file.
+     */
+    public static int getResultHeapRows() {
+        return getPreferences().getInt(RESULTS_HEAP_ROWS_KEY, DEFAULT_RESULTS_HEAP_ROWS);
+    }
+    
+    public static void setResultHeapRows(int rows) {
+        getPreferences().putInt(RESULTS_HEAP_ROWS_KEY, rows);
+    }
+    
+    public static boolean isCostGuardEnabled() {
+        return getPreferences().getBoolean(GUARD_ENABLED_KEY, true);
+    }
+    
+    public static void setCostGuardEnabled(boolean enabled) {
+        getPreferences().putBoolean(GUARD_ENABLED_KEY, enabled);
+    }
+    
+    public static int getCostGuardWarnRows() {
+        return getPreferences().getInt(GUARD_WARN_ROWS_KEY, DEFAULT_GUARD_WARN_ROWS);
+    }
+    
+    public static void setCostGuardWarnRows(int rows) {
+        getPreferences().putInt(GUARD_WARN_ROWS_KEY, rows);
+    }
+    
+    public static int getCostGuardBlockRows() {
+        return getPreferences().getInt(GUARD_BLOCK_ROWS_KEY, DEFAULT_GUARD_BLOCK_ROWS);
+    }
+    
+    public static void setCostGuardBlockRows(int rows) {
+        getPreferences().putInt(GUARD_BLOCK_ROWS_KEY, rows);
+    }
+    
+    public static boolean isCostGuardBlockingCartesianProducts() {
+        return getPreferences().getBoolean(GUARD_BLOCK_CARTESIAN_KEY, false);
+    }
+    
+    public static void setCostGuardBlockingCartesianProducts(boolean block) {
+        getPreferences().putBoolean(GUARD_BLOCK_CARTESIAN_KEY, block);
+    }
+    
+    public static boolean isCostGuardBlockingAllNodesScans() {
+        return getPreferences().getBoolean(GUARD_BLOCK_ALL_NODES_SCAN_KEY, false);
+    }
+    
+    public static void setCostGuardBlockingAllNodesScans(boolean block) {
+        getPreferences().putBoolean(GUARD_BLOCK_ALL_NODES_SCAN_KEY, block);
+    }
+    
+    /**
+     * Builds the plan thresholds from the current preferences.
+     */
+    public static QueryPlanAnalysis.Thresholds getCostGuardThresholds() {
+        QueryPlanAnalysis.Thresholds thresholds = new QueryPlanAnalysis.Thresholds();
+        thresholds.warnEstimatedRows = getCostGuardWarnRows();
+        thresholds.blockEstimatedRows = getCostGuardBlockRows();
+        thresholds.blockCartesianProducts = isCostGuardBlockingCartesianProducts();
+        thresholds.blockAllNodesScans = isCostGuardBlockingAllNodesScans();
+        return thresholds;
+    }
 }
@@ -1,14 +1,29 @@
 package org.vidyaastra.neo4j.protege.ui;
 
 import java.awt.BorderLayout;
+import java.awt.FlowLayout;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.swing.BorderFactory;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JPasswordField;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JTextArea;
 import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
 
 import org.protege.editor.core.ui.preferences.PreferencesLayoutPanel;
 import org.protege.editor.owl.ui.preferences.OWLPreferencesPanel;
@@ -21,15 +36,50 @@ public class Neo4jPreferencesPanel extends OWLPreferencesPanel {
     private static final long serialVersionUID = 1L;
     
     // Neo4j connection fields
+    private JComboBox<String> connectionComboBox;
     private JTextField neo4jUriField;
     private JTextField neo4jUsernameField;
     private JPasswordField neo4jPasswordField;
     private JTextField neo4jDatabaseField;
+    private JSpinner warmConnectionsSpinner;
+    private JSpinner healthCheckSecondsSpinner;
+    
+    // Edited settings of each connection by name, saved in applyChanges
+    private final Map<String, Neo4jPreferences.NamedConnection> editedConnections = new LinkedHashMap<>();
+    private final List<String> removedConnections = new ArrayList<>();
+    private String shownConnection = Neo4jPreferences.DEFAULT_CONNECTION_NAME;
     
     // LLM integration fields
     private JTextField llmBaseUrlField;
     private JPasswordField llmApiKeyField;
     private JTextField llmModelField;
+    private JSpinner llmConnectTimeoutSpinner;
+    private JSpinner llmReadTimeoutSpinner;
+    private JTextArea llmFallbackEndpointsArea;
+    private JSpinner llmHedgeDelaySpinner;
+    private JSpinner llmMaxRetriesSpinner;
+    private JSpinner llmCandidateCountSpinner;
+    
+    // Query execution fields
+    private JSpinner batchConcurrencySpinner;
+    private JSpinner batchTimeoutSpinner;
+    private JSpinner importChunkSizeSpinner;
+    private JSpinner heapRowsSpinner;
+    private JCheckBox costGuardEnabledCheckBox;
+    private JCheckBox stagingImportCheckBox;
+    private JSpinner importPageSizeSpinner;
+    private JSpinner importParallelismSpinner;
+    private JTextField syncWatermarkPropertyField;
+    private JSpinner syncIntervalSpinner;
+    private JSpinner maxConcurrentQueriesSpinner;
+    private JSpinner queryTimeoutSpinner;
+    private JTextField queryTimeoutOverridesField;
+    private JTextField queryMetadataTagField;
+    private JCheckBox parameterizeLiteralsCheckBox;
+    private JSpinner costGuardWarnRowsSpinner;
+    private JSpinner costGuardBlockRowsSpinner;
+    private JCheckBox costGuardBlockCartesianCheckBox;
+    private JCheckBox costGuardBlockAllNodesScanCheckBox;
     
     @Override
     public void initialise() throws Exception {
@@ -47,6 +97,11 @@ public class Neo4jPreferencesPanel extends OWLPreferencesPanel {
         JPanel llmPanel = createLlmConfigPanel();
         panel.addGroup("LLM Integration (Natural Language Queries)");
         panel.addGroupComponent(llmPanel);
+        
+        // Query Execution Settings Section
+        JPanel executionPanel = createExecutionConfigPanel();
+        panel.addGroup("Query Execution");
+        panel.addGroupComponent(executionPanel);
     }
     
     private JPanel createNeo4jConfigPanel() {
@@ -59,10 +114,30 @@ public class Neo4jPreferencesPanel extends OWLPreferencesPanel {
         gbc.insets = new Insets(5, 10, 5, 10);
         gbc.fill = GridBagConstraints.HORIZONTAL;
         
-        // URI
+        // Named connection whose settings are shown below
         gbc.gridx = 0;
         gbc.gridy = 0;
         gbc.weightx = 0.0;
+        neo4jPanel.add(new JLabel("Connection:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        JPanel connectionPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        connectionComboBox = new JComboBox<>(Neo4jPreferences.getConnectionNames().toArray(new String[0]));
+        connectionComboBox.addActionListener(e -> showConnection((String) connectionComboBox.getSelectedItem()));
+        JButton saveAsButton = new JButton("Save As...");
+        saveAsButton.addActionListener(e -> saveConnectionAs());
+        JButton removeButton = new JButton("Remove");
+        removeButton.addActionListener(e -> removeShownConnection());
+        connectionPanel.add(connectionComboBox);
+        connectionPanel.add(saveAsButton);
+        connectionPanel.add(removeButton);
+        neo4jPanel.add(connectionPanel, gbc);
+        
+        // URI
+        gbc.gridx = 0;
+        gbc.gridy = 1;
+        gbc.weightx = 0.0;
         neo4jPanel.add(new JLabel("URI:"), gbc);
         
         gbc.gridx = 1;
@@ -73,7 +148,7 @@ public class Neo4jPreferencesPanel extends OWLPreferencesPanel {
         
         // Username
         gbc.gridx = 0;
-        gbc.gridy = 1;
+        gbc.gridy = 2;
         gbc.weightx = 0.0;
         neo4jPanel.add(new JLabel("Username:"), gbc);
         
@@ -85,7 +160,7 @@ public class Neo4jPreferencesPanel extends OWLPreferencesPanel {
         
         // Password
         gbc.gridx = 0;
-        gbc.gridy = 2;
+        gbc.gridy = 3;
         gbc.weightx = 0.0;
         neo4jPanel.add(new JLabel("Password:"), gbc);
         
@@ -97,7 +172,7 @@ public class Neo4jPreferencesPanel extends OWLPreferencesPanel {
         
         // Database
         gbc.gridx = 0;
-        gbc.gridy = 3;
+        gbc.gridy = 4;
         gbc.weightx = 0.0;
         neo4jPanel.add(new JLabel("Database:"), gbc);
         
@@ -107,18 +182,106 @@ public class Neo4jPreferencesPanel extends OWLPreferencesPanel {
         neo4jDatabaseField.setText(Neo4jPreferences.getNeo4jDatabase());
         neo4jPanel.add(neo4jDatabaseField, gbc);
         
+        // Connections opened up front
+        gbc.gridx = 0;
+        gbc.gridy = 5;
+        gbc.weightx = 0.0;
+        neo4jPanel.add(new JLabel("Pre-warmed Connections:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        warmConnectionsSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getWarmConnections(), 0, 32, 1));
+        neo4jPanel.add(warmConnectionsSpinner, gbc);
+        
+        // Background health check
+        gbc.gridx = 0;
+        gbc.gridy = 6;
+        gbc.weightx = 0.0;
+        neo4jPanel.add(new JLabel("Health Check (seconds, 0 = off):"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        healthCheckSecondsSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getHealthCheckSeconds(), 0, 3600, 5));
+        neo4jPanel.add(healthCheckSecondsSpinner, gbc);
+        
         // Help text
         gbc.gridx = 0;
-        gbc.gridy = 4;
+        gbc.gridy = 7;
         gbc.gridwidth = 2;
         gbc.insets = new Insets(15, 10, 5, 10);
         JLabel helpLabel = new JLabel("<html><i>Configure your Neo4j database connection.<br>" +
-                "Example URI: bolt://localhost:7687 or neo4j://localhost:7687</i></html>");
+                "Example URI: bolt://localhost:7687 or neo4j://localhost:7687<br>" +
+                "Save further connections under a name to switch between them in the Neo4j Query view.</i></html>");
         neo4jPanel.add(helpLabel, gbc);
         
         return neo4jPanel;
     }
     
+    /**
+     * Keeps the edits of the shown connection and shows the settings of another one.
+     */
+    private void showConnection(String name) {
+        if (name == null || name.equals(shownConnection)) {
+            return;
+        }
+        editedConnections.put(shownConnection, readConnectionFields(shownConnection));
+        shownConnection = name;
+        loadConnectionFields();
+    }
+    
+    private void saveConnectionAs() {
+        String name = JOptionPane.showInputDialog(this, "Name of the connection:", "Save Connection As",
+            JOptionPane.PLAIN_MESSAGE);
+        if (name == null || name.trim().isEmpty()) {
+            return;
+        }
+        name = name.trim();
+        Neo4jPreferences.NamedConnection connection = readConnectionFields(name);
+        editedConnections.put(name, connection);
+        removedConnections.remove(name);
+        if (((DefaultComboBoxModel<String>) connectionComboBox.getModel()).getIndexOf(name) < 0) {
+            connectionComboBox.addItem(name);
+        }
+        // The fields already hold the new connection, so switching must not overwrite them
+        shownConnection = name;
+        connectionComboBox.setSelectedItem(name);
+    }
+    
+    private void removeShownConnection() {
+        String name = shownConnection;
+        if (name.equals(Neo4jPreferences.DEFAULT_CONNECTION_NAME)) {
+            return;
+        }
+        editedConnections.remove(name);
+        removedConnections.add(name);
+        shownConnection = Neo4jPreferences.DEFAULT_CONNECTION_NAME;
+        loadConnectionFields();
+        connectionComboBox.setSelectedItem(shownConnection);
+        connectionComboBox.removeItem(name);
+    }
+    
+    private void loadConnectionFields() {
+        Neo4jPreferences.NamedConnection connection = editedConnections.containsKey(shownConnection)
+            ? editedConnections.get(shownConnection)
+            : Neo4jPreferences.getConnection(shownConnection);
+        neo4jUriField.setText(connection.uri);
+        neo4jUsernameField.setText(connection.username);
+        neo4jPasswordField.setText(connection.password);
+        neo4jDatabaseField.setText(connection.database);
+    }
+    
+    private Neo4jPreferences.NamedConnection readConnectionFields(String name) {
+        Neo4jPreferences.NamedConnection connection = new Neo4jPreferences.NamedConnection();
+        connection.name = name;
+        connection.uri = neo4jUriField.getText().trim();
+        connection.username = neo4jUsernameField.getText().trim();
+        connection.password = new String(neo4jPasswordField.getPassword());
+        connection.database = neo4jDatabaseField.getText().trim();
+        return connection;
+    }
+    
     private JPanel createLlmConfigPanel() {
         JPanel llmPanel = new JPanel(new GridBagLayout());
         llmPanel.setBorder(BorderFactory.createTitledBorder(
@@ -165,20 +328,307 @@ public class Neo4jPreferencesPanel extends OWLPreferencesPanel {
         llmModelField.setText(Neo4jPreferences.getLlmModel());
         llmPanel.add(llmModelField, gbc);
         
-        // Help text
+        // Connect timeout
         gbc.gridx = 0;
         gbc.gridy = 3;
+        gbc.weightx = 0.0;
+        llmPanel.add(new JLabel("Connect Timeout (s):"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        llmConnectTimeoutSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getLlmConnectTimeoutSeconds(), 1, 300, 1));
+        llmPanel.add(llmConnectTimeoutSpinner, gbc);
+        
+        // Read timeout
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        gbc.weightx = 0.0;
+        llmPanel.add(new JLabel("Read Timeout (s):"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        llmReadTimeoutSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getLlmReadTimeoutSeconds(), 1, 600, 1));
+        llmPanel.add(llmReadTimeoutSpinner, gbc);
+        
+        // Fallback endpoints
+        gbc.gridx = 0;
+        gbc.gridy = 5;
+        gbc.weightx = 0.0;
+        llmPanel.add(new JLabel("Fallback Endpoints:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        llmFallbackEndpointsArea = new JTextArea(3, 40);
+        llmFallbackEndpointsArea.setText(Neo4jPreferences.getLlmFallbackEndpoints());
+        llmPanel.add(new JScrollPane(llmFallbackEndpointsArea), gbc);
+        
+        // Hedge delay
+        gbc.gridx = 0;
+        gbc.gridy = 6;
+        gbc.weightx = 0.0;
+        llmPanel.add(new JLabel("Hedge Delay (ms):"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        llmHedgeDelaySpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getLlmHedgeDelayMillis(), 0, 120000, 250));
+        llmPanel.add(llmHedgeDelaySpinner, gbc);
+        
+        // Max retries
+        gbc.gridx = 0;
+        gbc.gridy = 7;
+        gbc.weightx = 0.0;
+        llmPanel.add(new JLabel("Max Retries:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        llmMaxRetriesSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getLlmMaxRetries(), 0, 10, 1));
+        llmPanel.add(llmMaxRetriesSpinner, gbc);
+        
+        // Candidate count for "Best Plan" mode
+        gbc.gridx = 0;
+        gbc.gridy = 8;
+        gbc.weightx = 0.0;
+        llmPanel.add(new JLabel("Best Plan Candidates:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        llmCandidateCountSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getLlmCandidateCount(), 1, 10, 1));
+        llmPanel.add(llmCandidateCountSpinner, gbc);
+        
+        // Help text
+        gbc.gridx = 0;
+        gbc.gridy = 9;
         gbc.gridwidth = 2;
         gbc.insets = new Insets(15, 10, 5, 10);
         JLabel helpLabel = new JLabel("<html><i>Configure your LLM API credentials for natural language query translation.<br>" +
                 "For OpenAI: Use https://api.openai.com/v1<br>" +
                 "For Azure OpenAI: Use your Azure endpoint URL<br>" +
-                "Common models: gpt-4o-mini, gpt-4o, gpt-4-turbo, gpt-3.5-turbo</i></html>");
+                "Common models: gpt-4o-mini, gpt-4o, gpt-4-turbo, gpt-3.5-turbo<br>" +
+                "Fallback endpoints: one model@baseUrl per line, sharing the API key above.<br>" +
+                "A hedged request goes to the first fallback if no answer arrives within the<br>" +
+                "hedge delay (or the primary's p95 latency, if higher); 0 disables hedging.</i></html>");
         llmPanel.add(helpLabel, gbc);
         
         return llmPanel;
     }
     
+    private JPanel createExecutionConfigPanel() {
+        JPanel executionPanel = new JPanel(new GridBagLayout());
+        executionPanel.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createEtchedBorder(), "Query Execution Configuration"));
+        
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.anchor = GridBagConstraints.WEST;
+        gbc.insets = new Insets(5, 10, 5, 10);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        
+        // Batch concurrency
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Batch Concurrency:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        batchConcurrencySpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getBatchConcurrency(), 1, 64, 1));
+        executionPanel.add(batchConcurrencySpinner, gbc);
+        
+        // Batch execution timeout
+        gbc.gridx = 0;
+        gbc.gridy = 1;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Batch Query Timeout (s):"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        batchTimeoutSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getBatchTimeoutSeconds(), 1, 3600, 1));
+        executionPanel.add(batchTimeoutSpinner, gbc);
+        
+        // Import chunk size
+        gbc.gridx = 0;
+        gbc.gridy = 2;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Import Chunk Size:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        importChunkSizeSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getImportChunkSize(), 100, 100_000, 100));
+        executionPanel.add(importChunkSizeSpinner, gbc);
+        
+        // Result rows kept on the heap before spilling to disk
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Rows Kept in Memory:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        heapRowsSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getResultHeapRows(), 0, Integer.MAX_VALUE, 1000));
+        executionPanel.add(heapRowsSpinner, gbc);
+        
+        // EXPLAIN cost guard for generated queries
+        gbc.gridx = 0;
+        gbc.gridy = 4;
+        gbc.gridwidth = 2;
+        costGuardEnabledCheckBox = new JCheckBox("Check translated queries with EXPLAIN before execution",
+            Neo4jPreferences.isCostGuardEnabled());
+        executionPanel.add(costGuardEnabledCheckBox, gbc);
+        gbc.gridwidth = 1;
+        
+        gbc.gridx = 0;
+        gbc.gridy = 5;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Warn at Estimated Rows:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        costGuardWarnRowsSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getCostGuardWarnRows(), 0, Integer.MAX_VALUE, 1000));
+        executionPanel.add(costGuardWarnRowsSpinner, gbc);
+        
+        gbc.gridx = 0;
+        gbc.gridy = 6;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Block at Estimated Rows:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        costGuardBlockRowsSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getCostGuardBlockRows(), 0, Integer.MAX_VALUE, 1000));
+        executionPanel.add(costGuardBlockRowsSpinner, gbc);
+        
+        gbc.gridx = 0;
+        gbc.gridy = 7;
+        gbc.gridwidth = 2;
+        costGuardBlockCartesianCheckBox = new JCheckBox("Block queries with CartesianProduct operators",
+            Neo4jPreferences.isCostGuardBlockingCartesianProducts());
+        executionPanel.add(costGuardBlockCartesianCheckBox, gbc);
+        
+        gbc.gridy = 8;
+        costGuardBlockAllNodesScanCheckBox = new JCheckBox("Block queries with AllNodesScan operators",
+            Neo4jPreferences.isCostGuardBlockingAllNodesScans());
+        executionPanel.add(costGuardBlockAllNodesScanCheckBox, gbc);
+        
+        // Review imports in a staging ontology before merging
+        gbc.gridy = 9;
+        stagingImportCheckBox = new JCheckBox("Stage imports and merge them into the ontology after review",
+            Neo4jPreferences.isStagingImportEnabled());
+        executionPanel.add(stagingImportCheckBox, gbc);
+        gbc.gridwidth = 1;
+        
+        // Paging for "Import from Neo4j"
+        gbc.gridx = 0;
+        gbc.gridy = 10;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Import Page Size (node ids):"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        importPageSizeSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getImportPageSize(), 100, 1_000_000, 1000));
+        executionPanel.add(importPageSizeSpinner, gbc);
+        
+        gbc.gridx = 0;
+        gbc.gridy = 11;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Import Parallel Sessions:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        importParallelismSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getImportParallelism(), 1, 32, 1));
+        executionPanel.add(importParallelismSpinner, gbc);
+        
+        // Change polling for "Sync from Neo4j"
+        gbc.gridx = 0;
+        gbc.gridy = 12;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Sync Watermark Property:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        syncWatermarkPropertyField = new JTextField(Neo4jPreferences.getSyncWatermarkProperty(), 40);
+        executionPanel.add(syncWatermarkPropertyField, gbc);
+        
+        gbc.gridx = 0;
+        gbc.gridy = 13;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Sync Interval (seconds):"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        syncIntervalSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getSyncIntervalSeconds(), 1, 86_400, 5));
+        executionPanel.add(syncIntervalSpinner, gbc);
+        
+        // Background tasks
+        gbc.gridx = 0;
+        gbc.gridy = 14;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Max Concurrent Queries:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        maxConcurrentQueriesSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getMaxConcurrentQueries(), 1, 8, 1));
+        executionPanel.add(maxConcurrentQueriesSpinner, gbc);
+        
+        // Server-side transaction settings
+        gbc.gridx = 0;
+        gbc.gridy = 15;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Interactive Query Timeout (seconds, 0 = none):"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        queryTimeoutSpinner = new JSpinner(new SpinnerNumberModel(
+            Neo4jPreferences.getQueryTimeoutSeconds(), 0, 86_400, 30));
+        executionPanel.add(queryTimeoutSpinner, gbc);
+        
+        gbc.gridx = 0;
+        gbc.gridy = 16;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Per-Mode Timeouts:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        queryTimeoutOverridesField = new JTextField(Neo4jPreferences.getQueryTimeoutOverrides(), 40);
+        queryTimeoutOverridesField.setToolTipText("e.g. IMPORT_FROM_NEO4J=3600, DIRECT_CYPHER_QUERY=900 "
+            + "(export, import and sync have no timeout unless set here)");
+        executionPanel.add(queryTimeoutOverridesField, gbc);
+        
+        gbc.gridx = 0;
+        gbc.gridy = 17;
+        gbc.weightx = 0.0;
+        executionPanel.add(new JLabel("Transaction Metadata Tag:"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.weightx = 1.0;
+        queryMetadataTagField = new JTextField(Neo4jPreferences.getQueryMetadataTag(), 40);
+        executionPanel.add(queryMetadataTagField, gbc);
+        
+        // Lift literals of Direct Cypher queries into parameters for plan cache reuse
+        gbc.gridx = 0;
+        gbc.gridy = 18;
+        gbc.gridwidth = 2;
+        gbc.weightx = 0.0;
+        parameterizeLiteralsCheckBox = new JCheckBox("Replace literals in Direct Cypher queries with parameters",
+            Neo4jPreferences.isParameterizeLiteralsEnabled());
+        executionPanel.add(parameterizeLiteralsCheckBox, gbc);
+        gbc.gridwidth = 1;
+        
+        return executionPanel;
+    }
+    
     @Override
     public void dispose() throws Exception {
         // Cleanup if needed
@@ -186,15 +636,47 @@ public class Neo4jPreferencesPanel extends OWLPreferencesPanel {
     
     @Override
     public void applyChanges() {
-        // Save Neo4j preferences
-        Neo4jPreferences.setNeo4jUri(neo4jUriField.getText().trim());
-        Neo4jPreferences.setNeo4jUsername(neo4jUsernameField.getText().trim());
-        Neo4jPreferences.setNeo4jPassword(new String(neo4jPasswordField.getPassword()));
-        Neo4jPreferences.setNeo4jDatabase(neo4jDatabaseField.getText().trim());
+        // Save Neo4j preferences of every edited connection
+        editedConnections.put(shownConnection, readConnectionFields(shownConnection));
+        for (Neo4jPreferences.NamedConnection connection : editedConnections.values()) {
+            Neo4jPreferences.saveConnection(connection);
+        }
+        for (String name : removedConnections) {
+            Neo4jPreferences.removeConnection(name);
+        }
+        Neo4jPreferences.setWarmConnections((Integer) warmConnectionsSpinner.getValue());
+        Neo4jPreferences.setHealthCheckSeconds((Integer) healthCheckSecondsSpinner.getValue());
         
         // Save LLM preferences
         Neo4jPreferences.setLlmBaseUrl(llmBaseUrlField.getText().trim());
         Neo4jPreferences.setLlmApiKey(new String(llmApiKeyField.getPassword()));
         Neo4jPreferences.setLlmModel(llmModelField.getText().trim());
+        Neo4jPreferences.setLlmConnectTimeoutSeconds((Integer) llmConnectTimeoutSpinner.getValue());
+        Neo4jPreferences.setLlmReadTimeoutSeconds((Integer) llmReadTimeoutSpinner.getValue());
+        Neo4jPreferences.setLlmFallbackEndpoints(llmFallbackEndpointsArea.getText().trim());
+        Neo4jPreferences.setLlmHedgeDelayMillis((Integer) llmHedgeDelaySpinner.getValue());
+        Neo4jPreferences.setLlmMaxRetries((Integer) llmMaxRetriesSpinner.getValue());
+        Neo4jPreferences.setLlmCandidateCount((Integer) llmCandidateCountSpinner.getValue());
+        
+        // Save query execution preferences
+        Neo4jPreferences.setBatchConcurrency((Integer) batchConcurrencySpinner.getValue());
+        Neo4jPreferences.setBatchTimeoutSeconds((Integer) batchTimeoutSpinner.getValue());
+        Neo4jPreferences.setImportChunkSize((Integer) importChunkSizeSpinner.getValue());
+        Neo4jPreferences.setResultHeapRows((Integer) heapRowsSpinner.getValue());
+        Neo4jPreferences.setStagingImportEnabled(stagingImportCheckBox.isSelected());
+        Neo4jPreferences.setImportPageSize((Integer) importPageSizeSpinner.getValue());
+        Neo4jPreferences.setImportParallelism((Integer) importParallelismSpinner.getValue());
+        Neo4jPreferences.setSyncWatermarkProperty(syncWatermarkPropertyField.getText().trim());
+        Neo4jPreferences.setSyncIntervalSeconds((Integer) syncIntervalSpinner.getValue());
+        Neo4jPreferences.setMaxConcurrentQueries((Integer) maxConcurrentQueriesSpinner.getValue());
+        Neo4jPreferences.setQueryTimeoutSeconds((Integer) queryTimeoutSpinner.getValue());
+        Neo4jPreferences.setQueryTimeoutOverrides(queryTimeoutOverridesField.getText().trim());
+        Neo4jPreferences.setQueryMetadataTag(queryMetadataTagField.getText().trim());
+        Neo4jPreferences.setParameterizeLiteralsEnabled(parameterizeLiteralsCheckBox.isSelected());
+        Neo4jPreferences.setCostGuardEnabled(costGuardEnabledCheckBox.isSelected());
+        Neo4jPreferences.setCostGuardWarnRows((Integer) costGuardWarnRowsSpinner.getValue());
+        Neo4jPreferences.setCostGuardBlockRows((Integer) costGuardBlockRowsSpinner.getValue());
+        Neo4jPreferences.setCostGuardBlockingCartesianProducts(costGuardBlockCartesianCheckBox.isSelected());
+        Neo4jPreferences.setCostGuardBlockingAllNodesScans(costGuardBlockAllNodesScanCheckBox.isSelected());
     }
 }
@@ -7,6 +7,25 @@ import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -18,18 +37,35 @@ import javax.swing.JScrollPane;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
 
+import org.vidyaastra.neo4j.protege.core.BatchQueryRunner;
+import org.vidyaastra.neo4j.protege.core.CypherParameterizer;
+import org.vidyaastra.neo4j.protege.core.GraphImportReader;
+import org.vidyaastra.neo4j.protege.core.GraphSyncPoller;
+import org.vidyaastra.neo4j.protege.core.ImportIndex;
+import org.vidyaastra.neo4j.protege.core.LlmEndpoint;
+import org.vidyaastra.neo4j.protege.core.Neo4jConnectionRegistry;
 import org.vidyaastra.neo4j.protege.core.Neo4jService;
+import org.vidyaastra.neo4j.protege.core.Neo4jTaskScheduler;
 import org.vidyaastra.neo4j.protege.core.NlpQueryService;
 import org.vidyaastra.neo4j.protege.core.OwlExportService;
+import org.vidyaastra.neo4j.protege.core.OwlImportService;
+import org.vidyaastra.neo4j.protege.core.QueryPlanAnalysis;
+import org.vidyaastra.neo4j.protege.core.ResultFileExporter;
+import org.vidyaastra.neo4j.protege.core.ResultRows;
+import org.vidyaastra.neo4j.protege.core.SpillableResultStore;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.summary.Plan;
+import org.neo4j.driver.summary.QueryType;
+import org.neo4j.driver.summary.ResultSummary;
 import org.protege.editor.owl.OWLEditorKit;
-import org.semanticweb.owlapi.model.IRI;
-import org.semanticweb.owlapi.model.OWLClass;
-import org.semanticweb.owlapi.model.OWLDataFactory;
-import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.protege.editor.owl.model.OWLModelManager;
 import org.semanticweb.owlapi.model.OWLOntology;
-import org.semanticweb.owlapi.model.OWLDataProperty;
-import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
 
 /**
  * Panel for Neo4j query input and execution, following VidyaAstra pattern.
@@ -38,6 +74,11 @@ public class Neo4jQueryPanel extends JPanel {
     
     private static final long serialVersionUID = 1L;
     
+    // Leading PROFILE or EXPLAIN keyword typed in Profile Query mode, after any leading comments
+    private static final Pattern PLAN_PREFIX = Pattern.compile("^\\s*(PROFILE|EXPLAIN)\\b", Pattern.CASE_INSENSITIVE);
+    // Whitespace, // line comments and /* block comments */ before the first keyword
+    private static final Pattern LEADING_COMMENTS = Pattern.compile("^(\\s+|//[^\\n]*|/\\*.*?\\*/)+", Pattern.DOTALL);
+    
     private final OWLEditorKit editorKit;
     private final Neo4jDialogManager dialogManager;
     
@@ -52,14 +93,40 @@ public class Neo4jQueryPanel extends JPanel {
     private JButton saveSettingsButton;
     
     private JComboBox<Neo4jOperationType> operationTypeComboBox;
+    private JComboBox<String> connectionComboBox;
     private JTextArea queryInputArea;
     private JButton executeButton;
     private JButton connectButton;
     private JButton clearButton;
+    private JButton stopButton;
+    private JButton saveResultsButton;
     private JLabel statusLabel;
+    private JLabel tasksLabel;
     
     private Neo4jResultsPanel resultsPanel;
+    // Lease on the shared connection selected in connectionComboBox, null while not connected
     private Neo4jService neo4jService;
+    // Leases this panel holds by connection name, so switching back does not reconnect
+    private final Map<String, Neo4jService> connections = new HashMap<>();
+    private NlpQueryService nlpQueryService;
+    private String nlpQueryServiceKey;
+    // Stop flags of the imports running in this panel, one per task, so starting a query
+    // never clears the Stop of another one
+    private final Set<AtomicBoolean> cancelFlags = ConcurrentHashMap.newKeySet();
+    // Stop flag of the import whose rows the Results tab shows, for its Stop Fetching button
+    private volatile AtomicBoolean shownResultsCancel;
+    // Transaction metadata value identifying the queries of this panel on the server
+    private final String clientId = UUID.randomUUID().toString();
+    private ImportIndex importIndex;
+    // Starts the next poll of the running sync, null while no sync runs; only used on the EDT
+    private Timer syncTimer;
+    // Lease the running sync polls on, and its current poll task
+    private Neo4jService syncLease;
+    private PanelTask syncTask;
+    
+    // Tasks this panel submitted to the scheduler whose work has not stopped yet
+    private final List<PanelTask> tasks = new ArrayList<>();
+    private final Runnable taskListener = () -> SwingUtilities.invokeLater(this::updateTaskStatus);
     
     public Neo4jQueryPanel(OWLEditorKit editorKit) {
         this.editorKit = editorKit;
@@ -69,6 +136,7 @@ public class Neo4jQueryPanel extends JPanel {
         layoutComponents();
         setupListeners();
         loadSettings();
+        Neo4jTaskScheduler.getInstance().addListener(taskListener);
     }
     
     private void initializeComponents() {
@@ -86,6 +154,9 @@ public class Neo4jQueryPanel extends JPanel {
         operationTypeComboBox = new JComboBox<>(Neo4jOperationType.values());
         operationTypeComboBox.setSelectedItem(Neo4jOperationType.NATURAL_LANGUAGE_QUERY);
         
+        // Named connection selector
+        connectionComboBox = new JComboBox<>(Neo4jPreferences.getConnectionNames().toArray(new String[0]));
+        
         // Query input area
         queryInputArea = new JTextArea(10, 50);
         queryInputArea.setLineWrap(true);
@@ -97,10 +168,17 @@ public class Neo4jQueryPanel extends JPanel {
         executeButton = new JButton("Execute Query");
         executeButton.setEnabled(false); // Disabled until connected
         clearButton = new JButton("Clear");
+        stopButton = new JButton("Stop");
+        stopButton.setEnabled(false); // Enabled while a task of this panel is queued or running
+        saveResultsButton = new JButton("Save Results...");
+        saveResultsButton.setEnabled(false); // Enabled once a result is shown
         
         // Status label
         statusLabel = new JLabel("Not connected");
         statusLabel.setForeground(java.awt.Color.RED);
+        
+        // Running and queued background tasks of all views
+        tasksLabel = new JLabel();
     }
     
     private void layoutComponents() {
@@ -132,9 +210,15 @@ public class Neo4jQueryPanel extends JPanel {
         gbc.gridx = 2;
         gbc.fill = GridBagConstraints.NONE;
         gbc.weightx = 0.0;
-        queryHeaderPanel.add(connectButton, gbc);
+        queryHeaderPanel.add(new JLabel("Connection:"), gbc);
         
         gbc.gridx = 3;
+        queryHeaderPanel.add(connectionComboBox, gbc);
+        
+        gbc.gridx = 4;
+        queryHeaderPanel.add(connectButton, gbc);
+        
+        gbc.gridx = 5;
         queryHeaderPanel.add(statusLabel, gbc);
         
         centerPanel.add(queryHeaderPanel, BorderLayout.NORTH);
@@ -148,6 +232,9 @@ public class Neo4jQueryPanel extends JPanel {
         
         // Bottom panel - action buttons
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        bottomPanel.add(tasksLabel);
+        bottomPanel.add(stopButton);
+        bottomPanel.add(saveResultsButton);
         bottomPanel.add(clearButton);
         bottomPanel.add(executeButton);
         
@@ -224,20 +311,25 @@ public class Neo4jQueryPanel extends JPanel {
     }
     
     private void loadSettings() {
-        neo4jUriField.setText(Neo4jPreferences.getNeo4jUri());
-        neo4jUsernameField.setText(Neo4jPreferences.getNeo4jUsername());
-        neo4jPasswordField.setText(Neo4jPreferences.getNeo4jPassword());
-        neo4jDatabaseField.setText(Neo4jPreferences.getNeo4jDatabase());
+        Neo4jPreferences.NamedConnection connection = Neo4jPreferences.getConnection(selectedConnectionName());
+        neo4jUriField.setText(connection.uri);
+        neo4jUsernameField.setText(connection.username);
+        neo4jPasswordField.setText(connection.password);
+        neo4jDatabaseField.setText(connection.database);
         llmBaseUrlField.setText(Neo4jPreferences.getLlmBaseUrl());
         llmApiKeyField.setText(Neo4jPreferences.getLlmApiKey());
         llmModelField.setText(Neo4jPreferences.getLlmModel());
     }
     
     private void saveSettings() {
-        Neo4jPreferences.setNeo4jUri(neo4jUriField.getText().trim());
-        Neo4jPreferences.setNeo4jUsername(neo4jUsernameField.getText().trim());
-        Neo4jPreferences.setNeo4jPassword(new String(neo4jPasswordField.getPassword()));
-        Neo4jPreferences.setNeo4jDatabase(neo4jDatabaseField.getText().trim());
+        // The connection fields belong to the connection selected for the view
+        Neo4jPreferences.NamedConnection connection = new Neo4jPreferences.NamedConnection();
+        connection.name = selectedConnectionName();
+        connection.uri = neo4jUriField.getText().trim();
+        connection.username = neo4jUsernameField.getText().trim();
+        connection.password = new String(neo4jPasswordField.getPassword());
+        connection.database = neo4jDatabaseField.getText().trim();
+        Neo4jPreferences.saveConnection(connection);
         Neo4jPreferences.setLlmBaseUrl(llmBaseUrlField.getText().trim());
         Neo4jPreferences.setLlmApiKey(new String(llmApiKeyField.getPassword()));
         Neo4jPreferences.setLlmModel(llmModelField.getText().trim());
@@ -257,7 +349,34 @@ public class Neo4jQueryPanel extends JPanel {
         connectButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                handleConnect();
+                if (neo4jService != null && neo4jService.isConnected()) {
+                    handleDisconnect();
+                } else {
+                    handleConnect(true);
+                }
+            }
+        });
+        
+        connectionComboBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                handleConnectionSelected();
+            }
+        });
+        
+        // Pick up connections saved in the preferences since the view was opened
+        connectionComboBox.addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+                refreshConnectionNames();
+            }
+            
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+            }
+            
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {
             }
         });
         
@@ -268,6 +387,27 @@ public class Neo4jQueryPanel extends JPanel {
             }
         });
         
+        stopButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (isSyncRunning()) {
+                    stopSync();
+                    return;
+                }
+                cancelFlags.forEach(flag -> flag.set(true));
+                cancelTasks();
+                terminateServerTransactions();
+                statusLabel.setText("Stopping...");
+            }
+        });
+        
+        saveResultsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                handleSaveResults();
+            }
+        });
+        
         clearButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -288,21 +428,48 @@ public class Neo4jQueryPanel extends JPanel {
         if (type != null && queryInputArea.getText().trim().isEmpty()) {
             switch (type) {
                 case NATURAL_LANGUAGE_QUERY:
+                case NATURAL_LANGUAGE_BEST_PLAN:
                     queryInputArea.setText("// Example: Find all nodes related to fraud detection");
                     break;
                 case DIRECT_CYPHER_QUERY:
                     queryInputArea.setText("// Example: MATCH (n) RETURN n LIMIT 10");
                     break;
+                case PROFILE_QUERY:
+                    queryInputArea.setText("// Example: MATCH (p:Person)-[:KNOWS]->(f) RETURN count(f)\n"
+                        + "// Runs under PROFILE; start the query with EXPLAIN to plan it without running it");
+                    break;
                 case EXPORT_TO_NEO4J:
                     queryInputArea.setText("// Click Execute to export current ontology to Neo4j");
                     break;
+                case BATCH_NL_QUERIES:
+                    queryInputArea.setText("// Click Execute to choose a questions file (one question per line)");
+                    break;
+                case SYNC_FROM_NEO4J:
+                    queryInputArea.setText("// Click Execute to start or stop polling for changes; optional filters:\n"
+                        + "// labels: Person, Movie\n"
+                        + "// relationships: ACTED_IN, DIRECTED");
+                    break;
+                case IMPORT_FROM_NEO4J:
+                    queryInputArea.setText("// Click Execute to import the whole graph, or restrict it with:\n"
+                        + "// labels: Person, Movie\n"
+                        + "// relationships: ACTED_IN, DIRECTED");
+                    break;
             }
         }
     }
     
-    private void handleConnect() {
+    /**
+     * Connects the view to the selected connection. The connection is acquired from the
+     * {@link Neo4jConnectionRegistry}, so views connected to the same URI, user and database
+     * share one driver and only the first of them waits for the connectivity check.
+     * 
+     * @param showDialog false to only update the status, e.g. when switching connections
+     */
+    private void handleConnect(boolean showDialog) {
+        String name = selectedConnectionName();
+        Neo4jPreferences.NamedConnection settings = Neo4jPreferences.getConnection(name);
         // Check if Neo4j is configured
-        if (!Neo4jPreferences.isNeo4jConfigured()) {
+        if (!settings.isConfigured()) {
             dialogManager.showErrorMessageDialog(this, 
                 "Neo4j connection not configured.\n\n" +
                 "Please configure your Neo4j connection in:\n" +
@@ -311,37 +478,51 @@ public class Neo4jQueryPanel extends JPanel {
         }
         
         try {
-            // Create Neo4j service
-            String uri = Neo4jPreferences.getNeo4jUri();
-            String username = Neo4jPreferences.getNeo4jUsername();
-            String password = Neo4jPreferences.getNeo4jPassword();
-            String database = Neo4jPreferences.getNeo4jDatabase();
-            
-            neo4jService = new Neo4jService(uri, username, password, database);
+            // Replace an earlier lease on this connection, e.g. one whose settings changed
+            Neo4jConnectionRegistry registry = Neo4jConnectionRegistry.getInstance();
+            Neo4jService previous = connections.remove(name);
+            if (previous != null) {
+                // The sync cannot move to the new lease; tasks on the old one may finish first
+                stopSyncUsing(previous);
+                releaseWhenIdle(previous);
+            }
+            String uri = settings.uri;
+            registry.configure(Neo4jPreferences.getWarmConnections(), Neo4jPreferences.getHealthCheckSeconds());
+            neo4jService = registry.acquire(uri, settings.username, settings.password, settings.database,
+                (healthy, message) -> SwingUtilities.invokeLater(() -> showHealth(name, healthy, message)));
+            connections.put(name, neo4jService);
+            // Connecting again is the way to pick up schema changes before the cached summary expires
+            NlpQueryService.clearGraphSchema(neo4jService);
             
-            // Test connection
+            // Connect and pre-warm the pool without holding a thread; views sharing the
+            // connection get the same future, or a completed one once it is connected
             statusLabel.setText("Connecting...");
             statusLabel.setForeground(java.awt.Color.ORANGE);
             
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    if (neo4jService.testConnection()) {
-                        statusLabel.setText("Connected to " + uri);
-                        statusLabel.setForeground(java.awt.Color.GREEN);
-                        executeButton.setEnabled(true);
-                        connectButton.setText("Disconnect");
-                        
-                        dialogManager.showMessageDialog(this, "Successfully connected to Neo4j!");
+            Neo4jService service = neo4jService;
+            long started = System.currentTimeMillis();
+            service.connectAsync(registry.getWarmConnections()).whenComplete((ignored, error) ->
+                SwingUtilities.invokeLater(() -> {
+                    if (neo4jService != service) {
+                        return; // Another connection was selected meanwhile
+                    }
+                    if (error == null) {
+                        System.out.println("Connected to " + uri + " in "
+                            + (System.currentTimeMillis() - started) + " ms");
+                        showConnected(uri);
+                        if (showDialog) {
+                            dialogManager.showMessageDialog(this, "Successfully connected to Neo4j!");
+                        }
                     } else {
-                        throw new Exception("Connection test failed");
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                        statusLabel.setText("Connection failed");
+                        statusLabel.setForeground(java.awt.Color.RED);
+                        dialogManager.showErrorMessageDialog(this, 
+                            "Failed to connect to Neo4j:\n" + cause.getMessage());
                     }
-                } catch (Exception ex) {
-                    statusLabel.setText("Connection failed");
-                    statusLabel.setForeground(java.awt.Color.RED);
-                    dialogManager.showErrorMessageDialog(this, 
-                        "Failed to connect to Neo4j:\n" + ex.getMessage());
-                }
-            });
+                }));
             
         } catch (Exception ex) {
             statusLabel.setText("Connection failed");
@@ -351,6 +532,154 @@ public class Neo4jQueryPanel extends JPanel {
         }
     }
     
+    /**
+     * Releases the selected connection. The shared driver is closed once no other view
+     * uses it. Tasks of this view still working on the connection are stopped first, after
+     * asking, and the lease is only released once they have.
+     */
+    private void handleDisconnect() {
+        String name = selectedConnectionName();
+        Neo4jService lease = connections.get(name);
+        if (lease != null) {
+            List<PanelTask> running = tasksUsing(lease);
+            boolean syncing = isSyncUsing(lease);
+            if (syncing) {
+                running.remove(syncTask);
+            }
+            if (!running.isEmpty() || syncing) {
+                String users = running.isEmpty()
+                    ? "The sync from Neo4j is"
+                    : running.size() + (running.size() == 1 ? " task is" : " tasks are")
+                        + (syncing ? ", like the sync from Neo4j," : "");
+                int confirm = dialogManager.showConfirmDialog(this, "Confirm Disconnect",
+                    users + " still using this connection.\n\nStop and disconnect?");
+                if (confirm != javax.swing.JOptionPane.YES_OPTION) {
+                    return;
+                }
+                for (PanelTask task : running) {
+                    task.cancel();
+                }
+                // Submitted after the cancels, so the release below also waits for it
+                terminateServerTransactions();
+            }
+            connections.remove(name);
+            stopSyncUsing(lease);
+            releaseWhenIdle(lease);
+        }
+        neo4jService = null;
+        showDisconnected();
+    }
+    
+    /**
+     * Releases a lease once the tasks of this panel started on it, sync polls included, have
+     * stopped, so none of them loses its driver halfway. Closing the driver waits for its
+     * connections, so the release runs as a scheduled task, never on the EDT. It is not one
+     * of this panel's tasks: Stop and dispose must not cancel it.
+     */
+    private void releaseWhenIdle(Neo4jService lease) {
+        List<PanelTask> running = tasksUsing(lease);
+        CompletableFuture<?>[] stopped = new CompletableFuture<?>[running.size()];
+        for (int i = 0; i < stopped.length; i++) {
+            stopped[i] = running.get(i).stopped;
+        }
+        Runnable release = () -> Neo4jConnectionRegistry.getInstance().release(lease);
+        CompletableFuture.allOf(stopped).thenRun(() -> {
+            try {
+                Neo4jTaskScheduler.getInstance().submit(Neo4jTaskScheduler.Kind.CONNECT,
+                    "Disconnect from " + lease.getUri(), release);
+            } catch (RejectedExecutionException ex) {
+                // Too many connects are queued; still release off the EDT rather than leak the driver
+                CompletableFuture.runAsync(release);
+            }
+        });
+    }
+    
+    /**
+     * Switches the view to the connection picked in the selector. A connection the view
+     * already holds is reused without reconnecting; otherwise the view connects to it if it
+     * was connected before.
+     */
+    private void handleConnectionSelected() {
+        String name = selectedConnectionName();
+        loadSettings();
+        boolean wasConnected = neo4jService != null && neo4jService.isConnected();
+        Neo4jPreferences.NamedConnection settings = Neo4jPreferences.getConnection(name);
+        Neo4jService lease = connections.get(name);
+        if (lease != null && lease.isConnected() && Neo4jConnectionRegistry.getInstance()
+                .isCurrent(lease, settings.uri, settings.username, settings.password, settings.database)) {
+            neo4jService = lease;
+            showConnected(settings.uri);
+        } else if (wasConnected) {
+            handleConnect(false);
+        } else {
+            neo4jService = null;
+            showDisconnected();
+        }
+    }
+    
+    private void showConnected(String uri) {
+        statusLabel.setText("Connected to " + uri);
+        statusLabel.setForeground(java.awt.Color.GREEN);
+        executeButton.setEnabled(true);
+        connectButton.setText("Disconnect");
+    }
+    
+    /**
+     * Shows the state reported by the health monitor of a connection, if it is the selected one.
+     */
+    private void showHealth(String name, boolean healthy, String message) {
+        if (neo4jService == null || !name.equals(selectedConnectionName())) {
+            return;
+        }
+        statusLabel.setText(message);
+        statusLabel.setForeground(healthy ? java.awt.Color.GREEN : java.awt.Color.ORANGE);
+    }
+    
+    private void showDisconnected() {
+        statusLabel.setText("Not connected");
+        statusLabel.setForeground(java.awt.Color.RED);
+        executeButton.setEnabled(false);
+        connectButton.setText("Connect to Neo4j");
+    }
+    
+    private String selectedConnectionName() {
+        Object selected = connectionComboBox.getSelectedItem();
+        return selected != null ? selected.toString() : Neo4jPreferences.DEFAULT_CONNECTION_NAME;
+    }
+    
+    /**
+     * Reloads the connection names from the preferences, keeping the selection.
+     */
+    private void refreshConnectionNames() {
+        String selected = selectedConnectionName();
+        List<String> names = Neo4jPreferences.getConnectionNames();
+        if (names.size() == connectionComboBox.getItemCount()) {
+            boolean same = true;
+            for (int i = 0; i < names.size() && same; i++) {
+                same = names.get(i).equals(connectionComboBox.getItemAt(i));
+            }
+            if (same) {
+                return;
+            }
+        }
+        // Replacing the items must not switch connections
+        ActionListener[] listeners = connectionComboBox.getActionListeners();
+        for (ActionListener listener : listeners) {
+            connectionComboBox.removeActionListener(listener);
+        }
+        connectionComboBox.removeAllItems();
+        for (String name : names) {
+            connectionComboBox.addItem(name);
+        }
+        connectionComboBox.setSelectedItem(names.contains(selected) ? selected : names.get(0));
+        for (ActionListener listener : listeners) {
+            connectionComboBox.addActionListener(listener);
+        }
+        if (!names.contains(selected)) {
+            handleConnectionSelected();
+        }
+    }
+    
     private void handleExecuteQuery() {
         if (neo4jService == null || !neo4jService.isConnected()) {
             dialogManager.showErrorMessageDialog(this, "Not connected to Neo4j. Please connect first.");
@@ -365,19 +694,48 @@ public class Neo4jQueryPanel extends JPanel {
             return;
         }
         
+        // Handle batch mode
+        if (operationType == Neo4jOperationType.BATCH_NL_QUERIES) {
+            handleBatchQueries();
+            return;
+        }
+        
+        // Handle whole-graph import
+        if (operationType == Neo4jOperationType.IMPORT_FROM_NEO4J) {
+            handleImportFromNeo4j();
+            return;
+        }
+        
+        // Handle change polling (Execute toggles it)
+        if (operationType == Neo4jOperationType.SYNC_FROM_NEO4J) {
+            if (isSyncRunning()) {
+                stopSync();
+            } else {
+                startSync();
+            }
+            return;
+        }
+        
         String query = queryInputArea.getText().trim();
         if (query.isEmpty() || query.startsWith("//")) {
             dialogManager.showErrorMessageDialog(this, "Please enter a query.");
             return;
         }
         
+        if (operationType == Neo4jOperationType.PROFILE_QUERY) {
+            handleProfileQuery(query);
+            return;
+        }
+        
+        // Read the connection here on the EDT; the task must not touch the neo4jService field
+        Neo4jService service = serviceFor(operationType);
+        
         // Execute in background thread
-        new Thread(() -> {
+        submitTask(Neo4jTaskScheduler.Kind.QUERY, operationType + ": " + abbreviate(query), () -> {
             try {
-                String cypherQuery = query;
-                
                 // Translate natural language to Cypher if needed
-                if (operationType == Neo4jOperationType.NATURAL_LANGUAGE_QUERY) {
+                if (operationType == Neo4jOperationType.NATURAL_LANGUAGE_QUERY
+                        || operationType == Neo4jOperationType.NATURAL_LANGUAGE_BEST_PLAN) {
                     if (!Neo4jPreferences.isLlmConfigured()) {
                         SwingUtilities.invokeLater(() -> {
                             dialogManager.showErrorMessageDialog(Neo4jQueryPanel.this,
@@ -389,40 +747,539 @@ public class Neo4jQueryPanel extends JPanel {
                     }
                     
                     // Get graph schema
-                    String schema = NlpQueryService.getGraphSchema(neo4jService);
+                    String schema = NlpQueryService.getGraphSchema(service);
                     
-                    // Translate to Cypher
-                    NlpQueryService nlpService = new NlpQueryService(
-                        Neo4jPreferences.getLlmApiKey(),
-                        Neo4jPreferences.getLlmModel(),
-                        Neo4jPreferences.getLlmBaseUrl()
-                    );
+                    if (operationType == Neo4jOperationType.NATURAL_LANGUAGE_BEST_PLAN) {
+                        translateAndPickCheapest(service, query, schema);
+                        return;
+                    }
                     
-                    cypherQuery = nlpService.translateToCypher(query, schema);
+                    // Translate to Cypher and check the plan within this task, then confirm on the EDT
+                    String translatedQuery = await(getNlpQueryService().translateToCypherAsync(query, schema));
+                    QueryPlanAnalysis analysis = Neo4jPreferences.isCostGuardEnabled()
+                        ? QueryPlanAnalysis.explain(service, translatedQuery, Neo4jPreferences.getCostGuardThresholds())
+                        : null;
                     
-                    // Show translated query
-                    final String translatedQuery = cypherQuery;
-                    SwingUtilities.invokeLater(() -> {
-                        int confirm = dialogManager.showConfirmDialog(Neo4jQueryPanel.this,
-                            "Confirm Query",
-                            "Translated Cypher query:\n\n" + translatedQuery + "\n\nExecute this query?");
-                        
-                        if (confirm == javax.swing.JOptionPane.YES_OPTION) {
-                            executeQueryInternal(translatedQuery);
-                        }
-                    });
+                    SwingUtilities.invokeLater(() -> confirmAndExecute(translatedQuery, analysis));
                     return;
                 }
                 
-                executeQueryInternal(cypherQuery);
+                executeQueryInternal(service, query, operationType);
                 
             } catch (Exception ex) {
+                if (PanelTask.currentCancelFlag().get()) {
+                    SwingUtilities.invokeLater(() -> statusLabel.setText("Query stopped"));
+                    return;
+                }
                 SwingUtilities.invokeLater(() -> {
                     dialogManager.showErrorMessageDialog(Neo4jQueryPanel.this,
                         "Query execution failed:\n" + ex.getMessage());
                 });
             }
-        }).start();
+        });
+    }
+    
+    /**
+     * Waits within a task for an asynchronous LLM call. Stop interrupts the task, which
+     * cancels the call; a failed call is rethrown as the exception it failed with.
+     */
+    private static <T> T await(CompletableFuture<T> call) throws Exception {
+        try {
+            return call.get();
+        } catch (InterruptedException ex) {
+            call.cancel(true);
+            throw ex;
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+        }
+    }
+    
+    /**
+     * Returns the NLP service for the current LLM settings, reusing the previous instance
+     * (and with it the pooled HTTP connections and latency statistics) while the settings
+     * are unchanged.
+     */
+    private synchronized NlpQueryService getNlpQueryService() {
+        String apiKey = Neo4jPreferences.getLlmApiKey();
+        String model = Neo4jPreferences.getLlmModel();
+        String baseUrl = Neo4jPreferences.getLlmBaseUrl();
+        String fallbackEndpoints = Neo4jPreferences.getLlmFallbackEndpoints();
+        int connectTimeout = Neo4jPreferences.getLlmConnectTimeoutSeconds();
+        int readTimeout = Neo4jPreferences.getLlmReadTimeoutSeconds();
+        int hedgeDelay = Neo4jPreferences.getLlmHedgeDelayMillis();
+        int maxRetries = Neo4jPreferences.getLlmMaxRetries();
+        
+        String key = String.join("|", apiKey, model, baseUrl, fallbackEndpoints,
+            String.valueOf(connectTimeout), String.valueOf(readTimeout),
+            String.valueOf(hedgeDelay), String.valueOf(maxRetries));
+        if (nlpQueryService == null || !key.equals(nlpQueryServiceKey)) {
+            Duration connect = Duration.ofSeconds(connectTimeout);
+            Duration read = Duration.ofSeconds(readTimeout);
+            
+            List<LlmEndpoint> endpoints = new ArrayList<>();
+            endpoints.add(new LlmEndpoint(baseUrl, model, apiKey, connect, read));
+            endpoints.addAll(LlmEndpoint.parseList(fallbackEndpoints, model, apiKey, connect, read));
+            
+            nlpQueryService = new NlpQueryService(endpoints, Duration.ofMillis(hedgeDelay), maxRetries);
+            nlpQueryServiceKey = key;
+        }
+        return nlpQueryService;
+    }
+    
+    /**
+     * Requests several candidate translations, ranks them by EXPLAIN cost and lets the user
+     * pick one, with the cheapest valid candidate preselected. Runs within the query task, so
+     * Stop cancels it and the candidate EXPLAINs carry the mode's timeout and metadata.
+     *
+     * @param service The connection for the best-plan mode, from {@link #serviceFor}
+     */
+    private void translateAndPickCheapest(Neo4jService service, String query, String schema) throws Exception {
+        List<String> candidates = await(getNlpQueryService()
+            .translateToCypherCandidatesAsync(query, schema, Neo4jPreferences.getLlmCandidateCount()));
+        List<QueryPlanAnalysis.RankedCandidate> ranked = QueryPlanAnalysis.rankCandidates(
+            service, candidates, Neo4jPreferences.getCostGuardThresholds());
+        SwingUtilities.invokeLater(() -> chooseCandidate(ranked));
+    }
+    
+    private void chooseCandidate(List<QueryPlanAnalysis.RankedCandidate> ranked) {
+        StringBuilder message = new StringBuilder();
+        message.append(ranked.size()).append(" candidate translation(s), cheapest plan first:\n\n");
+        for (QueryPlanAnalysis.RankedCandidate candidate : ranked) {
+            message.append(candidate).append(":\n  ").append(candidate.query).append("\n");
+            for (String finding : candidate.analysis.getFindings()) {
+                message.append("    - ").append(finding).append("\n");
+            }
+        }
+        QueryPlanAnalysis.RankedCandidate best = ranked.get(0);
+        if (best.analysis.isPlanAvailable()) {
+            message.append("\nEstimated plan of ").append(best).append(":\n")
+                .append(best.analysis.getPlanSummary());
+        }
+        message.append("\nExecute which candidate?");
+        
+        Object selected = dialogManager.showSelectionDialog(this, "Choose Query",
+            message.toString(), ranked.toArray(), best);
+        if (selected == null) {
+            return;
+        }
+        
+        QueryPlanAnalysis.RankedCandidate chosen = (QueryPlanAnalysis.RankedCandidate) selected;
+        if (chosen.analysis.getVerdict() == QueryPlanAnalysis.Verdict.BLOCK) {
+            dialogManager.showErrorMessageDialog(this,
+                "Selected query was blocked by the cost guard:\n\n" + chosen.query + "\n\n" + chosen.analysis);
+            return;
+        }
+        submitQuery(chosen.query, Neo4jOperationType.NATURAL_LANGUAGE_BEST_PLAN);
+    }
+    
+    /**
+     * Shows the translated query and its plan check, then executes it if the user agrees.
+     * Queries whose plan exceeds the blocking thresholds are not offered for execution.
+     */
+    private void confirmAndExecute(String translatedQuery, QueryPlanAnalysis analysis) {
+        String planText = analysis != null ? "\n\n" + analysis.toString() : "";
+        
+        if (analysis != null && analysis.getVerdict() == QueryPlanAnalysis.Verdict.BLOCK) {
+            dialogManager.showErrorMessageDialog(this,
+                "Translated Cypher query was blocked by the cost guard:\n\n" + translatedQuery + planText);
+            return;
+        }
+        
+        String title = analysis != null && analysis.getVerdict() == QueryPlanAnalysis.Verdict.WARN
+            ? "Confirm Query (plan warning)"
+            : "Confirm Query";
+        int confirm = dialogManager.showConfirmDialog(this, title,
+            "Translated Cypher query:\n\n" + translatedQuery + planText + "\n\nExecute this query?");
+        
+        if (confirm == javax.swing.JOptionPane.YES_OPTION) {
+            submitQuery(translatedQuery, Neo4jOperationType.NATURAL_LANGUAGE_QUERY);
+        }
+    }
+    
+    private void handleBatchQueries() {
+        if (!Neo4jPreferences.isLlmConfigured()) {
+            dialogManager.showErrorMessageDialog(this,
+                "LLM not configured.\n\n" +
+                "Please configure your LLM API in:\n" +
+                "Preferences → Neo4j Integration");
+            return;
+        }
+        
+        File questionsFile = dialogManager.showOpenFileChooser(this,
+            "Select Questions File", "txt", "Question files (one per line)");
+        if (questionsFile == null) {
+            return;
+        }
+        File reportFile = dialogManager.showSaveFileChooser(this,
+            "Save Batch Report", "csv", "CSV report");
+        if (reportFile == null) {
+            return;
+        }
+        
+        // Execute batch in background thread
+        submitTask(Neo4jTaskScheduler.Kind.QUERY, "Batch: " + questionsFile.getName(), () -> {
+            try {
+                List<String> questions = BatchQueryRunner.readQuestions(questionsFile.toPath());
+                int total = questions.size();
+                
+                SwingUtilities.invokeLater(() -> {
+                    statusLabel.setText("Batch: 0/" + total);
+                    statusLabel.setForeground(java.awt.Color.ORANGE);
+                });
+                
+                BatchQueryRunner runner = new BatchQueryRunner(getNlpQueryService(),
+                    serviceFor(Neo4jOperationType.BATCH_NL_QUERIES),
+                    Neo4jPreferences.getBatchConcurrency(),
+                    Duration.ofSeconds(Neo4jPreferences.getBatchTimeoutSeconds()));
+                
+                List<BatchQueryRunner.BatchResult> results = runner.run(questions,
+                    done -> SwingUtilities.invokeLater(() -> statusLabel.setText("Batch: " + done + "/" + total)));
+                BatchQueryRunner.writeReport(reportFile.toPath(), results);
+                
+                SwingUtilities.invokeLater(() -> {
+                    statusLabel.setText("Batch completed");
+                    statusLabel.setForeground(java.awt.Color.GREEN);
+                    dialogManager.showMessageDialog(this,
+                        BatchQueryRunner.summarize(results) + "\n\nReport written to:\n" + reportFile);
+                });
+                
+            } catch (Exception ex) {
+                ex.printStackTrace();
+                SwingUtilities.invokeLater(() -> {
+                    statusLabel.setText("Batch failed");
+                    statusLabel.setForeground(java.awt.Color.RED);
+                    dialogManager.showErrorMessageDialog(Neo4jQueryPanel.this,
+                        "Batch run failed:\n" + ex.getMessage());
+                });
+            }
+        });
+    }
+    
+    /**
+     * Runs the query under PROFILE, or only plans it if it starts with EXPLAIN, and shows the
+     * operator tree in the Results tab. The records are discarded, not imported. Since PROFILE
+     * executes the query, the user is asked first unless EXPLAIN reports it as read-only.
+     */
+    private void handleProfileQuery(String query) {
+        String uncommented = LEADING_COMMENTS.matcher(query).replaceFirst("");
+        Matcher prefix = PLAN_PREFIX.matcher(uncommented);
+        boolean hasPrefix = prefix.lookingAt();
+        boolean explainOnly = hasPrefix && prefix.group(1).equalsIgnoreCase("EXPLAIN");
+        String cypherQuery = hasPrefix ? uncommented.substring(prefix.end()).trim() : query;
+        
+        Neo4jService service = serviceFor(Neo4jOperationType.PROFILE_QUERY);
+        statusLabel.setText(explainOnly ? "Explaining query..." : "Profiling query...");
+        statusLabel.setForeground(java.awt.Color.ORANGE);
+        
+        String name = (explainOnly ? "Explain: " : "Profile: ") + abbreviate(cypherQuery);
+        submitTask(Neo4jTaskScheduler.Kind.QUERY, name, () -> {
+            try {
+                // EXPLAIN first: its query type tells whether PROFILE, which runs the query, would write
+                ResultSummary explained = service.explainSummary(cypherQuery, Map.of());
+                if (explainOnly) {
+                    showPlan(query, explained.hasPlan() ? explained.plan() : null, null, true);
+                } else if (explained.queryType() == QueryType.READ_ONLY) {
+                    profile(service, query, cypherQuery);
+                } else {
+                    QueryType queryType = explained.queryType();
+                    SwingUtilities.invokeLater(() -> confirmProfile(service, query, cypherQuery, queryType));
+                }
+            } catch (Exception ex) {
+                showPlanFailure(explainOnly, ex);
+            }
+        });
+    }
+    
+    /**
+     * Asks before profiling a query that writes to the graph. Must be called on the EDT.
+     */
+    private void confirmProfile(Neo4jService service, String query, String cypherQuery, QueryType queryType) {
+        int confirm = dialogManager.showConfirmDialog(this, "Confirm Profile",
+            "PROFILE executes the query, and the planner reports it as " + queryType + ".\n\n"
+            + "Profile it anyway? (Start the query with EXPLAIN to see the plan without running it.)");
+        if (confirm != javax.swing.JOptionPane.YES_OPTION) {
+            statusLabel.setText("Profile cancelled");
+            statusLabel.setForeground(java.awt.Color.GREEN);
+            return;
+        }
+        submitTask(Neo4jTaskScheduler.Kind.QUERY, "Profile: " + abbreviate(cypherQuery), () -> {
+            try {
+                profile(service, query, cypherQuery);
+            } catch (Exception ex) {
+                showPlanFailure(false, ex);
+            }
+        });
+    }
+    
+    private void profile(Neo4jService service, String query, String cypherQuery) throws Exception {
+        ResultSummary summary = service.profile(cypherQuery, Map.of());
+        String timing = String.format("first record after %d ms, all consumed after %d ms",
+            summary.resultAvailableAfter(TimeUnit.MILLISECONDS),
+            summary.resultConsumedAfter(TimeUnit.MILLISECONDS));
+        showPlan(query, summary.hasProfile() ? summary.profile() : null, timing, false);
+    }
+    
+    private void showPlan(String query, Plan plan, String timing, boolean explainOnly) throws Exception {
+        if (plan == null) {
+            throw new Exception("The server did not return a plan.");
+        }
+        SwingUtilities.invokeLater(() -> {
+            statusLabel.setText(explainOnly ? "Explain completed" : "Profile completed");
+            statusLabel.setForeground(java.awt.Color.GREEN);
+            if (resultsPanel != null) {
+                resultsPanel.displayPlan(query, plan, timing);
+            }
+        });
+    }
+    
+    private void showPlanFailure(boolean explainOnly, Exception ex) {
+        SwingUtilities.invokeLater(() -> {
+            statusLabel.setText(explainOnly ? "Explain failed" : "Profile failed");
+            statusLabel.setForeground(java.awt.Color.RED);
+            dialogManager.showErrorMessageDialog(Neo4jQueryPanel.this,
+                "Query profiling failed:\n" + ex.getMessage());
+        });
+    }
+    
+    /**
+     * Imports all nodes and relationships matching the filter in the query area, reading
+     * id-range pages over parallel sessions.
+     */
+    private void handleImportFromNeo4j() {
+        GraphImportReader.Filter filter;
+        try {
+            filter = GraphImportReader.Filter.parse(queryInputArea.getText());
+        } catch (IllegalArgumentException ex) {
+            dialogManager.showErrorMessageDialog(this, ex.getMessage());
+            return;
+        }
+        
+        int confirm = dialogManager.showConfirmDialog(this, "Confirm Import",
+            "Import " + filter + " from Neo4j into the active ontology?");
+        if (confirm != javax.swing.JOptionPane.YES_OPTION) {
+            return;
+        }
+        
+        GraphImportReader reader = new GraphImportReader(serviceFor(Neo4jOperationType.IMPORT_FROM_NEO4J), filter,
+            Neo4jPreferences.getImportPageSize(), Neo4jPreferences.getImportParallelism());
+        String description = "Import from Neo4j: " + filter;
+        submitTask(Neo4jTaskScheduler.Kind.IMPORT, description, () -> importRecords(description, handler ->
+            reader.read(handler, (phase, done, pageCount, records) -> SwingUtilities.invokeLater(() ->
+                statusLabel.setText(phase + ": page " + done + " of " + pageCount + ", " + records + " records")))
+        ));
+    }
+    
+    /**
+     * Starts polling Neo4j for nodes and relationships whose watermark property changed since
+     * the previous poll. Changes are applied directly to the active ontology (no staging), with
+     * the import index skipping elements whose content did not change. Each poll is an IMPORT
+     * task of the scheduler; a timer on the EDT submits the next one once the previous one has
+     * stopped, so polls never overlap. Must be called on the EDT.
+     */
+    private void startSync() {
+        GraphImportReader.Filter filter;
+        try {
+            filter = GraphImportReader.Filter.parse(queryInputArea.getText());
+        } catch (IllegalArgumentException ex) {
+            dialogManager.showErrorMessageDialog(this, ex.getMessage());
+            return;
+        }
+        
+        OWLModelManager modelManager = editorKit.getOWLModelManager();
+        OWLOntology activeOntology = modelManager.getActiveOntology();
+        OwlImportService importService = new OwlImportService(activeOntology, modelManager.getOWLDataFactory());
+        // The sync commits per chunk; its own view keeps that from committing other imports' entries
+        ImportIndex index = getImportIndex(activeOntology).newImport();
+        importService.setImportIndex(index);
+        GraphSyncPoller poller = new GraphSyncPoller(serviceFor(Neo4jOperationType.SYNC_FROM_NEO4J), filter,
+            Neo4jPreferences.getSyncWatermarkProperty(), Neo4jPreferences.getImportChunkSize());
+        int interval = Neo4jPreferences.getSyncIntervalSeconds();
+        
+        Timer timer = new Timer(interval * 1000, null);
+        timer.setRepeats(false);
+        timer.addActionListener(e -> submitSyncStep(timer, "Sync from Neo4j: " + filter,
+            () -> pollChanges(poller, importService, index)));
+        syncTimer = timer;
+        syncLease = neo4jService;
+        submitSyncStep(timer, "Sync from Neo4j: initialize watermark", () -> {
+            try {
+                poller.initializeWatermark();
+            } catch (Exception ex) {
+                if (!PanelTask.currentCancelFlag().get()) {
+                    // Without a watermark the first poll would import the whole graph
+                    System.err.println("Failed to initialize sync watermark: " + ex.getMessage());
+                    SwingUtilities.invokeLater(() -> abortSync(timer, ex));
+                }
+            }
+        });
+        
+        updateTaskStatus();
+        statusLabel.setText("Sync running on " + poller.getWatermarkProperty() + " (every " + interval + " s)");
+        statusLabel.setForeground(java.awt.Color.GREEN);
+        System.out.println("Started sync from Neo4j: " + filter + ", watermark " + poller.getWatermarkProperty());
+    }
+    
+    /**
+     * Submits one step of the sync with the given timer and starts the timer again once the
+     * step has stopped, unless the sync was stopped meanwhile. Must be called on the EDT.
+     */
+    private void submitSyncStep(Timer timer, String name, Runnable step) {
+        if (syncTimer != timer) {
+            return;
+        }
+        PanelTask task = submitTask(Neo4jTaskScheduler.Kind.IMPORT, name, syncLease, step);
+        if (task == null) {
+            stopSync();
+            return;
+        }
+        syncTask = task;
+        task.stopped.thenRun(() -> SwingUtilities.invokeLater(() -> {
+            if (syncTimer == timer) {
+                timer.restart();
+            }
+        }));
+    }
+    
+    /**
+     * Runs one poll and applies the changed elements chunk by chunk. Failures are reported in
+     * the status line and the next poll retries from the same watermark.
+     */
+    private void pollChanges(GraphSyncPoller poller, OwlImportService importService, ImportIndex index) {
+        OwlImportService.ImportSummary summary = new OwlImportService.ImportSummary();
+        AtomicBoolean cancelled = PanelTask.currentCancelFlag();
+        try {
+            long records = poller.poll(chunk -> {
+                applyImportChunk(importService, chunk, null, null, summary);
+                index.commit();
+                return !cancelled.get();
+            });
+            
+            String text = String.format("Sync at %tT: %d changed records, %d ontology changes (watermark %s)",
+                System.currentTimeMillis(), records, summary.changesApplied, poller.getWatermark());
+            System.out.println(text);
+            SwingUtilities.invokeLater(() -> {
+                statusLabel.setText(text);
+                statusLabel.setForeground(java.awt.Color.GREEN);
+            });
+        } catch (Exception ex) {
+            index.discard();
+            if (cancelled.get()) {
+                return;
+            }
+            System.err.println("Sync poll failed: " + ex.getMessage());
+            SwingUtilities.invokeLater(() -> {
+                statusLabel.setText("Sync poll failed: " + ex.getMessage());
+                statusLabel.setForeground(java.awt.Color.RED);
+            });
+        }
+    }
+    
+    /**
+     * Stops a sync that could not start, unless it was stopped or replaced meanwhile.
+     */
+    private void abortSync(Timer timer, Exception error) {
+        if (syncTimer != timer) {
+            return;
+        }
+        stopSync();
+        statusLabel.setText("Sync not started: " + error.getMessage());
+        statusLabel.setForeground(java.awt.Color.RED);
+        dialogManager.showErrorMessageDialog(this, "Could not start the sync from Neo4j:\n" + error.getMessage());
+    }
+    
+    private boolean isSyncRunning() {
+        return syncTimer != null;
+    }
+    
+    private boolean isSyncUsing(Neo4jService lease) {
+        return syncTimer != null && syncLease == lease;
+    }
+    
+    /**
+     * Stops the sync if it polls on the given lease. Its poll task stays among the tasks on
+     * the lease until it has stopped, so a release of the lease waits for it.
+     */
+    private void stopSyncUsing(Neo4jService lease) {
+        if (isSyncUsing(lease)) {
+            stopSync();
+        }
+    }
+    
+    /**
+     * Stops the timer of the sync and cancels its poll. Must be called on the EDT.
+     */
+    private void stopSync() {
+        if (syncTimer != null) {
+            syncTimer.stop();
+            syncTimer = null;
+            if (syncTask != null) {
+                syncTask.cancel();
+            }
+            syncTask = null;
+            syncLease = null;
+        }
+        updateTaskStatus();
+        statusLabel.setText("Sync stopped");
+        System.out.println("Stopped sync from Neo4j");
+    }
+    
+    /**
+     * Writes the rows of the Results tab into a CSV or NDJSON file, optionally gzip-compressed.
+     * The rows come from the result store, not from running the query again, so the file holds
+     * what the Results tab shows and write queries are not repeated.
+     */
+    private void handleSaveResults() {
+        ResultRows rows = resultsPanel != null ? resultsPanel.getFinishedRows() : null;
+        if (rows == null) {
+            dialogManager.showMessageDialog(this, "There are no finished results to save.\n"
+                + "Wait until all rows have been fetched, or run the query again.");
+            return;
+        }
+        
+        String[] options = {"CSV", "CSV (gzip)", "NDJSON", "NDJSON (gzip)"};
+        Object choice = dialogManager.showSelectionDialog(this, "Save Results",
+            "Save the " + rows.size() + " rows of the Results tab.\n\nFile format:", options, options[0]);
+        if (choice == null) {
+            return;
+        }
+        ResultFileExporter.Format format = choice.toString().startsWith("CSV")
+            ? ResultFileExporter.Format.CSV
+            : ResultFileExporter.Format.NDJSON;
+        boolean gzip = choice.toString().endsWith("(gzip)");
+        
+        File selected = dialogManager.showSaveFileChooser(this, "Save Results",
+            format.getExtension(), choice.toString());
+        if (selected == null) {
+            return;
+        }
+        File file = gzip && !selected.getName().endsWith(".gz")
+            ? new File(selected.getPath() + ".gz")
+            : selected;
+        
+        ResultFileExporter exporter = new ResultFileExporter(format, gzip, Neo4jPreferences.getImportChunkSize());
+        statusLabel.setText("Saving results...");
+        statusLabel.setForeground(java.awt.Color.ORANGE);
+        
+        submitTask(Neo4jTaskScheduler.Kind.SAVE, "Save results to " + file.getName(), null, () -> {
+            try {
+                ResultFileExporter.Summary summary = exporter.export(rows, file.toPath(), records ->
+                    SwingUtilities.invokeLater(() -> statusLabel.setText("Saved " + records + " records...")));
+                
+                SwingUtilities.invokeLater(() -> {
+                    statusLabel.setText("Results saved");
+                    statusLabel.setForeground(java.awt.Color.GREEN);
+                    dialogManager.showMessageDialog(this, "Saved " + summary + "\nto " + file);
+                });
+            } catch (Exception ex) {
+                // Also ends up here if a new result replaced the rows while they were saved
+                SwingUtilities.invokeLater(() -> {
+                    statusLabel.setText("Saving results failed");
+                    statusLabel.setForeground(java.awt.Color.RED);
+                    dialogManager.showErrorMessageDialog(Neo4jQueryPanel.this,
+                        "Saving results failed:\n" + ex.getMessage());
+                });
+            }
+        });
     }
     
     private void handleExportToNeo4j() {
@@ -441,8 +1298,8 @@ public class Neo4jQueryPanel extends JPanel {
             return;
         }
         
-        // Execute export in background thread
-        new Thread(() -> {
+        // Execute export in background thread; a second export waits for the first one
+        submitTask(Neo4jTaskScheduler.Kind.EXPORT, "Export to Neo4j", () -> {
             try {
                 SwingUtilities.invokeLater(() -> {
                     statusLabel.setText("Exporting ontology...");
@@ -450,7 +1307,8 @@ public class Neo4jQueryPanel extends JPanel {
                 });
                 
                 OWLOntology ontology = editorKit.getOWLModelManager().getActiveOntology();
-                OwlExportService exportService = new OwlExportService(neo4jService);
+                OwlExportService exportService = new OwlExportService(
+                    serviceFor(Neo4jOperationType.EXPORT_TO_NEO4J));
                 
                 // Export with optional reasoner
                 OwlExportService.ExportSummary summary = exportService.exportOntology(ontology, null);
@@ -472,116 +1330,540 @@ public class Neo4jQueryPanel extends JPanel {
                         "Export failed:\n" + ex.getMessage());
                 });
             }
-        }).start();
+        });
     }
     
-    private void executeQueryInternal(String cypherQuery) {
+    /**
+     * Streams the query results into the ontology chunk by chunk: each chunk is converted to
+     * OWL changes and applied before the next one is fetched, so memory use does not grow with
+     * the result size. The rows for the results view are kept in a store that spills to disk
+     * beyond the configured number of rows.
+     * 
+     * With staging enabled the chunks go into a private in-memory ontology instead, and the
+     * user reviews it before everything is merged into the active ontology in one step.
+     * 
+     * Direct Cypher queries have their literals replaced with parameters first if enabled in
+     * the preferences; the Results tab then shows the query that ran and its parameters.
+     * 
+     * @param connection The connection for the mode, from {@link #serviceFor} on the EDT
+     */
+    private void executeQueryInternal(Neo4jService connection, String cypherQuery, Neo4jOperationType mode) {
+        Neo4jService service = connection.withLiteralParameterization(
+            mode == Neo4jOperationType.DIRECT_CYPHER_QUERY && Neo4jPreferences.isParameterizeLiteralsEnabled());
+        CypherParameterizer.Parameterized prepared = service.prepareQuery(cypherQuery, Map.of());
+        if (prepared.liftedLiterals > 0) {
+            System.out.println("Replaced " + prepared.liftedLiterals + " literals with parameters: " + prepared);
+        }
+        importRecords(prepared.toString(), handler ->
+            service.streamQuery(prepared.query, prepared.parameters, Neo4jPreferences.getImportChunkSize(), handler));
+    }
+    
+    /**
+     * Imports records from the given source chunk by chunk, as described for
+     * {@link #executeQueryInternal(Neo4jService, String, Neo4jOperationType)}.
+     * 
+     * @param description Shown with the rows in the Results tab (the query or the import filter)
+     * @param source Delivers the records to a chunk handler and returns the number delivered
+     */
+    private void importRecords(String description, RecordSource source) {
+        importRecords(description, source, true);
+    }
+    
+    /**
+     * @param showResults false to leave the Results tab alone, e.g. when its rows are imported again
+     */
+    private void importRecords(String description, RecordSource source, boolean showResults) {
+        OWLModelManager modelManager = editorKit.getOWLModelManager();
+        OwlImportService.ImportSummary importSummary = new OwlImportService.ImportSummary();
+        Neo4jResultsPanel resultsPanel = showResults ? this.resultsPanel : null;
+        SpillableResultStore resultRows = resultsPanel != null
+            ? new SpillableResultStore(Neo4jPreferences.getResultHeapRows())
+            : null;
+        
+        // Count how often listeners are notified while our changes are applied
+        OWLOntologyChangeListener notificationCounter = changes -> importSummary.listenerNotifications++;
+        
+        // Each import records into its own view of the index, see ImportIndex#newImport
+        ImportIndex index = getImportIndex(modelManager.getActiveOntology()).newImport();
+        
+        // The task's own flag, so a cancelled task reports that it was stopped, not that it failed
+        AtomicBoolean cancelled = PanelTask.currentCancelFlag();
+        cancelFlags.add(cancelled);
+        SwingUtilities.invokeLater(() -> {
+            statusLabel.setText("Running query...");
+            statusLabel.setForeground(java.awt.Color.ORANGE);
+            if (resultsPanel != null) {
+                // Closes the store of an earlier query still running here; that query stops
+                // showing rows but carries on with its import
+                resultsPanel.beginResults(description, resultRows);
+                shownResultsCancel = cancelled;
+                saveResultsButton.setEnabled(true);
+            }
+        });
+        
+        modelManager.addOntologyChangeListener(notificationCounter);
         try {
-            var results = neo4jService.executeQuery(cypherQuery);
+            OWLOntology activeOntology = index.getOntology();
+            OWLOntology stagingOntology = Neo4jPreferences.isStagingImportEnabled()
+                ? OwlImportService.createStagingOntology()
+                : null;
+            OwlImportService importService = new OwlImportService(
+                stagingOntology != null ? stagingOntology : activeOntology,
+                modelManager.getOWLDataFactory(),
+                OwlImportService.baseIRIOf(activeOntology));
+            importService.setImportIndex(index);
+            
+            // Staged imports remove changed values from the active ontology only when merged
+            List<OWLOntologyChange> pendingRemovals = new ArrayList<>();
+            
+            long total = source.read(new Neo4jService.RecordChunkHandler() {
+                @Override
+                public void onKeys(List<String> keys) {
+                    // Keeps the query's column order, also for a result without rows
+                    if (resultsPanel != null) {
+                        resultRows.addColumns(keys);
+                    }
+                }
+                
+                @Override
+                public boolean onRecords(List<Record> records) throws InterruptedException {
+                    // Show the rows before importing them, so results appear as soon as they
+                    // arrive; the store reads the records without a map per row
+                    if (resultsPanel != null) {
+                        resultRows.addRecords(records);
+                        resultsPanel.resultsAdded();
+                    }
+                    List<Map<String, Object>> chunk = new ArrayList<>(records.size());
+                    for (Record record : records) {
+                        chunk.add(record.asMap());
+                    }
+                    return importChunk(chunk);
+                }
+                
+                @Override
+                public boolean onChunk(List<Map<String, Object>> chunk) throws InterruptedException {
+                    // Pages of a graph import and rows read back from a result store
+                    if (resultsPanel != null) {
+                        resultRows.addAll(chunk);
+                        resultsPanel.resultsAdded();
+                    }
+                    return importChunk(chunk);
+                }
+                
+                private boolean importChunk(List<Map<String, Object>> chunk) throws InterruptedException {
+                    applyImportChunk(importService, chunk, stagingOntology, pendingRemovals, importSummary);
+                    if (stagingOntology == null) {
+                        index.commit();
+                    }
+                    
+                    int processed = importSummary.recordsProcessed;
+                    String verb = stagingOntology != null ? "Staged " : "Imported ";
+                    SwingUtilities.invokeLater(() -> statusLabel.setText(verb + processed + " records..."));
+                    return !cancelled.get();
+                }
+            });
+            importSummary.cancelled = cancelled.get();
             
-            // Convert results to OWL and add to ontology
-            addResultsToOntology(results);
+            System.out.println((stagingOntology != null ? "Staged " : "Successfully imported ") + total
+                + " records to ontology");
+            System.out.println(importSummary);
+            String stagedText = stagingOntology != null ? OwlImportService.describeStaging(stagingOntology, 10) : null;
             
             SwingUtilities.invokeLater(() -> {
+                statusLabel.setText(importSummary.cancelled ? "Query stopped" : "Query completed");
+                statusLabel.setForeground(java.awt.Color.GREEN);
                 if (resultsPanel != null) {
-                    resultsPanel.displayResults(results, cypherQuery);
+                    resultsPanel.finishResults(resultRows, total);
+                }
+                if (stagingOntology != null) {
+                    confirmMerge(stagingOntology, stagedText, pendingRemovals, index, total + " records staged.");
+                } else {
+                    dialogManager.showMessageDialog(this, 
+                        "Query executed successfully. " + total + " records imported to ontology.\n\n"
+                        + importSummary);
                 }
-                dialogManager.showMessageDialog(this, 
-                    "Query executed successfully. " + results.size() + " records imported to ontology.");
             });
             
         } catch (Exception ex) {
+            index.discard();
+            // Stop interrupts the task, which makes the driver abort the running query
+            boolean stopped = cancelled.get();
             SwingUtilities.invokeLater(() -> {
-                dialogManager.showErrorMessageDialog(Neo4jQueryPanel.this,
-                    "Query execution failed:\n" + ex.getMessage());
+                statusLabel.setText(stopped ? "Query stopped" : "Query failed");
+                statusLabel.setForeground(stopped ? java.awt.Color.GREEN : java.awt.Color.RED);
+                if (resultsPanel != null) {
+                    resultsPanel.finishResults(resultRows, resultRows.size());
+                }
+                if (!stopped) {
+                    dialogManager.showErrorMessageDialog(Neo4jQueryPanel.this,
+                        "Query execution failed:\n" + ex.getMessage());
+                }
             });
+        } finally {
+            modelManager.removeOntologyChangeListener(notificationCounter);
+            cancelFlags.remove(cancelled);
+        }
+    }
+    
+    /**
+     * Something that delivers records in chunks, e.g. a streamed query or a paged graph read.
+     */
+    private interface RecordSource {
+        long read(Neo4jService.RecordChunkHandler handler) throws Exception;
+    }
+    
+    /**
+     * Converts one chunk of results to OWL axioms and applies them with a single
+     * applyChanges call, so change listeners, views and the reasoner are notified once per
+     * chunk instead of once per axiom. Staged chunks are applied through the staging
+     * ontology's own manager and are not seen by Protégé at all; their removals of changed
+     * values target the active ontology and are kept in {@code pendingRemovals} for the merge.
+     * Changes to the active ontology are applied on the EDT, like a merge and Protégé's own
+     * edits, so only one thread ever changes it.
+     *
+     * @throws InterruptedException if the task is stopped while waiting for the EDT
+     */
+    private void applyImportChunk(OwlImportService importService, List<Map<String, Object>> chunk,
+                                  OWLOntology stagingOntology, List<OWLOntologyChange> pendingRemovals,
+                                  OwlImportService.ImportSummary summary) throws InterruptedException {
+        List<OWLOntologyChange> changes = importService.buildChanges(chunk, summary);
+        if (changes.isEmpty()) {
+            return;
         }
+        
+        long start = System.nanoTime();
+        if (stagingOntology != null) {
+            List<OWLOntologyChange> staged = new ArrayList<>(changes.size());
+            for (OWLOntologyChange change : changes) {
+                if (change.getOntology() == stagingOntology) {
+                    staged.add(change);
+                } else {
+                    pendingRemovals.add(change);
+                }
+            }
+            stagingOntology.getOWLOntologyManager().applyChanges(staged);
+        } else {
+            applyOnEdt(() -> editorKit.getOWLModelManager().applyChanges(changes));
+        }
+        summary.applyMillis += (System.nanoTime() - start) / 1_000_000;
+        summary.changesApplied += changes.size();
+        summary.applyCalls++;
     }
     
-    private void addResultsToOntology(java.util.List<java.util.Map<String, Object>> results) {
+    /**
+     * Runs the given work on the EDT and waits for it to finish.
+     */
+    private static void applyOnEdt(Runnable work) throws InterruptedException {
+        if (SwingUtilities.isEventDispatchThread()) {
+            work.run();
+            return;
+        }
         try {
-            OWLOntology ontology = editorKit.getOWLModelManager().getActiveOntology();
-            OWLDataFactory dataFactory = editorKit.getOWLModelManager().getOWLDataFactory();
-            
-            // Get base IRI from ontology
-            String baseIRI = "http://www.semanticweb.org/ontology";
-            if (ontology.getOntologyID().getOntologyIRI().isPresent()) {
-                baseIRI = ontology.getOntologyID().getOntologyIRI().get().toString();
+            SwingUtilities.invokeAndWait(work);
+        } catch (InvocationTargetException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
             }
-            
-            for (java.util.Map<String, Object> record : results) {
-            for (java.util.Map.Entry<String, Object> entry : record.entrySet()) {
-                Object value = entry.getValue();                    // Handle Neo4j nodes
-                    if (value instanceof org.neo4j.driver.types.Node) {
-                        org.neo4j.driver.types.Node node = (org.neo4j.driver.types.Node) value;
-                        String nodeId = String.valueOf(node.id());
-                        
-                        // Get node labels (used as OWL classes)
-                        for (String label : node.labels()) {
-                            // Create OWL Class for the label if it doesn't exist
-                            OWLClass owlClass = dataFactory.getOWLClass(IRI.create(baseIRI + "#" + label));
-                            editorKit.getOWLModelManager().applyChange(
-                                new org.semanticweb.owlapi.model.AddAxiom(ontology,
-                                    dataFactory.getOWLDeclarationAxiom(owlClass)));
-                            
-                            // Create individual for this node
-                            String individualName = label + "_" + nodeId;
-                            OWLNamedIndividual individual = dataFactory.getOWLNamedIndividual(
-                                IRI.create(baseIRI + "#" + individualName));
-                            
-                            // Add class assertion
-                            editorKit.getOWLModelManager().applyChange(
-                                new org.semanticweb.owlapi.model.AddAxiom(ontology,
-                                    dataFactory.getOWLClassAssertionAxiom(owlClass, individual)));
-                            
-                            // Add properties from node
-                            for (String propKey : node.keys()) {
-                                Object propValue = node.get(propKey).asObject();
-                                if (propValue != null) {
-                                    OWLDataProperty dataProp = dataFactory.getOWLDataProperty(
-                                        IRI.create(baseIRI + "#" + propKey));
-                                    String literalValue = propValue.toString();
-                                    if (literalValue != null) {
-                                        editorKit.getOWLModelManager().applyChange(
-                                            new org.semanticweb.owlapi.model.AddAxiom(ontology,
-                                                dataFactory.getOWLDataPropertyAssertionAxiom(
-                                                    dataProp, individual, 
-                                                    dataFactory.getOWLLiteral(literalValue))));
-                                    }
-                                }
-                            }
-                        }
-                    }
-                    // Handle Neo4j relationships
-                    else if (value instanceof org.neo4j.driver.types.Relationship) {
-                        org.neo4j.driver.types.Relationship rel = (org.neo4j.driver.types.Relationship) value;
-                        String relType = rel.type();
-                        
-                        // Create object property for relationship
-                        OWLObjectProperty objProp = dataFactory.getOWLObjectProperty(
-                            IRI.create(baseIRI + "#" + relType));
-                        editorKit.getOWLModelManager().applyChange(
-                            new org.semanticweb.owlapi.model.AddAxiom(ontology,
-                                dataFactory.getOWLDeclarationAxiom(objProp)));
-                    }
-                }
+            if (cause instanceof Error) {
+                throw (Error) cause;
             }
+            throw new IllegalStateException(cause);
+        }
+    }
+    
+    /**
+     * Shows what was staged and, if the user agrees, merges it into the active ontology with a
+     * single applyChanges call. Protégé records that call as one undo step, and views and the
+     * reasoner manager see one change notification for the whole import. The merge changes
+     * are built by a background task, which only hands the applyChanges call to the EDT.
+     * Must be called on the EDT.
+     *
+     * @param stagedText Description of the staged axioms, see {@link OwlImportService#describeStaging}
+     */
+    private void confirmMerge(OWLOntology stagingOntology, String stagedText, List<OWLOntologyChange> pendingRemovals,
+                              ImportIndex index, String message) {
+        String removalText = pendingRemovals.isEmpty()
+            ? ""
+            : pendingRemovals.size() + " changed values will be replaced.\n";
+        int confirm = dialogManager.showConfirmDialog(this, "Merge Staged Import",
+            message + "\n\n" + stagedText + removalText
+            + "\nMerge these axioms into the active ontology?");
+        if (confirm != javax.swing.JOptionPane.YES_OPTION) {
+            index.discard();
+            statusLabel.setText("Staged import discarded");
+            return;
+        }
+        
+        OWLModelManager modelManager = editorKit.getOWLModelManager();
+        OWLOntology activeOntology = modelManager.getActiveOntology();
+        statusLabel.setText("Merging staged import...");
+        submitTask(Neo4jTaskScheduler.Kind.IMPORT, "Merge staged import", null, () -> {
+            long buildStart = System.nanoTime();
+            List<OWLOntologyChange> changes = new ArrayList<>(pendingRemovals);
+            changes.addAll(OwlImportService.buildMergeChanges(stagingOntology, activeOntology));
+            long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
             
-            System.out.println("Successfully imported " + results.size() + " records to ontology");
-            
-        } catch (Exception e) {
-            System.err.println("Error adding results to ontology: " + e.getMessage());
-            e.printStackTrace();
+            SwingUtilities.invokeLater(() -> {
+                long start = System.nanoTime();
+                if (!changes.isEmpty()) {
+                    modelManager.applyChanges(changes);
+                }
+                index.commit();
+                long mergeMillis = (System.nanoTime() - start) / 1_000_000;
+                
+                System.out.println("Merged " + changes.size() + " staged changes in " + mergeMillis
+                    + " ms (built in " + buildMillis + " ms)");
+                statusLabel.setText("Merged " + changes.size() + " changes");
+                dialogManager.showMessageDialog(this, "Merged " + changes.size()
+                    + " changes into the active ontology in " + mergeMillis
+                    + " ms.\nUse Edit > Undo to revert the whole import.");
+            });
+        });
+    }
+    
+    /**
+     * Returns the index of nodes imported into the given ontology, starting a new one when
+     * the active ontology has changed.
+     */
+    private synchronized ImportIndex getImportIndex(OWLOntology activeOntology) {
+        if (importIndex == null || importIndex.getOntology() != activeOntology) {
+            importIndex = new ImportIndex(activeOntology);
         }
+        return importIndex;
     }
     
     public void setResultsPanel(Neo4jResultsPanel resultsPanel) {
         this.resultsPanel = resultsPanel;
+        // Stopping from the results tab ends the stream like the Stop button
+        resultsPanel.setStopFetchingAction(() -> {
+            AtomicBoolean cancelled = shownResultsCancel;
+            if (cancelled != null) {
+                cancelled.set(true);
+            }
+        });
+        resultsPanel.setImportRowsAction(this::handleImportRows);
+    }
+    
+    /**
+     * Imports the rows of the Results tab into the active ontology again, without querying
+     * Neo4j, e.g. after the previous import was undone or another ontology was selected.
+     */
+    private void handleImportRows(ResultRows rows) {
+        int count = rows.size();
+        String description = "Import of " + count + " result rows";
+        submitTask(Neo4jTaskScheduler.Kind.IMPORT, description, () -> importRecords(description, handler ->
+            rows.readChunks(Neo4jPreferences.getImportChunkSize(), handler), false));
+    }
+    
+    /**
+     * Runs a Cypher query and imports its results as a scheduled query task. Must be called
+     * on the EDT.
+     */
+    private void submitQuery(String cypherQuery, Neo4jOperationType mode) {
+        if (neo4jService == null) {
+            // Disconnected while the user was looking at the translation
+            dialogManager.showErrorMessageDialog(this, "Not connected to Neo4j. Please connect first.");
+            return;
+        }
+        Neo4jService service = serviceFor(mode);
+        submitTask(Neo4jTaskScheduler.Kind.QUERY, "Query: " + abbreviate(cypherQuery),
+            () -> executeQueryInternal(service, cypherQuery, mode));
+    }
+    
+    /**
+     * Returns the connection to use for a query mode: its transactions time out after the
+     * configured timeout of the mode and carry metadata naming the plugin, the mode and this
+     * panel, so they can be found in SHOW TRANSACTIONS and terminated by Stop.
+     */
+    private Neo4jService serviceFor(Neo4jOperationType mode) {
+        int seconds = Neo4jPreferences.getQueryTimeoutSeconds(mode);
+        Map<String, Object> metadata = Map.of(
+            "app", Neo4jPreferences.getQueryMetadataTag(),
+            "mode", mode.name(),
+            "client", clientId);
+        return neo4jService.withTransactionSettings(seconds > 0 ? Duration.ofSeconds(seconds) : null, metadata);
+    }
+    
+    /**
+     * Asks the server to terminate the transactions of this panel that are still running.
+     * Interrupting a task already makes the driver drop its connection; this also stops
+     * queries whose connection the driver cannot interrupt, e.g. in the middle of a commit.
+     */
+    private void terminateServerTransactions() {
+        Neo4jService service = neo4jService;
+        if (service == null || !service.isConnected()) {
+            return;
+        }
+        submitTask(Neo4jTaskScheduler.Kind.ADMIN, "Terminate running queries", () -> {
+            try {
+                service.terminateTransactions("client", clientId);
+            } catch (Exception ex) {
+                SwingUtilities.invokeLater(() -> statusLabel.setText("Stop requested; "
+                    + "the server did not terminate the queries: " + ex.getMessage()));
+            }
+        });
+    }
+    
+    /**
+     * Hands background work on the selected connection to the plugin-wide scheduler, which
+     * runs it once fewer tasks of its kind are running than allowed. Must be called on the EDT.
+     */
+    private void submitTask(Neo4jTaskScheduler.Kind kind, String name, Runnable work) {
+        submitTask(kind, name, neo4jService, work);
+    }
+    
+    /**
+     * Same as {@link #submitTask(Neo4jTaskScheduler.Kind, String, Runnable)} for work on the
+     * given lease, or on no connection at all if it is null.
+     *
+     * @return The submitted task, or null if the scheduler rejected it
+     */
+    private PanelTask submitTask(Neo4jTaskScheduler.Kind kind, String name, Neo4jService lease, Runnable work) {
+        Neo4jTaskScheduler scheduler = Neo4jTaskScheduler.getInstance();
+        scheduler.setLimit(Neo4jTaskScheduler.Kind.QUERY, Neo4jPreferences.getMaxConcurrentQueries());
+        PanelTask task = new PanelTask(lease);
+        try {
+            task.future = scheduler.submit(kind, name, () -> task.run(work));
+            synchronized (tasks) {
+                tasks.add(task);
+            }
+        } catch (RejectedExecutionException ex) {
+            dialogManager.showErrorMessageDialog(this, "Cannot start \"" + name + "\":\n" + ex.getMessage());
+            updateTaskStatus();
+            return null;
+        }
+        updateTaskStatus();
+        return task;
+    }
+    
+    /**
+     * Cancels the tasks of this panel: queued ones never start, running ones are interrupted.
+     */
+    private void cancelTasks() {
+        synchronized (tasks) {
+            for (PanelTask task : tasks) {
+                task.cancel();
+            }
+        }
+    }
+    
+    /**
+     * Returns the tasks of this panel that work on the given lease and have not stopped yet.
+     */
+    private List<PanelTask> tasksUsing(Neo4jService lease) {
+        List<PanelTask> using = new ArrayList<>();
+        synchronized (tasks) {
+            for (PanelTask task : tasks) {
+                if (task.lease == lease && !task.stopped.isDone()) {
+                    using.add(task);
+                }
+            }
+        }
+        return using;
+    }
+    
+    /**
+     * Enables the Stop button while this panel has work in progress and shows the tasks of
+     * all views. Must be called on the EDT.
+     */
+    private void updateTaskStatus() {
+        boolean busy;
+        synchronized (tasks) {
+            tasks.removeIf(task -> task.stopped.isDone());
+            busy = !tasks.isEmpty();
+        }
+        stopButton.setEnabled(busy || isSyncRunning());
+        
+        List<Neo4jTaskScheduler.TaskInfo> all = Neo4jTaskScheduler.getInstance().getTasks();
+        int running = 0;
+        StringBuilder tooltip = new StringBuilder("<html>");
+        for (Neo4jTaskScheduler.TaskInfo info : all) {
+            if (info.state == Neo4jTaskScheduler.State.RUNNING) {
+                running++;
+            }
+            tooltip.append(escapeHtml(info.toString())).append("<br>");
+        }
+        tasksLabel.setText(all.isEmpty()
+            ? ""
+            : "Tasks: " + running + " running, " + (all.size() - running) + " queued");
+        tasksLabel.setToolTipText(all.isEmpty() ? null : tooltip.append("</html>").toString());
+    }
+    
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+    
+    /**
+     * Shortens a query to its first line, for task names.
+     */
+    private static String abbreviate(String query) {
+        String line = query.trim().split("\\R", 2)[0];
+        return line.length() > 60 ? line.substring(0, 57) + "..." : line;
     }
     
     public void dispose() {
-        if (neo4jService != null) {
-            neo4jService.close();
+        Neo4jTaskScheduler.getInstance().removeListener(taskListener);
+        cancelTasks();
+        for (Neo4jService lease : connections.values()) {
+            stopSyncUsing(lease);
+            releaseWhenIdle(lease);
+        }
+        connections.clear();
+        neo4jService = null;
+    }
+    
+    /**
+     * A task this panel submitted, with the lease it works on. Its future is done as soon as
+     * it is cancelled, while the work may still be winding down; {@code stopped} completes
+     * only once the work has returned or can no longer start.
+     */
+    private static final class PanelTask {
+        
+        private static final ThreadLocal<PanelTask> CURRENT = new ThreadLocal<>();
+        
+        final Neo4jService lease;
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final CompletableFuture<Void> stopped = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        volatile Future<?> future;
+        
+        PanelTask(Neo4jService lease) {
+            this.lease = lease;
+        }
+        
+        /**
+         * Returns the stop flag of the task running on this thread, or a new flag outside tasks.
+         */
+        static AtomicBoolean currentCancelFlag() {
+            PanelTask task = CURRENT.get();
+            return task != null ? task.cancelled : new AtomicBoolean();
+        }
+        
+        void run(Runnable work) {
+            if (!claimed.compareAndSet(false, true)) {
+                return; // Cancelled before it started
+            }
+            CURRENT.set(this);
+            try {
+                work.run();
+            } finally {
+                CURRENT.remove();
+                stopped.complete(null);
+            }
+        }
+        
+        /**
+         * Sets the stop flag, removes the task from the queue or interrupts it if it is running.
+         */
+        void cancel() {
+            cancelled.set(true);
+            if (future != null) {
+                future.cancel(true);
+            }
+            if (claimed.compareAndSet(false, true)) {
+                stopped.complete(null);
+            }
         }
     }
 }
@@ -1,39 +1,112 @@
 package org.vidyaastra.neo4j.protege.ui;
 
 import java.awt.BorderLayout;
+import java.awt.CardLayout;
 import java.awt.Font;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 import javax.swing.BorderFactory;
+import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+import org.neo4j.driver.summary.Plan;
+import org.vidyaastra.neo4j.protege.core.Neo4jTaskScheduler;
+import org.vidyaastra.neo4j.protege.core.ResultRows;
+import org.vidyaastra.neo4j.protege.core.SpillableResultStore;
 
 /**
  * Panel for displaying Neo4j query results, following VidyaAstra pattern.
+ * Results are shown in a table whose model formats only the visible cells, so the panel
+ * stays responsive for result sets of any size. Clicking a column header sorts by that
+ * column; the filter field keeps rows containing the entered text.
+ * 
+ * The rows live in a {@link ResultRows} store that may keep most of them on disk; the panel
+ * owns the store and closes it when the next result replaces it. While a query is still
+ * streaming, the fetching thread adds rows to the store and calls {@link #resultsAdded()};
+ * calls made while an update is pending are coalesced into one EDT update. A query whose
+ * store was replaced by a newer result can keep calling these methods: its store is closed
+ * and ignores further rows, and its {@link #finishResults(ResultRows, long)} is ignored.
+ * 
+ * Query plans from the Profile Query mode are shown in place of the table, see
+ * {@link #displayPlan(String, Plan, String)}.
  */
 public class Neo4jResultsPanel extends JPanel {
     
     private static final long serialVersionUID = 1L;
     
-    private JTextArea resultsArea;
+    private static final String TABLE_CARD = "table";
+    private static final String PLAN_CARD = "plan";
+    private static final int FILTER_DELAY_MS = 250;
+    
+    private Neo4jResultsTableModel tableModel;
+    private JTable resultsTable;
+    private JTextField filterField;
+    private JPanel centerPanel;
+    private Neo4jPlanView planView;
     private JLabel queryLabel;
+    private JLabel countLabel;
+    private JButton stopFetchingButton;
+    private Runnable stopFetchingAction;
+    private JButton importRowsButton;
+    private Consumer<ResultRows> importRowsAction;
+    
+    // Set while an EDT update for rows added by the fetching thread is queued
+    private final Object flushLock = new Object();
+    private boolean flushScheduled = false;
+    private boolean streaming = false;
+    
+    // Incremented for every sort/filter request so that stale background results are dropped
+    private int viewGeneration = 0;
+    private Future<?> viewTask;
+    
+    // Applies the filter once typing pauses, instead of on every keystroke
+    private Timer filterTimer;
     
     public Neo4jResultsPanel() {
         initializeComponents();
         layoutComponents();
+        setupListeners();
     }
     
     private void initializeComponents() {
         queryLabel = new JLabel("No query executed yet");
         queryLabel.setFont(new Font("Monospaced", Font.BOLD, 12));
         
-        resultsArea = new JTextArea();
-        resultsArea.setEditable(false);
-        resultsArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        resultsArea.setText("Results will appear here after executing a query.");
+        countLabel = new JLabel("Results will appear here after executing a query.");
+        
+        tableModel = new Neo4jResultsTableModel();
+        resultsTable = new JTable(tableModel);
+        resultsTable.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        resultsTable.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        resultsTable.setFillsViewportHeight(true);
+        
+        filterField = new JTextField(20);
+        filterTimer = new Timer(FILTER_DELAY_MS,
+            e -> updateView(tableModel.getSortColumn(), tableModel.isSortAscending(), filterField.getText()));
+        filterTimer.setRepeats(false);
+        
+        planView = new Neo4jPlanView();
+        
+        stopFetchingButton = new JButton("Stop Fetching");
+        stopFetchingButton.setEnabled(false);
+        
+        importRowsButton = new JButton("Import Rows");
+        importRowsButton.setToolTipText("Import the rows shown here into the active ontology again");
+        importRowsButton.setEnabled(false);
     }
     
     private void layoutComponents() {
@@ -48,74 +121,240 @@ public class Neo4jResultsPanel extends JPanel {
         
         add(topPanel, BorderLayout.NORTH);
         
-        // Center panel with results
-        JScrollPane scrollPane = new JScrollPane(resultsArea);
+        // Center panel with results, or with a query plan
+        JScrollPane scrollPane = new JScrollPane(resultsTable);
         scrollPane.setBorder(BorderFactory.createTitledBorder("Results"));
         
-        add(scrollPane, BorderLayout.CENTER);
+        centerPanel = new JPanel(new CardLayout());
+        centerPanel.add(scrollPane, TABLE_CARD);
+        centerPanel.add(planView, PLAN_CARD);
+        add(centerPanel, BorderLayout.CENTER);
+        
+        // Bottom panel with row count and filter
+        JPanel bottomPanel = new JPanel(new BorderLayout(10, 0));
+        JPanel buttonPanel = new JPanel(new BorderLayout(5, 0));
+        buttonPanel.add(stopFetchingButton, BorderLayout.WEST);
+        buttonPanel.add(importRowsButton, BorderLayout.EAST);
+        bottomPanel.add(buttonPanel, BorderLayout.WEST);
+        bottomPanel.add(countLabel, BorderLayout.CENTER);
+        JPanel filterPanel = new JPanel(new BorderLayout(5, 0));
+        filterPanel.add(new JLabel("Filter:"), BorderLayout.WEST);
+        filterPanel.add(filterField, BorderLayout.CENTER);
+        bottomPanel.add(filterPanel, BorderLayout.EAST);
+        
+        add(bottomPanel, BorderLayout.SOUTH);
     }
     
-    /**
-     * Displays query results in the panel.
-     * 
-     * @param results List of result records as maps
-     * @param query The executed query
-     */
-    public void displayResults(List<Map<String, Object>> results, String query) {
-        queryLabel.setText(query);
+    private void setupListeners() {
+        stopFetchingButton.addActionListener(e -> {
+            if (stopFetchingAction != null) {
+                stopFetchingAction.run();
+            }
+            stopFetchingButton.setEnabled(false);
+            countLabel.setText("Stopping after " + tableModel.getTotalRowCount() + " records...");
+        });
         
-        if (results == null || results.isEmpty()) {
-            resultsArea.setText("Query executed successfully but returned no results.");
-            return;
-        }
+        importRowsButton.addActionListener(e -> {
+            if (importRowsAction != null && !streaming) {
+                importRowsAction.accept(tableModel.getRows());
+            }
+        });
         
-        StringBuilder sb = new StringBuilder();
-        sb.append("Total Records: ").append(results.size()).append("\n");
-        sb.append("=".repeat(80)).append("\n\n");
+        resultsTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = resultsTable.columnAtPoint(e.getPoint());
+                if (column < 0) {
+                    return;
+                }
+                int modelColumn = resultsTable.convertColumnIndexToModel(column);
+                boolean ascending = modelColumn != tableModel.getSortColumn() || !tableModel.isSortAscending();
+                updateView(modelColumn, ascending, filterField.getText());
+            }
+        });
         
-        for (int i = 0; i < results.size(); i++) {
-            Map<String, Object> record = results.get(i);
-            sb.append("Record ").append(i + 1).append(":\n");
-            sb.append("-".repeat(40)).append("\n");
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filterChanged();
+            }
             
-            for (Map.Entry<String, Object> entry : record.entrySet()) {
-                sb.append(String.format("  %-20s : %s\n", entry.getKey(), formatValue(entry.getValue())));
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filterChanged();
             }
             
-            sb.append("\n");
-        }
-        
-        resultsArea.setText(sb.toString());
-        resultsArea.setCaretPosition(0); // Scroll to top
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                filterChanged();
+            }
+        });
+    }
+    
+    private void filterChanged() {
+        filterTimer.restart();
     }
     
     /**
-     * Formats a value for display.
+     * Sorts and filters the rows as a task of the plugin scheduler and installs the result on
+     * the EDT, unless a newer request has been made in the meantime. A request still queued or
+     * running for an older view is cancelled.
      */
-    private String formatValue(Object value) {
-        if (value == null) {
-            return "null";
-        }
+    private void updateView(int sortColumn, boolean ascending, String filter) {
+        int generation = ++viewGeneration;
+        ResultRows rows = tableModel.getRows();
+        int rowCount = tableModel.getTotalRowCount();
+        List<String> columns = tableModel.getColumns();
+        countLabel.setText("Sorting / filtering " + rowCount + " records...");
         
-        if (value instanceof Map) {
-            Map<?, ?> map = (Map<?, ?>) value;
-            StringBuilder sb = new StringBuilder("{");
-            boolean first = true;
-            for (Map.Entry<?, ?> entry : map.entrySet()) {
-                if (!first) sb.append(", ");
-                sb.append(entry.getKey()).append(": ").append(entry.getValue());
-                first = false;
+        if (viewTask != null) {
+            viewTask.cancel(true);
+        }
+        Runnable work = () -> {
+            int[] view;
+            try {
+                view = Neo4jResultsTableModel.computeView(rows, rowCount, columns, sortColumn, ascending, filter);
+            } catch (RuntimeException e) {
+                // The store was closed because a newer result replaced it
+                System.err.println("Failed to sort / filter results: " + e.getMessage());
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (generation == viewGeneration) {
+                    tableModel.setView(view, sortColumn, ascending, filter);
+                    updateCountLabel();
+                }
+            });
+        };
+        try {
+            viewTask = Neo4jTaskScheduler.getInstance().submit(Neo4jTaskScheduler.Kind.VIEW,
+                "Sort / filter " + rowCount + " results", work);
+        } catch (RejectedExecutionException e) {
+            System.err.println("Failed to sort / filter results: " + e.getMessage());
+            updateCountLabel();
+        }
+    }
+    
+    private void updateCountLabel() {
+        int total = tableModel.getTotalRowCount();
+        int shown = tableModel.getRowCount();
+        countLabel.setText((streaming ? "Fetching... " : "Total Records: ") + total
+            + (shown != total ? " (" + shown + " shown)" : ""));
+    }
+    
+    /**
+     * Returns the rows of the result table once they have all been fetched, or null while rows
+     * are still being fetched or no result is shown. Must be called on the EDT.
+     */
+    public ResultRows getFinishedRows() {
+        return streaming ? null : tableModel.getRows();
+    }
+    
+    /**
+     * Sets the action run by the "Stop Fetching" button, e.g. cancelling the running stream.
+     */
+    public void setStopFetchingAction(Runnable action) {
+        this.stopFetchingAction = action;
+    }
+    
+    /**
+     * Sets the action run by the "Import Rows" button with the rows of the current result.
+     */
+    public void setImportRowsAction(Consumer<ResultRows> action) {
+        this.importRowsAction = action;
+    }
+    
+    /**
+     * Shows a store whose rows are still being added, see {@link #resultsAdded()}. The previous
+     * store is closed. Must be called on the EDT.
+     */
+    public void beginResults(String query, ResultRows rows) {
+        queryLabel.setText(query);
+        showCard(TABLE_CARD);
+        viewGeneration++;
+        streaming = true;
+        filterField.setText("");
+        setRows(rows);
+        stopFetchingButton.setEnabled(stopFetchingAction != null);
+        importRowsButton.setEnabled(false);
+        updateCountLabel();
+    }
+    
+    /**
+     * Shows the rows added to the store of {@link #beginResults(String, ResultRows)} so far.
+     * Safe to call from any thread.
+     */
+    public void resultsAdded() {
+        synchronized (flushLock) {
+            if (flushScheduled) {
+                return;
             }
-            sb.append("}");
-            return sb.toString();
+            flushScheduled = true;
+        }
+        SwingUtilities.invokeLater(this::flushAddedRows);
+    }
+    
+    private void flushAddedRows() {
+        synchronized (flushLock) {
+            flushScheduled = false;
         }
+        tableModel.rowsAdded();
+        if (tableModel.hasView()) {
+            filterChanged();
+        } else {
+            updateCountLabel();
+        }
+    }
+    
+    /**
+     * Marks the end of a streaming result. Must be called on the EDT, after the last rows
+     * have been added to the store. Ignored if another result has replaced the store since.
+     * 
+     * @param rows The store passed to {@link #beginResults(String, ResultRows)}
+     * @param totalRecords Number of records the query produced, which may exceed the rows shown
+     */
+    public void finishResults(ResultRows rows, long totalRecords) {
+        if (rows != tableModel.getRows()) {
+            return;
+        }
+        flushAddedRows();
+        streaming = false;
+        stopFetchingButton.setEnabled(false);
+        importRowsButton.setEnabled(importRowsAction != null && tableModel.getTotalRowCount() > 0);
+        updateCountLabel();
+        if (totalRecords > tableModel.getTotalRowCount()) {
+            countLabel.setText(countLabel.getText() + " of " + totalRecords + " fetched");
+        } else if (totalRecords == 0) {
+            countLabel.setText("Query executed successfully but returned no results.");
+        }
+    }
+    
+    /**
+     * Displays query results in the panel.
+     * 
+     * @param results List of result records as maps
+     * @param query The executed query
+     */
+    public void displayResults(List<Map<String, Object>> results, String query) {
+        queryLabel.setText(query);
+        showCard(TABLE_CARD);
+        viewGeneration++;
+        streaming = false;
+        filterField.setText("");
         
-        if (value instanceof List) {
-            List<?> list = (List<?>) value;
-            return list.toString();
+        if (results == null || results.isEmpty()) {
+            setRows(null);
+            importRowsButton.setEnabled(false);
+            countLabel.setText("Query executed successfully but returned no results.");
+            return;
         }
         
-        return value.toString();
+        SpillableResultStore store = new SpillableResultStore(Neo4jPreferences.getResultHeapRows());
+        store.addAll(results);
+        setRows(store);
+        importRowsButton.setEnabled(importRowsAction != null);
+        updateCountLabel();
+        resultsTable.scrollRectToVisible(resultsTable.getCellRect(0, 0, true)); // Scroll to top
     }
     
     /**
@@ -123,10 +362,58 @@ public class Neo4jResultsPanel extends JPanel {
      */
     public void clearResults() {
         queryLabel.setText("No query executed yet");
-        resultsArea.setText("Results will appear here after executing a query.");
+        showCard(TABLE_CARD);
+        viewGeneration++;
+        streaming = false;
+        filterField.setText("");
+        setRows(null);
+        importRowsButton.setEnabled(false);
+        countLabel.setText("Results will appear here after executing a query.");
+    }
+    
+    /**
+     * Shows the operator tree of a profiled or explained query instead of the result table.
+     * Must be called on the EDT.
+     * 
+     * @param query The profiled query
+     * @param plan The plan, a {@code ProfiledPlan} for PROFILE
+     * @param timing Overall timing for the summary line, or null
+     */
+    public void displayPlan(String query, Plan plan, String timing) {
+        queryLabel.setText(query);
+        viewGeneration++;
+        streaming = false;
+        stopFetchingButton.setEnabled(false);
+        importRowsButton.setEnabled(false);
+        planView.setPlan(plan, timing);
+        countLabel.setText("Operators with the largest share of db hits or time are highlighted.");
+        showCard(PLAN_CARD);
+    }
+    
+    private void showCard(String card) {
+        ((CardLayout) centerPanel.getLayout()).show(centerPanel, card);
+    }
+    
+    /**
+     * Installs a new store in the table and closes the one it replaces.
+     */
+    private void setRows(ResultRows rows) {
+        ResultRows previous = tableModel.getRows();
+        tableModel.setRows(rows);
+        if (previous != rows && previous instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) previous).close();
+            } catch (Exception e) {
+                System.err.println("Failed to close result store: " + e.getMessage());
+            }
+        }
     }
     
     public void dispose() {
-        // Cleanup if needed
+        filterTimer.stop();
+        if (viewTask != null) {
+            viewTask.cancel(true);
+        }
+        setRows(null);
     }
 }
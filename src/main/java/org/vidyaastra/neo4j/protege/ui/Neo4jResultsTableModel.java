@@ -0,0 +1,276 @@
+package org.vidyaastra.neo4j.protege.ui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.swing.table.AbstractTableModel;
+
+import org.vidyaastra.neo4j.protege.core.ResultRows;
+
+/**
+ * Table model backed directly by a {@link ResultRows} store. Cell text is produced on demand in
+ * {@link #getValueAt(int, int)}, so only the cells the table actually paints are formatted and
+ * only their rows are read from the store.
+ * Sorting and filtering produce a view-to-model index array, which is computed off the EDT
+ * by {@link #computeView(ResultRows, int, List, int, boolean, String)} and installed with
+ * {@link #setView(int[], int, boolean, String)}.
+ */
+public class Neo4jResultsTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ResultRows EMPTY = new ResultRows() {
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public List<String> getColumns() {
+            return List.of();
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            throw new IndexOutOfBoundsException("Row " + index + " of 0");
+        }
+    };
+
+    private ResultRows rows = EMPTY;
+    // Rows of the store the table knows about; the store may already hold more
+    private int rowCount = 0;
+    private final List<String> columns = new ArrayList<>();
+
+    // View rows in display order as indexes into rows; null shows all rows unsorted
+    private int[] view;
+    private int sortColumn = -1;
+    private boolean sortAscending = true;
+    private String filterText = "";
+
+    /**
+     * Replaces the content of the model. Must be called on the EDT.
+     */
+    public void setRows(ResultRows results) {
+        rows = results != null ? results : EMPTY;
+        rowCount = rows.size();
+        columns.clear();
+        columns.addAll(rows.getColumns());
+        view = null;
+        sortColumn = -1;
+        filterText = "";
+        fireTableStructureChanged();
+    }
+
+    /**
+     * Shows the rows added to the store since the last call, e.g. the next batch of a result
+     * that is still streaming. Must be called on the EDT. While a sort or filter is active the
+     * new rows are not visible until the next {@link #setView}.
+     */
+    public void rowsAdded() {
+        int firstRow = rowCount;
+        int size = rows.size();
+        if (size == firstRow) {
+            return;
+        }
+        rowCount = size;
+        List<String> storeColumns = rows.getColumns();
+        if (storeColumns.size() != columns.size()) {
+            columns.clear();
+            columns.addAll(storeColumns);
+            fireTableStructureChanged();
+        } else if (view == null) {
+            fireTableRowsInserted(firstRow, rowCount - 1);
+        }
+    }
+
+    /**
+     * Returns true if a sort or filter is active.
+     */
+    public boolean hasView() {
+        return view != null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return view != null ? view.length : rowCount;
+    }
+
+    /**
+     * Column 0 holds the record number; the remaining columns are the record keys.
+     */
+    @Override
+    public int getColumnCount() {
+        return columns.size() + 1;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return column == 0 ? "#" : columns.get(column - 1);
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int modelRow = view != null ? view[rowIndex] : rowIndex;
+        if (columnIndex == 0) {
+            return modelRow + 1;
+        }
+        return formatValue(rows.getValue(modelRow, columns.get(columnIndex - 1)));
+    }
+
+    public int getTotalRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the store behind the model; rows below {@link #getTotalRowCount()} never change.
+     */
+    public ResultRows getRows() {
+        return rows;
+    }
+
+    public List<String> getColumns() {
+        return new ArrayList<>(columns);
+    }
+
+    public int getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isSortAscending() {
+        return sortAscending;
+    }
+
+    public String getFilterText() {
+        return filterText;
+    }
+
+    /**
+     * Installs a view computed by {@link #computeView}. Must be called on the EDT.
+     */
+    public void setView(int[] view, int sortColumn, boolean sortAscending, String filterText) {
+        this.view = view;
+        this.sortColumn = sortColumn;
+        this.sortAscending = sortAscending;
+        this.filterText = filterText;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Computes the rows to show, in display order, for a filter and sort column. Safe to call
+     * from any thread. Each row is read from the store at most once; for sorting only the
+     * values of the sort column are kept, and without a filter only those are read.
+     *
+     * @param rows The store, as returned by {@link #getRows()}
+     * @param rowCount Number of rows to consider, as returned by {@link #getTotalRowCount()}
+     * @param columns The record keys, as returned by {@link #getColumns()}
+     * @param sortColumn Table column to sort by (0 for record order), or -1 for none
+     * @param ascending Sort direction
+     * @param filter Case-insensitive text that some cell of a row must contain; empty for all rows
+     * @return Model row indexes in display order, or null to show all rows unsorted
+     */
+    public static int[] computeView(ResultRows rows, int rowCount, List<String> columns,
+                                    int sortColumn, boolean ascending, String filter) {
+        String needle = filter.trim().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty() && sortColumn <= 0 && ascending) {
+            return null;
+        }
+
+        String key = sortColumn > 0 ? columns.get(sortColumn - 1) : null;
+        int[] matches = new int[rowCount];
+        Object[] keys = key != null ? new Object[rowCount] : null;
+        int count = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (needle.isEmpty()) {
+                if (keys != null) {
+                    keys[count] = rows.getValue(i, key);
+                }
+                matches[count++] = i;
+                continue;
+            }
+            Map<String, Object> row = rows.get(i);
+            if (rowContains(row, needle)) {
+                if (keys != null) {
+                    keys[count] = row.get(key);
+                }
+                matches[count++] = i;
+            }
+        }
+
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        if (keys != null) {
+            Comparator<Integer> byValue = (a, b) -> compareValues(keys[a], keys[b]);
+            Arrays.sort(order, ascending ? byValue : byValue.reversed());
+        } else if (!ascending) {
+            Arrays.sort(order, Comparator.reverseOrder());
+        }
+
+        int[] view = new int[count];
+        for (int i = 0; i < count; i++) {
+            view[i] = matches[order[i]];
+        }
+        return view;
+    }
+
+    private static boolean rowContains(Map<String, Object> row, String needle) {
+        for (Object value : row.values()) {
+            if (formatValue(value).toLowerCase(Locale.ROOT).contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Orders nulls first, compares numbers numerically and values of the same comparable type
+     * naturally, and falls back to the displayed text.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+        if (a instanceof Comparable && a.getClass().equals(b.getClass())) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return formatValue(a).compareTo(formatValue(b));
+    }
+
+    /**
+     * Formats a value for display.
+     */
+    static String formatValue(Object value) {
+        if (value == null) {
+            return "null";
+        }
+
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            StringBuilder sb = new StringBuilder("{");
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) sb.append(", ");
+                sb.append(entry.getKey()).append(": ").append(entry.getValue());
+                first = false;
+            }
+            sb.append("}");
+            return sb.toString();
+        }
+
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            return list.toString();
+        }
+
+        return value.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ColumnarResultTest {
+
+    private static Map<String, Object> row(Object... keysAndValues) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            row.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return row;
+    }
+
+    @Test
+    void keepsValuesOfEachPrimitiveKind() {
+        ColumnarResult result = new ColumnarResult();
+        result.add(row("i", 1L, "d", 1.5, "b", true, "s", "x"));
+        result.add(row("i", 2, "d", 2.5f, "b", false, "s", "y"));
+
+        assertEquals(row("i", 1L, "d", 1.5, "b", true, "s", "x"), result.get(0));
+        assertEquals(row("i", 2L, "d", 2.5, "b", false, "s", "y"), result.get(1));
+        assertEquals(List.of("i", "d", "b", "s"), result.getColumns());
+    }
+
+    @Test
+    void switchesToObjectStorageOnMixedTypes() {
+        ColumnarResult result = new ColumnarResult();
+        result.add(row("v", 1L));
+        result.add(row("v", null));
+        result.add(row("v", "two"));
+        result.add(row("v", 3.0));
+        result.add(row("v", List.of(4L)));
+
+        assertEquals(1L, result.getValue(0, "v"));
+        assertNull(result.getValue(1, "v"));
+        assertEquals("two", result.getValue(2, "v"));
+        assertEquals(3.0, result.getValue(3, "v"));
+        assertEquals(List.of(4L), result.getValue(4, "v"));
+    }
+
+    @Test
+    void switchesFromLongToDoubleAndBoolean() {
+        ColumnarResult result = new ColumnarResult();
+        result.add(row("a", 1L, "b", true));
+        result.add(row("a", 2.5, "b", 7L));
+
+        assertEquals(row("a", 1L, "b", true), result.get(0));
+        assertEquals(row("a", 2.5, "b", 7L), result.get(1));
+    }
+
+    @Test
+    void switchesToObjectStorageWhenStringsRarelyRepeat() {
+        ColumnarResult result = new ColumnarResult();
+        for (int i = 0; i < 3000; i++) {
+            result.add(row("s", "value " + i, "repeated", i % 2 == 0 ? "even" : "odd"));
+        }
+
+        for (int i = 0; i < 3000; i++) {
+            assertEquals("value " + i, result.getValue(i, "s"));
+            assertEquals(i % 2 == 0 ? "even" : "odd", result.getValue(i, "repeated"));
+        }
+    }
+
+    @Test
+    void handlesMissingColumns() {
+        ColumnarResult result = new ColumnarResult();
+        result.add(row("a", 1L));
+        result.add(row("a", 2L, "b", "x"));
+        result.add(row("b", "y"));
+
+        // Rows added before a column appeared do not have its key at all
+        assertFalse(result.get(0).containsKey("b"));
+        assertNull(result.getValue(0, "b"));
+
+        // Rows added after a column appeared have it, null where the row lacked the key
+        assertEquals(row("a", 2L, "b", "x"), result.get(1));
+        assertTrue(result.get(2).containsKey("a"));
+        assertNull(result.get(2).get("a"));
+        assertEquals("y", result.getValue(2, "b"));
+
+        assertNull(result.getValue(1, "unknown"));
+        assertEquals(List.of("a", "b"), result.getColumns());
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        ColumnarResult result = new ColumnarResult();
+        for (int i = 0; i < 1000; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("n", (long) i);
+            if (i % 3 == 0) {
+                row.put("third", i % 2 == 0);
+            }
+            result.add(row);
+        }
+
+        assertEquals(1000, result.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals((long) i, result.getValue(i, "n"));
+            assertEquals(i % 3 == 0 ? (Object) (i % 2 == 0) : null, result.getValue(i, "third"));
+        }
+    }
+
+    @Test
+    void rejectsRowsOutOfRange() {
+        ColumnarResult result = new ColumnarResult();
+        result.add(row("a", 1L));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> result.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> result.getValue(-1, "a"));
+    }
+
+    @Test
+    void clearRemovesRowsAndColumns() {
+        ColumnarResult result = new ColumnarResult();
+        result.add(row("a", 1L));
+        result.clear();
+
+        assertEquals(0, result.size());
+        assertTrue(result.getColumns().isEmpty());
+        result.add(row("b", "x"));
+        assertEquals(row("b", "x"), result.get(0));
+    }
+}
@@ -0,0 +1,139 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class CypherParameterizerTest {
+
+    private static CypherParameterizer.Parameterized lift(String query) {
+        return CypherParameterizer.parameterize(query, Map.of());
+    }
+
+    private static void assertUnchanged(String query) {
+        CypherParameterizer.Parameterized result = lift(query);
+        assertEquals(query, result.query);
+        assertEquals(0, result.liftedLiterals);
+        assertTrue(result.parameters.isEmpty());
+    }
+
+    @Test
+    void liftsStringAndNumberLiterals() {
+        CypherParameterizer.Parameterized result =
+            lift("MATCH (t:Tx) WHERE t.amount > 10000 AND t.rate < 1.5e2 AND t.kind = 'wire' RETURN t");
+
+        assertEquals("MATCH (t:Tx) WHERE t.amount > $p0 AND t.rate < $p1 AND t.kind = $p2 RETURN t", result.query);
+        assertEquals(Map.of("p0", 10000L, "p1", 150.0, "p2", "wire"), result.parameters);
+        assertEquals(3, result.liftedLiterals);
+    }
+
+    @Test
+    void decodesQuotesAndEscapes() {
+        CypherParameterizer.Parameterized result =
+            lift("MATCH (n) WHERE n.a = 'it\\'s \"x\"\\n' AND n.b = \"a\\\\b\\u0041\" RETURN n");
+
+        assertEquals("MATCH (n) WHERE n.a = $p0 AND n.b = $p1 RETURN n", result.query);
+        assertEquals(Map.of("p0", "it's \"x\"\n", "p1", "a\\bA"), result.parameters);
+    }
+
+    @Test
+    void keepsStringsWithUnknownEscapesOrNoClosingQuote() {
+        assertUnchanged("MATCH (n) WHERE n.a = 'a\\qb' RETURN n");
+        assertUnchanged("MATCH (n) WHERE n.a = 'open RETURN n");
+    }
+
+    @Test
+    void skipsCommentsBacktickedNamesAndParameters() {
+        CypherParameterizer.Parameterized result = lift(
+            "MATCH (n:`Label 1`) // n.x = 42\nWHERE n.`a 2` = $p0 /* AND n.y = 'y' */ AND n.z = 7 RETURN n");
+
+        assertEquals(
+            "MATCH (n:`Label 1`) // n.x = 42\nWHERE n.`a 2` = $p0 /* AND n.y = 'y' */ AND n.z = $p1 RETURN n",
+            result.query);
+        assertEquals(Map.of("p1", 7L), result.parameters);
+    }
+
+    @Test
+    void keepsGivenParametersAndAvoidsTheirNames() {
+        CypherParameterizer.Parameterized result =
+            CypherParameterizer.parameterize("MATCH (n) WHERE n.a = $p0 AND n.b = 'x' RETURN n", Map.of("p1", 5L));
+
+        assertEquals("MATCH (n) WHERE n.a = $p0 AND n.b = $p2 RETURN n", result.query);
+        assertEquals(Map.of("p1", 5L, "p2", "x"), result.parameters);
+    }
+
+    @Test
+    void keepsVariableLengthBoundsAndRanges() {
+        CypherParameterizer.Parameterized result =
+            lift("MATCH (a)-[:KNOWS*1..3]->(b) WHERE a.age > 30 WITH b, [1, 2] AS l RETURN b, l[$x..]");
+
+        assertEquals("MATCH (a)-[:KNOWS*1..3]->(b) WHERE a.age > $p0 WITH b, [$p1, $p2] AS l RETURN b, l[$x..]",
+            result.query);
+        assertEquals(Map.of("p0", 30L, "p1", 1L, "p2", 2L), result.parameters);
+    }
+
+    @Test
+    void keepsLimitAndSkip() {
+        CypherParameterizer.Parameterized result = lift("MATCH (n) WHERE n.x = 1 RETURN n SKIP 10 LIMIT 5");
+
+        assertEquals("MATCH (n) WHERE n.x = $p0 RETURN n SKIP 10 LIMIT 5", result.query);
+        assertEquals(Map.of("p0", 1L), result.parameters);
+    }
+
+    @Test
+    void keepsCypherOptions() {
+        CypherParameterizer.Parameterized result =
+            lift("CYPHER 4.4 runtime=slotted MATCH (n) WHERE n.x = 1 RETURN n");
+
+        assertEquals("CYPHER 4.4 runtime=slotted MATCH (n) WHERE n.x = $p0 RETURN n", result.query);
+    }
+
+    @Test
+    void leavesAdminAndSchemaCommandsUnchanged() {
+        assertUnchanged("SHOW INDEXES WHERE name = 'idx'");
+        assertUnchanged("CREATE INDEX idx_1 FOR (n:Person) ON (n.name)");
+        assertUnchanged("CREATE CONSTRAINT c FOR (n:Person) REQUIRE n.id IS UNIQUE");
+        assertUnchanged("DROP INDEX idx_1");
+        assertUnchanged("GRANT ROLE reader TO 'bob'");
+        assertUnchanged("EXPLAIN SHOW USERS");
+
+        assertEquals("CREATE (n:Person {id: $p0})", lift("CREATE (n:Person {id: 1})").query);
+    }
+
+    @Test
+    void keepsReturnItemsThatNameColumns() {
+        CypherParameterizer.Parameterized result =
+            lift("MATCH (n) WHERE n.x = 'a' WITH n, 'w' AS w RETURN n.y, 'b', 1 + 2 AS s ORDER BY n.z + 3");
+
+        assertEquals("MATCH (n) WHERE n.x = $p0 WITH n, $p1 AS w RETURN n.y, 'b', 1 + 2 AS s ORDER BY n.z + $p2",
+            result.query);
+        assertEquals(Map.of("p0", "a", "p1", "w", "p2", 3L), result.parameters);
+    }
+
+    @Test
+    void propertyKeysAreNotClauseKeywords() {
+        assertUnchanged("MATCH (n) RETURN n.set, 'x'");
+
+        assertEquals("MATCH (n) WHERE n.return = $p0 AND n.limit = $p1 RETURN n",
+            lift("MATCH (n) WHERE n.return = 1 AND n.limit = 2 RETURN n").query);
+    }
+
+    @Test
+    void keepsLeadingZeroAndNonDecimalNumbersAsWritten() {
+        CypherParameterizer.Parameterized result =
+            lift("MATCH (n) WHERE n.a = 010 AND n.b = 0x1F AND n.c = 0o17 AND n.d = 0 AND n.e = 0.5 RETURN n");
+
+        assertEquals("MATCH (n) WHERE n.a = 010 AND n.b = 0x1F AND n.c = 0o17 AND n.d = $p0 AND n.e = $p1 RETURN n",
+            result.query);
+        assertEquals(Map.of("p0", 0L, "p1", 0.5), result.parameters);
+    }
+
+    @Test
+    void liftsNumbersStartingWithDotButNotPropertyAccess() {
+        assertEquals("MATCH (n) WHERE n.x > $p0 RETURN n", lift("MATCH (n) WHERE n.x > .5 RETURN n").query);
+        assertUnchanged("WITH .5 AS h RETURN h");
+    }
+}
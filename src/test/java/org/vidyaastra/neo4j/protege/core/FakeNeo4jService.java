@@ -0,0 +1,236 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.summary.Plan;
+
+/**
+ * In-memory stand-in for a Neo4j database, answering the queries of {@link GraphImportReader}
+ * and {@link GraphSyncPoller}. Rows hold {@link FakeNode} and {@link FakeRelationship} objects
+ * in place of driver entities; every query run is recorded.
+ */
+class FakeNeo4jService extends Neo4jService {
+
+    private static final Pattern LABEL = Pattern.compile("\\(n:`([^`]+)`\\)");
+    private static final Pattern TYPE = Pattern.compile("\\[r:`([^`]+)`\\]");
+    private static final Pattern WATERMARK = Pattern.compile("[nr]\\.`([^`]+)`\\)? AS watermark");
+
+    final Map<Long, FakeNode> nodes = new LinkedHashMap<>();
+    final List<FakeRelationship> relationships = new ArrayList<>();
+    final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+    final List<List<Long>> pages = Collections.synchronizedList(new ArrayList<>());
+    final List<String> explained = Collections.synchronizedList(new ArrayList<>());
+    Plan plan;
+
+    FakeNeo4jService() {
+        super("bolt://localhost:7687", "neo4j", "", null);
+    }
+
+    FakeNode node(long id, String... labels) {
+        FakeNode node = new FakeNode(id, Set.of(labels));
+        nodes.put(id, node);
+        return node;
+    }
+
+    FakeRelationship relationship(long id, long start, long end, String type) {
+        FakeRelationship relationship = new FakeRelationship(id, start, end, type);
+        relationships.add(relationship);
+        return relationship;
+    }
+
+    /**
+     * Builds a plan operator with the given row estimate, as EXPLAIN returns it.
+     */
+    static Plan plan(String operator, double estimatedRows, Plan... children) {
+        return new Plan() {
+            @Override
+            public String operatorType() {
+                return operator;
+            }
+
+            @Override
+            public Map<String, Value> arguments() {
+                return Map.of("EstimatedRows", Values.value(estimatedRows));
+            }
+
+            @Override
+            public List<String> identifiers() {
+                return List.of();
+            }
+
+            @Override
+            public List<? extends Plan> children() {
+                return List.of(children);
+            }
+        };
+    }
+
+    @Override
+    public List<Map<String, Object>> executeQuery(String cypherQuery, Map<String, Object> parameters) {
+        queries.add(cypherQuery);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (cypherQuery.contains("RETURN count(n)")) {
+            Matcher label = LABEL.matcher(cypherQuery);
+            String wanted = label.find() ? label.group(1) : null;
+            long count = nodes.values().stream().filter(n -> wanted == null || n.labels.contains(wanted)).count();
+            rows.add(Map.of("count", count));
+        } else if (cypherQuery.contains("AS watermark")) {
+            Object newest = null;
+            for (Map<String, Object> row : changed(cypherQuery, null)) {
+                newest = max(newest, row.get("watermark"));
+            }
+            rows.add(Collections.singletonMap("watermark", newest));
+        } else if (cypherQuery.contains("IN $ids RETURN n")) {
+            @SuppressWarnings("unchecked")
+            List<Long> ids = (List<Long>) parameters.get("ids");
+            pages.add(ids);
+            for (Long id : ids) {
+                rows.add(Map.of("n", nodes.get(id)));
+            }
+        } else if (cypherQuery.contains("IN $ids")) {
+            @SuppressWarnings("unchecked")
+            List<Long> ids = (List<Long>) parameters.get("ids");
+            for (FakeRelationship r : relationships) {
+                if (ids.contains(r.start)) {
+                    rows.add(Map.of("r", r));
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Unexpected query: " + cypherQuery);
+        }
+        return rows;
+    }
+
+    @Override
+    public long streamQuery(String cypherQuery, Map<String, Object> parameters, int chunkSize,
+                            RecordChunkHandler handler) throws Exception {
+        queries.add(cypherQuery);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (cypherQuery.contains("AS id")) {
+            nodeIds(cypherQuery, rows);
+        } else if (cypherQuery.contains("AS watermark")) {
+            rows.addAll(changed(cypherQuery, parameters.get("since")));
+        } else {
+            throw new IllegalArgumentException("Unexpected query: " + cypherQuery);
+        }
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            if (!handler.onChunk(new ArrayList<>(rows.subList(from, Math.min(rows.size(), from + chunkSize))))) {
+                return Math.min(rows.size(), from + chunkSize);
+            }
+        }
+        return rows.size();
+    }
+
+    @Override
+    public Plan explain(String cypherQuery, Map<String, Object> parameters) {
+        explained.add(cypherQuery);
+        return plan;
+    }
+
+    /**
+     * Ids of the nodes with any of the labels of a (UNION ALL) id query, each node once.
+     */
+    private void nodeIds(String cypherQuery, List<Map<String, Object>> rows) {
+        List<String> labels = labels(cypherQuery);
+        for (FakeNode node : nodes.values()) {
+            if (labels.isEmpty() || labels.stream().anyMatch(node.labels::contains)) {
+                rows.add(Map.of("id", node.id));
+            }
+        }
+    }
+
+    /**
+     * Rows of a (UNION) watermark query: the nodes or relationships each part matches by label
+     * or type, whose watermark property is set and, if the part compares it, at or after
+     * {@code since}. Duplicate rows are dropped, as UNION does.
+     */
+    private List<Map<String, Object>> changed(String cypherQuery, Object since) {
+        Set<Map<String, Object>> rows = new LinkedHashSet<>();
+        for (String part : cypherQuery.split(" UNION ")) {
+            Matcher watermark = WATERMARK.matcher(part);
+            if (!watermark.find()) {
+                throw new IllegalArgumentException("Unexpected query: " + cypherQuery);
+            }
+            String property = watermark.group(1);
+            boolean bySince = part.contains(">= $since");
+            List<String> labels = labels(part);
+            Matcher type = TYPE.matcher(part);
+            String wanted = type.find() ? type.group(1) : null;
+            if (part.contains("-[r")) {
+                for (FakeRelationship r : relationships) {
+                    boolean matches = (wanted == null || wanted.equals(r.type))
+                        && (labels.isEmpty() || labels.stream().anyMatch(nodes.get(r.start).labels::contains));
+                    if (matches && isChanged(r.properties.get(property), bySince, since)) {
+                        rows.add(Map.of("r", r, "watermark", r.properties.get(property)));
+                    }
+                }
+            } else {
+                for (FakeNode node : nodes.values()) {
+                    boolean matches = labels.isEmpty() || labels.stream().anyMatch(node.labels::contains);
+                    if (matches && isChanged(node.properties.get(property), bySince, since)) {
+                        rows.add(Map.of("n", node, "watermark", node.properties.get(property)));
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(rows);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean isChanged(Object value, boolean bySince, Object since) {
+        return value != null && (!bySince || ((Comparable<Object>) value).compareTo(since) >= 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object max(Object current, Object candidate) {
+        if (current == null || candidate != null && ((Comparable<Object>) candidate).compareTo(current) > 0) {
+            return candidate;
+        }
+        return current;
+    }
+
+    private static List<String> labels(String cypherQuery) {
+        List<String> labels = new ArrayList<>();
+        Matcher matcher = LABEL.matcher(cypherQuery);
+        while (matcher.find()) {
+            labels.add(matcher.group(1));
+        }
+        return labels;
+    }
+
+    static class FakeNode {
+        final long id;
+        final Set<String> labels;
+        final Map<String, Object> properties = new LinkedHashMap<>();
+
+        FakeNode(long id, Set<String> labels) {
+            this.id = id;
+            this.labels = labels;
+        }
+    }
+
+    static class FakeRelationship {
+        final long id;
+        final long start;
+        final long end;
+        final String type;
+        final Map<String, Object> properties = new LinkedHashMap<>();
+
+        FakeRelationship(long id, long start, long end, String type) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class GraphImportReaderTest {
+
+    private static List<Object> read(GraphImportReader reader) throws Exception {
+        List<Object> delivered = new ArrayList<>();
+        reader.read(chunk -> {
+            for (Map<String, Object> row : chunk) {
+                delivered.add(row.containsKey("n") ? row.get("n") : row.get("r"));
+            }
+            return true;
+        }, null);
+        return delivered;
+    }
+
+    @Test
+    void sparseIdsNeedOnlyAsManyPagesAsMatches() throws Exception {
+        FakeNeo4jService graph = new FakeNeo4jService();
+        for (int i = 0; i < 5; i++) {
+            graph.node(i * 2_000_000L, "Person");
+            graph.node(i * 2_000_000L + 1, "Movie");
+        }
+        graph.relationship(1, 0, 1, "ACTED_IN");
+        graph.relationship(2, 2_000_000L, 2_000_001L, "ACTED_IN");
+
+        GraphImportReader reader = new GraphImportReader(graph,
+            GraphImportReader.Filter.parse("labels: Person"), 2, 3);
+        List<Object> delivered = read(reader);
+
+        // 5 Person nodes in pages of 2: 3 pages, whatever the id span
+        assertEquals(3, graph.pages.size());
+        assertEquals(7, delivered.size());
+        for (int i = 0; i < 5; i++) {
+            assertTrue(delivered.contains(graph.nodes.get(i * 2_000_000L)));
+        }
+        // All nodes come before the relationships
+        for (int i = 0; i < 5; i++) {
+            assertTrue(delivered.get(i) instanceof FakeNeo4jService.FakeNode);
+        }
+        assertTrue(delivered.contains(graph.relationships.get(0)));
+        assertTrue(delivered.contains(graph.relationships.get(1)));
+    }
+
+    @Test
+    void labelsAreReadOnceEachWithoutDuplicates() throws Exception {
+        FakeNeo4jService graph = new FakeNeo4jService();
+        graph.node(1, "Person", "Actor");
+        graph.node(2, "Actor");
+        graph.node(3, "Movie");
+
+        GraphImportReader reader = new GraphImportReader(graph,
+            GraphImportReader.Filter.parse("labels: Person, Actor"), 10, 2);
+        List<Object> delivered = read(reader);
+
+        assertEquals(List.of(graph.nodes.get(1L), graph.nodes.get(2L)), delivered);
+        String idQuery = graph.queries.stream().filter(q -> q.contains("AS id")).findFirst().get();
+        assertEquals("MATCH (n:`Person`) RETURN id(n) AS id UNION ALL "
+            + "MATCH (n:`Actor`) WHERE NOT (n:`Person`) RETURN id(n) AS id", idQuery);
+    }
+
+    @Test
+    void emptyFilterReadsNothing() throws Exception {
+        FakeNeo4jService graph = new FakeNeo4jService();
+        graph.node(1, "Movie");
+
+        GraphImportReader reader = new GraphImportReader(graph,
+            GraphImportReader.Filter.parse("labels: Person"), 10, 2);
+
+        assertTrue(read(reader).isEmpty());
+        assertTrue(graph.pages.isEmpty());
+    }
+
+    @Test
+    void stopsWhenTheHandlerSaysSo() throws Exception {
+        FakeNeo4jService graph = new FakeNeo4jService();
+        for (long id = 0; id < 100; id++) {
+            graph.node(id, "Person");
+        }
+        GraphImportReader reader = new GraphImportReader(graph, new GraphImportReader.Filter(), 10, 2);
+
+        int[] chunks = {0};
+        long records = reader.read(chunk -> ++chunks[0] < 2, null);
+
+        assertEquals(2, chunks[0]);
+        assertEquals(20, records);
+        assertTrue(graph.queries.stream().noneMatch(q -> q.contains("RETURN r")));
+    }
+}
@@ -0,0 +1,98 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class GraphSyncPollerTest {
+
+    private static List<Object> poll(GraphSyncPoller poller) throws Exception {
+        List<Object> delivered = new ArrayList<>();
+        poller.poll(chunk -> {
+            for (Map<String, Object> row : chunk) {
+                delivered.add(row.containsKey("n") ? row.get("n") : row.get("r"));
+            }
+            return true;
+        });
+        return delivered;
+    }
+
+    @Test
+    void pollsEachLabelWithARangeConditionOnTheWatermark() throws Exception {
+        FakeNeo4jService graph = new FakeNeo4jService();
+        graph.node(1, "Person", "Actor").properties.put("updatedAt", 10L);
+        graph.node(2, "Actor").properties.put("updatedAt", 20L);
+        graph.node(3, "Movie").properties.put("updatedAt", 30L);
+        GraphSyncPoller poller = new GraphSyncPoller(graph,
+            GraphImportReader.Filter.parse("labels: Person, Actor"), "updatedAt", 10);
+
+        poller.initializeWatermark();
+        assertEquals(20L, poller.getWatermark());
+
+        graph.nodes.get(1L).properties.put("updatedAt", 25L);
+        graph.nodes.get(3L).properties.put("updatedAt", 40L);
+        graph.queries.clear();
+
+        // Node 1 has both labels but is delivered once; node 2 is at the watermark itself
+        assertEquals(List.of(graph.nodes.get(1L), graph.nodes.get(2L)), poll(poller));
+        assertEquals(25L, poller.getWatermark());
+        assertEquals("MATCH (n:`Person`) WHERE n.`updatedAt` >= $since RETURN n, n.`updatedAt` AS watermark"
+            + " UNION MATCH (n:`Actor`) WHERE n.`updatedAt` >= $since RETURN n, n.`updatedAt` AS watermark",
+            graph.queries.get(0));
+        assertTrue(graph.queries.get(1).startsWith("MATCH (n:`Person`)-[r]->(m) WHERE r.`updatedAt` >= $since"
+            + " AND (m:`Person` OR m:`Actor`) RETURN r"));
+    }
+
+    @Test
+    void relationshipsAreMatchedByType() throws Exception {
+        FakeNeo4jService graph = new FakeNeo4jService();
+        graph.node(1, "Person");
+        graph.node(2, "Movie");
+        graph.relationship(1, 1, 2, "ACTED_IN").properties.put("updatedAt", 5L);
+        graph.relationship(2, 1, 2, "DIRECTED").properties.put("updatedAt", 6L);
+        GraphSyncPoller poller = new GraphSyncPoller(graph,
+            GraphImportReader.Filter.parse("relationships: ACTED_IN"), "updatedAt", 10);
+
+        // Without a watermark the first poll reads every element that has the property
+        assertEquals(List.of(graph.relationships.get(0)), poll(poller));
+        assertEquals(5L, poller.getWatermark());
+        assertEquals("MATCH (n)-[r:`ACTED_IN`]->(m) WHERE r.`updatedAt` IS NOT NULL"
+            + " RETURN r, r.`updatedAt` AS watermark", graph.queries.get(1));
+    }
+
+    @Test
+    void stoppedPollKeepsTheWatermark() throws Exception {
+        FakeNeo4jService graph = new FakeNeo4jService();
+        graph.node(1, "Person").properties.put("updatedAt", 1L);
+        graph.node(2, "Person").properties.put("updatedAt", 2L);
+        GraphSyncPoller poller = new GraphSyncPoller(graph, new GraphImportReader.Filter(), "updatedAt", 1);
+
+        long records = poller.poll(chunk -> false);
+
+        assertEquals(1, records);
+        assertNull(poller.getWatermark());
+        assertTrue(graph.queries.stream().noneMatch(q -> q.contains("RETURN r")));
+    }
+
+    @Test
+    void checksEachQueryPlanOnce() throws Exception {
+        FakeNeo4jService graph = new FakeNeo4jService();
+        graph.node(1, "Person").properties.put("updatedAt", 1L);
+        graph.plan = FakeNeo4jService.plan("ProduceResults", 1,
+            FakeNeo4jService.plan("Filter", 1, FakeNeo4jService.plan("AllNodesScan", 1)));
+        GraphSyncPoller poller = new GraphSyncPoller(graph, new GraphImportReader.Filter(), "updatedAt", 10);
+        poller.initializeWatermark();
+
+        poll(poller);
+        poll(poller);
+
+        assertEquals(2, graph.explained.size());
+        assertTrue(graph.explained.get(0).startsWith("MATCH (n) WHERE n.`updatedAt` >= $since"));
+    }
+}
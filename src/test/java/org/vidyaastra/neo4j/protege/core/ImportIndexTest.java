@@ -0,0 +1,53 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.types.Node;
+
+class ImportIndexTest {
+
+    private static Node node(List<String> labels, Object... keysAndValues) {
+        Map<String, Value> properties = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            properties.put((String) keysAndValues[i], Values.value(keysAndValues[i + 1]));
+        }
+        return new InternalNode(1, labels, properties);
+    }
+
+    @Test
+    void byteArraysAreHashedByContent() {
+        long hash = ImportIndex.contentHash(node(List.of("File"), "data", new byte[] {1, 2, 3}));
+
+        assertEquals(hash, ImportIndex.contentHash(node(List.of("File"), "data", new byte[] {1, 2, 3})));
+        assertNotEquals(hash, ImportIndex.contentHash(node(List.of("File"), "data", new byte[] {1, 2, 4})));
+    }
+
+    @Test
+    void orderOfLabelsAndPropertiesDoesNotMatter() {
+        assertEquals(
+            ImportIndex.contentHash(node(List.of("Person", "Actor"), "name", "Ann", "born", 1970L)),
+            ImportIndex.contentHash(node(List.of("Actor", "Person"), "born", 1970L, "name", "Ann")));
+    }
+
+    @Test
+    void changedValuesTypesAndLabelsChangeTheHash() {
+        long hash = ImportIndex.contentHash(node(List.of("Person"), "name", "Ann", "born", 1970L));
+
+        assertNotEquals(hash, ImportIndex.contentHash(node(List.of("Person"), "name", "Ann", "born", 1971L)));
+        assertNotEquals(hash, ImportIndex.contentHash(node(List.of("Person"), "name", "Ann", "born", "1970")));
+        assertNotEquals(hash, ImportIndex.contentHash(node(List.of("Actor"), "name", "Ann", "born", 1970L)));
+        assertNotEquals(hash, ImportIndex.contentHash(node(List.of("Person"), "name", "Ann")));
+        assertNotEquals(
+            ImportIndex.contentHash(node(List.of("Person"), "tags", List.of("a", "b"))),
+            ImportIndex.contentHash(node(List.of("Person"), "tags", List.of("ab"))));
+    }
+}
@@ -0,0 +1,142 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+class LlmHttpClientTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * Local server answering every request with a small JSON body after {@code delay}, and
+     * recording the requests it received.
+     */
+    private static class Server implements AutoCloseable {
+        final HttpServer server;
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final List<HttpExchange> exchanges = new CopyOnWriteArrayList<>();
+        final List<String> bodies = new CopyOnWriteArrayList<>();
+        final CountDownLatch released = new CountDownLatch(1);
+        volatile Duration delay = Duration.ZERO;
+
+        Server() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", this::handle);
+            server.setExecutor(executor);
+            server.start();
+        }
+
+        String url(String path) {
+            return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            exchanges.add(exchange);
+            bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            try {
+                released.await(delay.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] response = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        }
+
+        @Override
+        public void close() {
+            released.countDown();
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void endpointsOnOneOriginShareAClient() {
+        Duration connect = Duration.ofSeconds(3);
+        LlmHttpClient client = LlmHttpClient.forEndpoint("http://llm.local:8080/v1", connect, TIMEOUT);
+
+        assertSame(client, LlmHttpClient.forEndpoint("http://llm.local:8080/other", connect, TIMEOUT));
+        assertNotSame(client, LlmHttpClient.forEndpoint("http://llm.local:8081/v1", connect, TIMEOUT));
+        assertNotSame(client, LlmHttpClient.forEndpoint("http://llm.local:8080/v1", connect, Duration.ofSeconds(9)));
+    }
+
+    @Test
+    void postsJsonAndReusesTheConnection() throws Exception {
+        try (Server server = new Server()) {
+            LlmHttpClient client = LlmHttpClient.forEndpoint(server.url("/v1"), TIMEOUT, TIMEOUT);
+
+            CompletableFuture<HttpResponse<String>> first =
+                client.postJson(server.url("/v1/chat/completions"), "secret", "{\"q\":1}");
+            assertEquals(200, first.get(5, TimeUnit.SECONDS).statusCode());
+            HttpResponse<String> second = client.postJson(server.url("/v1/chat/completions"), "secret", "{\"q\":2}")
+                .get(5, TimeUnit.SECONDS);
+
+            assertEquals("{\"ok\":true}", second.body());
+            assertEquals(List.of("{\"q\":1}", "{\"q\":2}"), server.bodies);
+            HttpExchange exchange = server.exchanges.get(1);
+            assertEquals("POST", exchange.getRequestMethod());
+            assertEquals("application/json", exchange.getRequestHeaders().getFirst("Content-Type"));
+            assertEquals("Bearer secret", exchange.getRequestHeaders().getFirst("Authorization"));
+            // Both requests came over the same pooled connection
+            assertEquals(server.exchanges.get(0).getRemoteAddress(), exchange.getRemoteAddress());
+        }
+    }
+
+    @Test
+    void sendsNoAuthorizationWithoutApiKey() throws Exception {
+        try (Server server = new Server()) {
+            LlmHttpClient client = LlmHttpClient.forEndpoint(server.url("/v1"), TIMEOUT, TIMEOUT);
+
+            client.postJson(server.url("/v1/chat/completions"), " ", "{}").get(5, TimeUnit.SECONDS);
+
+            assertNull(server.exchanges.get(0).getRequestHeaders().getFirst("Authorization"));
+        }
+    }
+
+    @Test
+    void returnsAtOnceAndTimesOutASlowResponse() throws Exception {
+        try (Server server = new Server()) {
+            server.delay = Duration.ofSeconds(10);
+            LlmHttpClient client = LlmHttpClient.forEndpoint(server.url("/v1"), TIMEOUT, TIMEOUT);
+
+            long start = System.nanoTime();
+            CompletableFuture<HttpResponse<String>> response =
+                client.postJson(server.url("/v1/chat/completions"), "", "{}", Duration.ofMillis(200));
+            assertFalse(response.isDone());
+
+            ExecutionException error = assertThrows(ExecutionException.class,
+                () -> response.get(5, TimeUnit.SECONDS));
+            assertTrue(error.getCause() instanceof HttpTimeoutException, String.valueOf(error.getCause()));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        }
+    }
+}
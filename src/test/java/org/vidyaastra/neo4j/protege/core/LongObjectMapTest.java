@@ -0,0 +1,96 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+import org.junit.jupiter.api.Test;
+
+class LongObjectMapTest {
+
+    @Test
+    void putGetAndReplace() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        assertNull(map.put(42, "a"));
+        assertEquals("a", map.put(42, "b"));
+
+        assertEquals("b", map.get(42));
+        assertEquals(1, map.size());
+        assertTrue(map.containsKey(42));
+        assertFalse(map.containsKey(43));
+        assertNull(map.get(43));
+    }
+
+    @Test
+    void rehashKeepsEveryMapping() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = 0; key < 100_000; key++) {
+            map.put(key * 7, key);
+        }
+
+        assertEquals(100_000, map.size());
+        for (long key = 0; key < 100_000; key++) {
+            assertEquals(Long.valueOf(key), map.get(key * 7), "key " + key * 7);
+        }
+        assertNull(map.get(1));
+    }
+
+    @Test
+    void collidingAndExtremeKeysAreKeptApart() {
+        // Keys differing only in the high bits, zero and the extremes share slots in a small table
+        long[] keys = {0, 1L << 32, 2L << 32, 3L << 32, -1, Long.MIN_VALUE, Long.MAX_VALUE, 1L << 62, 16, 32};
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        for (long key : keys) {
+            map.put(key, "v" + key);
+        }
+
+        assertEquals(keys.length, map.size());
+        for (long key : keys) {
+            assertEquals("v" + key, map.get(key));
+        }
+        assertNull(map.get(4L << 32));
+    }
+
+    @Test
+    void computeIfAbsentCreatesOnce() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        int[] calls = {0};
+        LongFunction<String> factory = key -> {
+            calls[0]++;
+            return "x" + key;
+        };
+
+        assertEquals("x7", map.computeIfAbsent(7, factory));
+        assertEquals("x7", map.computeIfAbsent(7, factory));
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    void forEachVisitsEveryMappingAndClearEmpties() {
+        LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = -50; key < 50; key++) {
+            map.put(key, key * 2);
+        }
+
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(100, visited.size());
+        visited.forEach((key, value) -> assertEquals(Long.valueOf(key * 2), value));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(10));
+    }
+
+    @Test
+    void rejectsNullValues() {
+        assertThrows(IllegalArgumentException.class, () -> new LongObjectMap<String>().put(1, null));
+    }
+}
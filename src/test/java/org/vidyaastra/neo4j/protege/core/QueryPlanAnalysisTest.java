@@ -0,0 +1,104 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.vidyaastra.neo4j.protege.core.FakeNeo4jService.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.summary.Plan;
+
+class QueryPlanAnalysisTest {
+
+    private static final QueryPlanAnalysis.Thresholds DEFAULTS = new QueryPlanAnalysis.Thresholds();
+
+    @Test
+    void smallIndexedPlanIsOk() {
+        QueryPlanAnalysis analysis = QueryPlanAnalysis.analyze(
+            plan("ProduceResults@neo4j", 10, plan("NodeIndexSeek@neo4j", 10)), DEFAULTS);
+
+        assertEquals(QueryPlanAnalysis.Verdict.OK, analysis.getVerdict());
+        assertTrue(analysis.getFindings().isEmpty());
+        assertEquals(10, analysis.getMaxEstimatedRows());
+        assertEquals(20, analysis.getCost());
+        assertTrue(analysis.getPlanSummary().contains("NodeIndexSeek  (est. rows 10)"));
+    }
+
+    @Test
+    void rowEstimatesWarnAndBlockAtTheirLimits() {
+        QueryPlanAnalysis.Thresholds thresholds = new QueryPlanAnalysis.Thresholds();
+        thresholds.warnEstimatedRows = 1_000;
+        thresholds.blockEstimatedRows = 1_000_000;
+
+        assertEquals(QueryPlanAnalysis.Verdict.OK,
+            QueryPlanAnalysis.analyze(plan("NodeByLabelScan", 999), thresholds).getVerdict());
+        assertEquals(QueryPlanAnalysis.Verdict.WARN,
+            QueryPlanAnalysis.analyze(plan("NodeByLabelScan", 1_000), thresholds).getVerdict());
+        QueryPlanAnalysis blocked = QueryPlanAnalysis.analyze(
+            plan("ProduceResults", 1, plan("Expand(All)", 1_000_000)), thresholds);
+        assertEquals(QueryPlanAnalysis.Verdict.BLOCK, blocked.getVerdict());
+        assertEquals(1, blocked.getFindings().size());
+        assertTrue(blocked.getFindings().get(0).contains("block limit"));
+
+        thresholds.blockEstimatedRows = 0;
+        assertEquals(QueryPlanAnalysis.Verdict.WARN,
+            QueryPlanAnalysis.analyze(plan("Expand(All)", 1_000_000), thresholds).getVerdict());
+    }
+
+    @Test
+    void cartesianProductsAndAllNodesScansWarnUnlessSetToBlock() {
+        Plan plan = plan("ProduceResults", 4,
+            plan("CartesianProduct", 4, plan("AllNodesScan@neo4j", 2), plan("AllNodesScan@neo4j", 2)));
+
+        QueryPlanAnalysis warned = QueryPlanAnalysis.analyze(plan, DEFAULTS);
+        assertEquals(QueryPlanAnalysis.Verdict.WARN, warned.getVerdict());
+        assertEquals(1, warned.getCartesianProducts());
+        assertEquals(2, warned.getAllNodesScans());
+        assertEquals(2, warned.getFindings().size());
+        // Both pathological operators weigh ten times their row estimate
+        assertEquals(4 + 40 + 20 + 20, warned.getCost());
+
+        QueryPlanAnalysis.Thresholds strict = new QueryPlanAnalysis.Thresholds();
+        strict.blockAllNodesScans = true;
+        assertEquals(QueryPlanAnalysis.Verdict.BLOCK, QueryPlanAnalysis.analyze(plan, strict).getVerdict());
+        strict = new QueryPlanAnalysis.Thresholds();
+        strict.blockCartesianProducts = true;
+        assertEquals(QueryPlanAnalysis.Verdict.BLOCK, QueryPlanAnalysis.analyze(plan, strict).getVerdict());
+    }
+
+    @Test
+    void candidatesAreRankedByCostWithBlockedAndUnplannableLast() {
+        Map<String, Plan> plans = Map.of(
+            "scan", plan("ProduceResults", 100, plan("AllNodesScan", 100)),
+            "seek", plan("ProduceResults", 1, plan("NodeIndexSeek", 1)),
+            "huge", plan("ProduceResults", 1, plan("Expand(All)", 50_000_000)),
+            "label", plan("ProduceResults", 100, plan("NodeByLabelScan", 100)));
+        FakeNeo4jService graph = new FakeNeo4jService() {
+            @Override
+            public Plan explain(String cypherQuery, Map<String, Object> parameters) {
+                explained.add(cypherQuery);
+                if (!plans.containsKey(cypherQuery)) {
+                    throw new IllegalArgumentException("Invalid input");
+                }
+                return plans.get(cypherQuery);
+            }
+        };
+
+        List<QueryPlanAnalysis.RankedCandidate> ranked = QueryPlanAnalysis.rankCandidates(graph,
+            List.of("broken", "huge", "scan", "label", "seek"), DEFAULTS);
+
+        assertEquals(List.of("broken", "huge", "scan", "label", "seek"), graph.explained);
+        List<String> order = new ArrayList<>();
+        for (QueryPlanAnalysis.RankedCandidate candidate : ranked) {
+            order.add(candidate.query);
+        }
+        assertEquals(List.of("seek", "label", "scan", "huge", "broken"), order);
+        assertEquals(5, ranked.get(0).index);
+        assertEquals(QueryPlanAnalysis.Verdict.BLOCK, ranked.get(3).analysis.getVerdict());
+        assertFalse(ranked.get(4).analysis.isPlanAvailable());
+    }
+}
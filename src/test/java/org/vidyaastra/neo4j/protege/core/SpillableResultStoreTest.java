@@ -0,0 +1,166 @@
+package org.vidyaastra.neo4j.protege.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Value;
+import org.neo4j.driver.Values;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalRecord;
+import org.neo4j.driver.internal.InternalRelationship;
+import org.neo4j.driver.types.Node;
+import org.neo4j.driver.types.Relationship;
+
+class SpillableResultStoreTest {
+
+    private static Map<String, Object> row(int i) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", (long) i);
+        row.put("score", i + 0.5);
+        row.put("flag", i % 2 == 0);
+        row.put("name", "row " + i);
+        row.put("tags", List.of("t" + i, (long) i));
+        row.put("props", Map.of("nested", "value " + i));
+        row.put("data", new byte[] {(byte) i, 0, (byte) 0xFF});
+        row.put("missing", null);
+        return row;
+    }
+
+    @Test
+    void heapAndSpilledRowsRoundTrip() {
+        try (SpillableResultStore store = new SpillableResultStore(2)) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                rows.add(row(i));
+            }
+            store.addAll(rows);
+
+            assertEquals(5, store.size());
+            assertEquals(3, store.getSpilledRows());
+            assertTrue(store.getSpilledBytes() > 0);
+            assertEquals(List.of("id", "score", "flag", "name", "tags", "props", "data", "missing"),
+                store.getColumns());
+
+            for (int i = 0; i < 5; i++) {
+                Map<String, Object> expected = row(i);
+                Map<String, Object> actual = store.get(i);
+                assertEquals(expected.get("id"), actual.get("id"), "id of row " + i);
+                assertEquals(expected.get("score"), actual.get("score"), "score of row " + i);
+                assertEquals(expected.get("flag"), actual.get("flag"), "flag of row " + i);
+                assertEquals(expected.get("name"), actual.get("name"), "name of row " + i);
+                assertEquals(expected.get("tags"), actual.get("tags"), "tags of row " + i);
+                assertEquals(expected.get("props"), actual.get("props"), "props of row " + i);
+                assertArrayEquals((byte[]) expected.get("data"), (byte[]) actual.get("data"), "data of row " + i);
+                assertTrue(actual.containsKey("missing"));
+                assertNull(actual.get("missing"));
+                assertEquals("row " + i, store.getValue(i, "name"));
+            }
+        }
+    }
+
+    @Test
+    void cellReadsOfSpilledRowsAreNotAffectedByChangesToReturnedRows() {
+        try (SpillableResultStore store = new SpillableResultStore(0)) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (int i = 0; i < 600; i++) {
+                rows.add(row(i));
+            }
+            store.addAll(rows);
+
+            // More rows than the decoded row cache holds, read cell by cell twice
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i < 600; i++) {
+                    assertEquals((long) i, store.getValue(i, "id"));
+                    assertEquals("row " + i, store.getValue(i, "name"));
+                }
+            }
+            store.get(7).put("name", "changed");
+            assertEquals("row 7", store.getValue(7, "name"));
+            assertEquals("row 7", store.get(7).get("name"));
+        }
+    }
+
+    @Test
+    void recordsRoundTripOnHeapAndSpilled() {
+        try (SpillableResultStore store = new SpillableResultStore(1)) {
+            List<Record> records = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                records.add(new InternalRecord(List.of("id", "score", "name", "missing"), new Value[] {
+                    Values.value((long) i), Values.value(i + 0.5), Values.value("row " + i), Values.value(null)}));
+            }
+            store.addRecords(records);
+
+            assertEquals(3, store.size());
+            assertEquals(2, store.getSpilledRows());
+            assertEquals(List.of("id", "score", "name", "missing"), store.getColumns());
+            for (int i = 0; i < 3; i++) {
+                Map<String, Object> row = store.get(i);
+                assertEquals((long) i, row.get("id"));
+                assertEquals(i + 0.5, row.get("score"));
+                assertEquals("row " + i, store.getValue(i, "name"));
+                assertTrue(row.containsKey("missing"));
+                assertNull(row.get("missing"));
+            }
+        }
+    }
+
+    @Test
+    void nodesAndRelationshipsRoundTripWhenSpilled() {
+        try (SpillableResultStore store = new SpillableResultStore(0)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("n", new InternalNode(7, List.of("Person", "Actor"), Map.of("name", Values.value("Ann"))));
+            row.put("r", new InternalRelationship(3, 7, 8, "ACTED_IN", Map.of("year", Values.value(1999L))));
+            store.addAll(List.of(row));
+
+            assertEquals(1, store.getSpilledRows());
+            Node node = (Node) store.get(0).get("n");
+            assertEquals(7, node.id());
+            assertEquals(List.of("Person", "Actor"), node.labels());
+            assertEquals("Ann", node.asMap().get("name"));
+
+            Relationship rel = (Relationship) store.get(0).get("r");
+            assertEquals(3, rel.id());
+            assertEquals(7, rel.startNodeId());
+            assertEquals(8, rel.endNodeId());
+            assertEquals("ACTED_IN", rel.type());
+            assertEquals(1999L, rel.asMap().get("year"));
+        }
+    }
+
+    @Test
+    void declaredColumnsKeepTheirOrderWithoutRows() {
+        try (SpillableResultStore store = new SpillableResultStore(10)) {
+            store.addColumns(List.of("b", "a"));
+            assertEquals(List.of("b", "a"), store.getColumns());
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("a", 1L);
+            row.put("b", 2L);
+            row.put("c", 3L);
+            store.addAll(List.of(row));
+            assertEquals(List.of("b", "a", "c"), store.getColumns());
+        }
+    }
+
+    @Test
+    void closeDropsRowsAndIgnoresLaterOnes() {
+        SpillableResultStore store = new SpillableResultStore(1);
+        store.addAll(List.of(row(0), row(1), row(2)));
+        store.close();
+
+        assertEquals(0, store.size());
+        store.addAll(List.of(row(3)));
+        assertEquals(0, store.size());
+        assertFalse(store.getSpilledBytes() > 0);
+    }
+}